@@ -0,0 +1,140 @@
+package yugioh.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import yugioh.core.BattleAdapter;
+import yugioh.core.BattleListener;
+import yugioh.core.Duel;
+import yugioh.core.DuelKernel;
+import yugioh.core.DuelRandom;
+import yugioh.core.DuelState;
+import yugioh.core.ExpectimaxAiStrategy;
+import yugioh.journal.DuelJournal;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor del duelo: resolución de una ronda (sola y copiada al diario), copia y
+ * restauración del estado, elección de la IA y un duelo entero en
+ * {@link DuelKernel}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuelBenchmark {
+
+    private static final BattleListener SILENT = new BattleAdapter() {
+    };
+    private static final int[] PLAYER_ATK = {1800, 2500, 1000};
+    private static final int[] PLAYER_DEF = {1200, 2100, 900};
+    private static final int[] AI_ATK = {1700, 2400, 1200};
+    private static final int[] AI_DEF = {1600, 1000, 2000};
+
+    private final List<Card> player = Fixtures.playerHand();
+    private final List<Card> ai = Fixtures.aiHand();
+    private final long seed = Fixtures.playerStartsSeed();
+    private final CardSelection firstCard = new CardSelection(player.get(0), CardPosition.ATTACK);
+    private final CardSelection secondCard = new CardSelection(player.get(1), CardPosition.ATTACK);
+    private final DuelKernel kernel = new DuelKernel();
+
+    private Duel resolved;
+    private Duel greedyTurn;
+    private Duel expectimaxTurn;
+    private Path journalFile;
+    private DuelJournal journal;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        resolved = new Duel(player, ai, SILENT, new DuelRandom(seed));
+        resolved.start();
+        resolved.setPlayerSelection(secondCard);
+        resolved.resolvePendingRound();
+
+        // con turno del jugador, cada selección hace que la IA elija su respuesta
+        greedyTurn = new Duel(player, ai, SILENT, new DuelRandom(seed));
+        greedyTurn.start();
+        expectimaxTurn = new Duel(player, ai, SILENT, new DuelRandom(seed),
+                new ExpectimaxAiStrategy(Duration.ofMillis(20)));
+        expectimaxTurn.start();
+
+        journalFile = Files.createTempFile("bench-journal", ".ygj");
+        Files.delete(journalFile);
+        journal = DuelJournal.open(journalFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        journal.close();
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Benchmark
+    public Duel resolveRound() {
+        Duel duel = new Duel(player, ai, SILENT, new DuelRandom(seed));
+        duel.start();
+        duel.setPlayerSelection(secondCard);
+        duel.resolvePendingRound();
+        return duel;
+    }
+
+    /** Lo mismo que {@link #resolveRound()}, con el comienzo y los cuatro eventos copiados al diario. */
+    @Benchmark
+    public Duel journalResolveRound() {
+        DuelRandom random = new DuelRandom(seed);
+        Duel duel = new Duel(player, ai, journal.record(random, player, ai, SILENT), random);
+        duel.start();
+        duel.setPlayerSelection(secondCard);
+        duel.resolvePendingRound();
+        return duel;
+    }
+
+    @Benchmark
+    public DuelState snapshotRestore() {
+        DuelState state = resolved.snapshot();
+        resolved.restore(state);
+        return state;
+    }
+
+    @Benchmark
+    public boolean chooseAiCard() {
+        return greedyTurn.setPlayerSelection(firstCard);
+    }
+
+    @Benchmark
+    public boolean expectimaxAi() {
+        return expectimaxTurn.setPlayerSelection(firstCard);
+    }
+
+    @Benchmark
+    public int kernelFullDuel() {
+        kernel.load(PLAYER_ATK, PLAYER_DEF, AI_ATK, AI_DEF, true);
+        int position = DuelKernel.ATTACK;
+        while (!kernel.isFinished()) {
+            int playerIndex = Integer.numberOfTrailingZeros(kernel.getPlayerMask());
+            kernel.playRound(playerIndex, position, kernel.aiChoice(), DuelKernel.DEFENSE);
+            position ^= 1;
+        }
+        return kernel.winner();
+    }
+}
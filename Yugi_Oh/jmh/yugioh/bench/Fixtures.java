@@ -0,0 +1,127 @@
+package yugioh.bench;
+
+import yugioh.core.DuelRandom;
+import yugioh.model.Card;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos de entrada de los benchmarks. Si {@code -Dbench.fixtures=<dir>} apunta a
+ * respuestas grabadas ({@code cardinfo-<n>.json}) se usan esas; si no, se
+ * genera JSON con la misma forma que devuelve {@code cardinfo.php}. Los duelos
+ * se juegan siempre con las mismas manos y una semilla en la que empieza el
+ * jugador.
+ */
+final class Fixtures {
+
+    private static final String[] TYPES = {
+            "Effect Monster", "Normal Monster", "Fusion Monster", "Spell Card", "Trap Card", "XYZ Monster"
+    };
+
+    private Fixtures() {
+    }
+
+    static String cardInfoJson(int cards) throws IOException {
+        String directory = System.getProperty("bench.fixtures");
+        if (directory != null) {
+            Path recorded = Path.of(directory, "cardinfo-" + cards + ".json");
+            if (Files.exists(recorded)) {
+                return Files.readString(recorded, StandardCharsets.UTF_8);
+            }
+        }
+        return generateCardInfoJson(cards);
+    }
+
+    private static String generateCardInfoJson(int cards) {
+        SplittableRandom random = new SplittableRandom(cards);
+        StringBuilder json = new StringBuilder(cards * 1200).append("{\"data\":[");
+        for (int i = 0; i < cards; i++) {
+            int id = 10_000_000 + i * 37;
+            String type = TYPES[random.nextInt(TYPES.length)];
+            boolean monster = type.endsWith("Monster");
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(id)
+                    .append(",\"name\":\"Carta de prueba ").append(i).append(" \\u2605\"")
+                    .append(",\"type\":\"").append(type).append('"')
+                    .append(",\"frameType\":\"").append(monster ? "effect" : "spell").append('"')
+                    .append(",\"desc\":\"Cuando esta carta es Invocada de Modo Normal: puedes seleccionar 1 monstruo ")
+                    .append("en el campo de tu adversario; destr\\u00fayelo.\\r\\nNo puedes activar el efecto ")
+                    .append("de \\\"Carta de prueba ").append(i).append("\\\" m\\u00e1s de una vez por turno.\"");
+            if (monster) {
+                json.append(",\"atk\":").append(random.nextInt(31) * 100)
+                        .append(",\"def\":").append(random.nextInt(5) == 0 ? "null" : String.valueOf(random.nextInt(31) * 100))
+                        .append(",\"level\":").append(1 + random.nextInt(12))
+                        .append(",\"race\":\"Dragon\",\"attribute\":\"DARK\"");
+            } else {
+                json.append(",\"race\":\"Normal\"");
+            }
+            json.append(",\"ygoprodeck_url\":\"https:\\/\\/ygoprodeck.com\\/card\\/carta-").append(i).append('"')
+                    .append(",\"card_sets\":[{\"set_name\":\"Legend of Blue Eyes\",\"set_code\":\"LOB-EN").append(i % 1000)
+                    .append("\",\"set_rarity\":\"Common\",\"set_price\":\"1.23\"}]")
+                    .append(",\"card_images\":[{\"id\":").append(id)
+                    .append(",\"image_url\":\"https:\\/\\/images.ygoprodeck.com\\/images\\/cards\\/").append(id).append(".jpg\"")
+                    .append(",\"image_url_small\":\"https:\\/\\/images.ygoprodeck.com\\/images\\/cards_small\\/").append(id).append(".jpg\"")
+                    .append(",\"image_url_cropped\":\"https:\\/\\/images.ygoprodeck.com\\/images\\/cards_cropped\\/").append(id).append(".jpg\"}]")
+                    .append(",\"card_prices\":[{\"cardmarket_price\":\"0.02\",\"tcgplayer_price\":\"0.08\",\"ebay_price\":\"0.99\"}]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /** JPEG local del tamaño de las ilustraciones de YGOProDeck (421x614). */
+    static Path cardImage() throws IOException {
+        BufferedImage image = new BufferedImage(421, 614, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setPaint(new GradientPaint(0, 0, new Color(0x5c3b1e), 421, 614, new Color(0xd9b26f)));
+            g.fillRect(0, 0, 421, 614);
+            g.setColor(Color.DARK_GRAY);
+            for (int y = 0; y < 614; y += 7) {
+                g.drawLine(0, y, 421, 614 - y);
+            }
+        } finally {
+            g.dispose();
+        }
+        Path file = Files.createTempFile("bench-card", ".jpg");
+        file.toFile().deleteOnExit();
+        ImageIO.write(image, "jpg", file.toFile());
+        return file;
+    }
+
+    static List<Card> playerHand() {
+        return hand(1, 1800, 1200, 2500, 2100, 1000, 900);
+    }
+
+    static List<Card> aiHand() {
+        return hand(11, 1700, 1600, 2400, 1000, 1200, 2000);
+    }
+
+    private static List<Card> hand(int firstId, int... stats) {
+        List<Card> hand = new ArrayList<>();
+        for (int i = 0; i < stats.length; i += 2) {
+            hand.add(new Card(firstId + i / 2, "Carta " + (firstId + i / 2), "Normal Monster", stats[i], stats[i + 1], "", ""));
+        }
+        return hand;
+    }
+
+    /** Semilla cuyo primer sorteo da el turno inicial al jugador. */
+    static long playerStartsSeed() {
+        long seed = 0;
+        while (!new DuelRandom(seed).nextBoolean()) {
+            seed++;
+        }
+        return seed;
+    }
+}
@@ -0,0 +1,75 @@
+package yugioh.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import yugioh.image.ImageScaler;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura y escalado de una ilustración de YGOProDeck: el camino antiguo con
+ * {@link Image#getScaledInstance} frente al de {@link ImageScaler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageBenchmark {
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createImage() throws IOException {
+        file = Fixtures.cardImage();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteImage() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public BufferedImage scaleSmooth() throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        Image scaled = image.getScaledInstance(160, 240, Image.SCALE_SMOOTH);
+        BufferedImage target = new BufferedImage(160, 240, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        g.drawImage(scaled, 0, 0, null);
+        g.dispose();
+        return target;
+    }
+
+    @Benchmark
+    public BufferedImage scaleFast() throws IOException {
+        BufferedImage image = ImageScaler.decode(Files.readAllBytes(file), 160, 240);
+        return ImageScaler.scale(image, 160, 240);
+    }
+
+    /** Mano y zona de batalla a partir de una sola decodificación. */
+    @Benchmark
+    public void scaleFastBoth(Blackhole blackhole) throws IOException {
+        BufferedImage image = ImageScaler.decode(Files.readAllBytes(file), 180, 262);
+        blackhole.consume(ImageScaler.scale(image, 160, 240));
+        blackhole.consume(ImageScaler.scale(image, 180, 262));
+    }
+}
@@ -0,0 +1,57 @@
+package yugioh.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yugioh.api.CardJsonParser;
+import yugioh.catalog.CardIndex;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Consultas al índice en memoria de la base completa (12 000 cartas). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+
+    private CardIndex index;
+    private int[] ids;
+    private int next;
+
+    @Setup
+    public void load() throws IOException {
+        List<Card> cards = CardJsonParser.parse(Fixtures.cardInfoJson(12_000));
+        index = new CardIndex(cards);
+        ids = cards.stream().mapToInt(Card::getId).toArray();
+    }
+
+    @Benchmark
+    public Card byId() {
+        int id = ids[next];
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return index.byId(id);
+    }
+
+    @Benchmark
+    public int atkRange() {
+        return index.countAtkBetween(1500, 2000);
+    }
+
+    @Benchmark
+    public List<Card> searchName() {
+        return index.searchName("prueba 11", 20);
+    }
+}
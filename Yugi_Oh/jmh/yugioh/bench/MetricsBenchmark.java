@@ -0,0 +1,60 @@
+package yugioh.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yugioh.metrics.LatencyHistogram;
+import yugioh.metrics.MetricsRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/** Coste de instrumentar: registrar una latencia y exportar el registro a Prometheus. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private long sample;
+
+    @Setup
+    public void fillRegistry() {
+        for (int i = 0; i < 20; i++) {
+            LatencyHistogram series = registry.histogram("bench_seconds", "Prueba", "series", "s" + i);
+            for (int j = 0; j < 1000; j++) {
+                series.record(j * 1000L);
+            }
+            registry.counter("bench_total", "Prueba", "series", "s" + i).add(i);
+        }
+    }
+
+    /** Valores repartidos entre 0 y ~1 ms para recorrer muchos cubos. */
+    @Benchmark
+    public LatencyHistogram record() {
+        histogram.record((sample++ * 7919) & 0xfffff);
+        return histogram;
+    }
+
+    /** Lo que cuesta medir de verdad: dos {@link System#nanoTime()} más el registro. */
+    @Benchmark
+    public LatencyHistogram timedRecord() {
+        histogram.recordSince(System.nanoTime());
+        return histogram;
+    }
+
+    @Benchmark
+    public String prometheus() {
+        return registry.toPrometheus();
+    }
+}
@@ -0,0 +1,47 @@
+package yugioh.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import yugioh.api.CardJsonParser;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parseo de respuestas de {@code cardinfo.php} de una carta, de una página y de
+ * la base completa.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"1", "100", "12000"})
+    public int cards;
+
+    private String json;
+
+    @Setup
+    public void load() throws IOException {
+        json = Fixtures.cardInfoJson(cards);
+    }
+
+    @Benchmark
+    public List<Card> parse() throws IOException {
+        return CardJsonParser.parse(json);
+    }
+}
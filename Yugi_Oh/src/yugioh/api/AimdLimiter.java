@@ -0,0 +1,125 @@
+package yugioh.api;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Límite adaptativo de peticiones simultáneas a un host, con incremento aditivo
+ * y decremento multiplicativo (AIMD) como el control de congestión de TCP: cada
+ * respuesta correcta suma {@code 1/límite}, es decir, una petición más por cada
+ * ventana completa que sale bien, y cada señal de saturación (HTTP 429/503 o
+ * tiempo agotado) lo divide por dos. Las respuestas a peticiones enviadas antes
+ * de la última reducción no vuelven a reducirlo: pertenecen a la misma ráfaga.
+ *
+ * <p>Quien no obtiene permiso espera en cola sin ocupar un hilo; con la cola
+ * llena la petición se rechaza.
+ */
+final class AimdLimiter {
+
+    enum Outcome {
+        /** Respuesta normal del servidor, aunque no sea 200. */
+        SUCCESS,
+        /** El servidor está saturado o nos limita. */
+        OVERLOAD,
+        /** Fallo que no dice nada de la carga del servidor. */
+        NEUTRAL
+    }
+
+    private static final double BACKOFF = 0.5;
+
+    private final int min;
+    private final int max;
+    private final int maxQueued;
+    private final ArrayDeque<CompletableFuture<Long>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inUse;
+    private long lastDecrease = System.nanoTime();
+    private long decreases;
+
+    AimdLimiter(int initial, int min, int max, int maxQueued) {
+        if (min < 1 || initial < min || max < initial) {
+            throw new IllegalArgumentException("Límites no válidos: " + min + " <= " + initial + " <= " + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.maxQueued = maxQueued;
+        this.limit = initial;
+    }
+
+    /**
+     * Pide un permiso. El futuro se completa con el instante ({@link System#nanoTime()})
+     * en que se concedió, que hay que devolver en {@link #release}; vale
+     * {@code null} si la cola está llena y la petición se rechaza.
+     */
+    synchronized CompletableFuture<Long> acquire() {
+        if (inUse < (int) limit) {
+            inUse++;
+            return CompletableFuture.completedFuture(System.nanoTime());
+        }
+        if (waiters.size() >= maxQueued) {
+            return null;
+        }
+        CompletableFuture<Long> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    /**
+     * Devuelve el permiso concedido en {@code grantedAt} y ajusta el límite según
+     * cómo acabó la petición.
+     */
+    void release(long grantedAt, Outcome outcome) {
+        synchronized (this) {
+            inUse--;
+            if (outcome == Outcome.SUCCESS) {
+                // solo crece si se está usando: un host ocioso no acumula límite
+                if ((inUse + 1) * 2 >= limit) {
+                    limit = Math.min(max, limit + 1 / limit);
+                }
+            } else if (outcome == Outcome.OVERLOAD && grantedAt - lastDecrease > 0) {
+                limit = Math.max(min, limit * BACKOFF);
+                lastDecrease = System.nanoTime();
+                decreases++;
+            }
+        }
+        grantWaiting();
+    }
+
+    private void grantWaiting() {
+        while (true) {
+            CompletableFuture<Long> next;
+            synchronized (this) {
+                if (inUse >= (int) limit) {
+                    return;
+                }
+                next = waiters.poll();
+                if (next == null) {
+                    return;
+                }
+                inUse++;
+            }
+            // si esa espera se canceló, su permiso vuelve y se prueba con la siguiente
+            if (!next.complete(System.nanoTime())) {
+                synchronized (this) {
+                    inUse--;
+                }
+            }
+        }
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInUse() {
+        return inUse;
+    }
+
+    synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    synchronized long getDecreases() {
+        return decreases;
+    }
+}
@@ -0,0 +1,229 @@
+package yugioh.api;
+
+import yugioh.metrics.Counter;
+import yugioh.metrics.MetricsRegistry;
+import yugioh.model.Card;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caché de lectura para las consultas de cartas individuales de {@link YgoApiClient}.
+ * Cada carta recibida se guarda por nombre normalizado y por id, con caducidad y
+ * un máximo de entradas (se descarta la menos usada). Las consultas simultáneas
+ * por la misma clave comparten una única petición, y los nombres inexistentes se
+ * recuerdan durante un plazo más corto.
+ *
+ * <p>Las métricas exportadas suman todas las cachés del proceso; los contadores
+ * de cada instancia ({@link #getHits()}...) solo cuentan los suyos.
+ */
+public final class CardCache {
+
+    private static final Counter HITS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_card_cache_total", "Consultas a la caché de cartas", "result", "hit");
+    private static final Counter MISSES = MetricsRegistry.DEFAULT.counter(
+            "yugioh_card_cache_total", "Consultas a la caché de cartas", "result", "miss");
+    private static final Counter EVICTIONS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_card_cache_evictions_total", "Cartas descartadas por LRU");
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Map<String, CacheEntry> entries;
+    private final Map<String, CompletableFuture<Optional<Card>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CardCache(int maxEntries, Duration ttl, Duration negativeTtl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries debe ser positivo: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > CardCache.this.maxEntries) {
+                    evictions.increment();
+                    EVICTIONS.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve la carta con ese nombre; si no está en caché invoca {@code loader},
+     * guarda todas las cartas de la respuesta y resuelve con la que coincide.
+     */
+    CompletableFuture<Optional<Card>> byName(String name, Supplier<CompletableFuture<List<Card>>> loader) {
+        String normalized = normalize(name);
+        return lookup(nameKey(name), loader, cards -> {
+            for (Card card : cards) {
+                if (normalize(card.getName()).equals(normalized)) {
+                    return card;
+                }
+            }
+            return cards.isEmpty() ? null : cards.get(0);
+        });
+    }
+
+    CompletableFuture<Optional<Card>> byId(int id, Supplier<CompletableFuture<List<Card>>> loader) {
+        return lookup(idKey(id), loader, cards -> {
+            for (Card card : cards) {
+                if (card.getId() == id) {
+                    return card;
+                }
+            }
+            return null;
+        });
+    }
+
+    /** Guarda una carta obtenida por otra vía (por ejemplo, una consulta por lotes). */
+    void put(Card card) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            entries.put(idKey(card.getId()), new CacheEntry(card, expiresAt));
+            entries.put(nameKey(card.getName()), new CacheEntry(card, expiresAt));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CardCache[entries=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+                + ", evictions=" + getEvictions() + "]";
+    }
+
+    private CompletableFuture<Optional<Card>> lookup(String key, Supplier<CompletableFuture<List<Card>>> loader,
+                                                     Function<List<Card>, Card> select) {
+        Optional<Card> cached = peek(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<Optional<Card>> promise = new CompletableFuture<>();
+        CompletableFuture<Optional<Card>> shared = inFlight.putIfAbsent(key, promise);
+        if (shared == null) {
+            shared = promise;
+            CompletableFuture<List<Card>> request;
+            try {
+                request = loader.get();
+            } catch (RuntimeException e) {
+                request = CompletableFuture.failedFuture(e);
+            }
+            request.whenComplete((cards, error) -> {
+                if (error != null) {
+                    // los fallos no se guardan: la siguiente consulta vuelve a intentarlo
+                    inFlight.remove(key, promise);
+                    promise.completeExceptionally(error);
+                    return;
+                }
+                cards.forEach(this::put);
+                Card card = select.apply(cards);
+                if (card == null) {
+                    putMissing(key);
+                } else {
+                    storeUnder(key, card);
+                }
+                // se retira de las peticiones en curso solo con la caché ya poblada:
+                // quien consulte entre medias se une a esta petición en lugar de lanzar otra
+                inFlight.remove(key, promise);
+                promise.complete(Optional.ofNullable(card));
+            });
+        }
+        // cada llamante recibe su copia: cancelar una no afecta a las demás
+        return shared.copy();
+    }
+
+    /**
+     * Devuelve el dato vigente para la clave ({@link #nameKey} o {@link #idKey}):
+     * la carta, vacío si se sabe que no existe, o {@code null} si hay que consultarlo.
+     */
+    Optional<Card> peek(String key) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                HITS.increment();
+                return Optional.ofNullable(entry.card);
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        MISSES.increment();
+        return null;
+    }
+
+    private void storeUnder(String key, Card card) {
+        synchronized (entries) {
+            entries.put(key, new CacheEntry(card, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /** Recuerda que la clave no corresponde a ninguna carta. */
+    void putMissing(String key) {
+        synchronized (entries) {
+            entries.put(key, new CacheEntry(null, System.nanoTime() + negativeTtlNanos));
+        }
+    }
+
+    static String nameKey(String name) {
+        return "n:" + normalize(name);
+    }
+
+    static String idKey(int id) {
+        return "i:" + id;
+    }
+
+    static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CacheEntry {
+        final Card card;
+        final long expiresAt;
+
+        CacheEntry(Card card, long expiresAt) {
+            this.card = card;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package yugioh.api;
+
+import yugioh.catalog.DatabaseVersion;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parser JSON de una sola pasada para las respuestas de YGOProDeck.
+ * Recorre el cuerpo carácter a carácter y entrega cada {@link Card} en cuanto
+ * termina de leer su objeto, sin construir un árbol ni copiar subcadenas.
+ */
+public final class CardJsonParser {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder scratch = new StringBuilder(128);
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private CardJsonParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static List<Card> parse(String json) throws IOException {
+        List<Card> cards = new ArrayList<>();
+        parse(new StringReader(json), cards::add);
+        return cards;
+    }
+
+    /**
+     * Lee un documento {@code {"data": [...]}} (o directamente un arreglo de cartas)
+     * y entrega cada carta a {@code sink} en cuanto termina de leerla, de modo que
+     * la memoria usada no depende del tamaño del documento. Si el documento no
+     * trae el arreglo {@code data} (por ejemplo, una respuesta de error) no se
+     * entrega ninguna carta.
+     */
+    public static void parse(Reader reader, Consumer<? super Card> sink) throws IOException {
+        new CardJsonParser(reader).readDocument(sink);
+    }
+
+    /**
+     * Lee cartas en formato NDJSON: un objeto de carta por línea, como los que
+     * produce un volcado incremental del catálogo. Las líneas en blanco se ignoran.
+     */
+    public static void parseNdjson(Reader reader, Consumer<? super Card> sink) throws IOException {
+        new CardJsonParser(reader).readCardSequence(sink);
+    }
+
+    /**
+     * Lee la respuesta de {@code checkDBVer.php}: {@code [{"database_version": ..., "last_update": ...}]}.
+     */
+    public static DatabaseVersion parseDatabaseVersion(String json) throws IOException {
+        return new CardJsonParser(new StringReader(json)).readDatabaseVersion();
+    }
+
+    private DatabaseVersion readDatabaseVersion() throws IOException {
+        if (skipWhitespace() == '[') {
+            next();
+        }
+        if (skipWhitespace() != '{') {
+            return DatabaseVersion.UNKNOWN;
+        }
+        next();
+        if (skipWhitespace() == '}') {
+            return DatabaseVersion.UNKNOWN;
+        }
+        String version = null;
+        String lastUpdate = null;
+        do {
+            String key = readString();
+            expect(':');
+            if (key.equals("database_version")) {
+                version = readNullableString();
+            } else if (key.equals("last_update")) {
+                lastUpdate = readNullableString();
+            } else {
+                skipValue();
+            }
+        } while (nextMember('}'));
+        if (version == null) {
+            return DatabaseVersion.UNKNOWN;
+        }
+        return new DatabaseVersion(version, lastUpdate == null ? "" : lastUpdate);
+    }
+
+    private void readDocument(Consumer<? super Card> sink) throws IOException {
+        int first = skipWhitespace();
+        if (first == '[') {
+            readCardArray(sink);
+            return;
+        }
+        if (first != '{') {
+            return;
+        }
+        next();
+        if (skipWhitespace() == '}') {
+            next();
+            return;
+        }
+        while (true) {
+            String key = readString();
+            expect(':');
+            if (key.equals("data") && skipWhitespace() == '[') {
+                readCardArray(sink);
+            } else {
+                skipValue();
+            }
+            if (!nextMember('}')) {
+                return;
+            }
+        }
+    }
+
+    private void readCardSequence(Consumer<? super Card> sink) throws IOException {
+        int c;
+        while ((c = skipWhitespace()) >= 0) {
+            if (c != '{') {
+                throw error("se esperaba un objeto de carta");
+            }
+            sink.accept(readCard());
+        }
+    }
+
+    private void readCardArray(Consumer<? super Card> sink) throws IOException {
+        next();
+        if (skipWhitespace() == ']') {
+            next();
+            return;
+        }
+        while (true) {
+            if (skipWhitespace() == '{') {
+                sink.accept(readCard());
+            } else {
+                skipValue();
+            }
+            if (!nextMember(']')) {
+                return;
+            }
+        }
+    }
+
+    private Card readCard() throws IOException {
+        int id = 0;
+        String name = null;
+        String type = null;
+        int atk = 0;
+        int def = 0;
+        String desc = null;
+        String imageUrl = null;
+
+        next();
+        if (skipWhitespace() == '}') {
+            next();
+        } else {
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "id":
+                        id = readInt();
+                        break;
+                    case "name":
+                        name = readNullableString();
+                        break;
+                    case "type":
+                        type = readNullableString();
+                        break;
+                    case "atk":
+                        atk = readInt();
+                        break;
+                    case "def":
+                        def = readInt();
+                        break;
+                    case "desc":
+                        desc = readNullableString();
+                        break;
+                    case "card_images":
+                        imageUrl = readFirstImageUrl();
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (nextMember('}'));
+        }
+
+        return new Card(id,
+                name == null ? "Desconocida" : name,
+                type == null ? "" : type,
+                atk, def,
+                desc == null ? "" : desc,
+                imageUrl == null ? "" : imageUrl);
+    }
+
+    private String readFirstImageUrl() throws IOException {
+        if (skipWhitespace() != '[') {
+            skipValue();
+            return null;
+        }
+        next();
+        if (skipWhitespace() == ']') {
+            next();
+            return null;
+        }
+        String url = null;
+        boolean first = true;
+        do {
+            if (first && skipWhitespace() == '{') {
+                url = readImageUrl();
+            } else {
+                skipValue();
+            }
+            first = false;
+        } while (nextMember(']'));
+        return url;
+    }
+
+    private String readImageUrl() throws IOException {
+        next();
+        if (skipWhitespace() == '}') {
+            next();
+            return null;
+        }
+        String url = null;
+        do {
+            String key = readString();
+            expect(':');
+            if (url == null && key.equals("image_url")) {
+                url = readNullableString();
+            } else {
+                skipValue();
+            }
+        } while (nextMember('}'));
+        return url;
+    }
+
+    /** Consume la coma entre miembros; devuelve false al encontrar el cierre. */
+    private boolean nextMember(char close) throws IOException {
+        int c = skipWhitespace();
+        next();
+        if (c == ',') {
+            skipWhitespace();
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw error("se esperaba ',' o '" + close + "'");
+    }
+
+    private int readInt() throws IOException {
+        int c = skipWhitespace();
+        if (c == 'n') {
+            expectLiteral("null");
+            return 0;
+        }
+        if (c != '-' && (c < '0' || c > '9')) {
+            skipValue();
+            return 0;
+        }
+        boolean negative = c == '-';
+        if (negative) {
+            next();
+        }
+        long value = 0;
+        boolean integral = true;
+        while ((c = peek()) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                integral = false;
+            }
+            next();
+        }
+        if (c == '.' || c == 'e' || c == 'E') {
+            integral = false;
+            skipNumberTail();
+        }
+        if (!integral) {
+            return 0;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private String readNullableString() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            return readString();
+        }
+        skipValue();
+        return null;
+    }
+
+    private String readString() throws IOException {
+        if (skipWhitespace() != '"') {
+            throw error("se esperaba una cadena");
+        }
+        next();
+        scratch.setLength(0);
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return scratch.toString();
+            }
+            if (c == '\\') {
+                scratch.append(readEscape());
+            } else if (c < 0) {
+                throw error("cadena sin terminar");
+            } else {
+                scratch.append((char) c);
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        next();
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                readEscape();
+            } else if (c < 0) {
+                throw error("cadena sin terminar");
+            }
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = next();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw error("secuencia \\u inválida");
+                    }
+                    code = (code << 4) | digit;
+                }
+                return (char) code;
+            default:
+                throw error("escape inválido");
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = skipWhitespace();
+        switch (c) {
+            case '"':
+                skipString();
+                return;
+            case '{':
+            case '[':
+                skipContainer();
+                return;
+            case 't':
+                expectLiteral("true");
+                return;
+            case 'f':
+                expectLiteral("false");
+                return;
+            case 'n':
+                expectLiteral("null");
+                return;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    next();
+                    skipNumberTail();
+                    return;
+                }
+                throw error("valor inesperado");
+        }
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        do {
+            int c = peek();
+            if (c == '"') {
+                skipString();
+                continue;
+            }
+            next();
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            } else if (c < 0) {
+                throw error("estructura sin cerrar");
+            }
+        } while (depth > 0);
+    }
+
+    private void skipNumberTail() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')) {
+            next();
+        }
+    }
+
+    private void expectLiteral(String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i)) {
+                throw error("se esperaba " + literal);
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (skipWhitespace() != expected) {
+            throw error("se esperaba '" + expected + "'");
+        }
+        next();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            next();
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    private int next() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        pos = 0;
+        limit = 0;
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private IOException error(String detail) {
+        return new IOException("JSON inválido en la posición " + (consumed + pos) + ": " + detail);
+    }
+}
@@ -0,0 +1,54 @@
+package yugioh.api;
+
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Resultado de una consulta individual dentro de un lote: la carta encontrada,
+ * la constancia de que no existe, o el error que impidió resolverla.
+ *
+ * @param <K> tipo de la clave consultada (nombre o id)
+ */
+public final class CardLookup<K> {
+
+    private final K key;
+    private final Card card;
+    private final IOException error;
+
+    CardLookup(K key, Card card, IOException error) {
+        this.key = key;
+        this.card = card;
+        this.error = error;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public Optional<Card> getCard() {
+        return Optional.ofNullable(card);
+    }
+
+    public boolean isFound() {
+        return card != null;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /** Error de red o de la API; {@code null} si la consulta se resolvió. */
+    public IOException getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        if (error != null) {
+            return key + " -> error: " + error.getMessage();
+        }
+        return key + " -> " + (card != null ? card : "no encontrada");
+    }
+}
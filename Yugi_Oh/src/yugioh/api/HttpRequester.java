@@ -0,0 +1,374 @@
+package yugioh.api;
+
+import yugioh.metrics.MetricsRegistry;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ejecuta las peticiones GET de {@link YgoApiClient} de forma no bloqueante sobre
+ * {@link HttpClient#sendAsync}. Reintenta con espera exponencial y jitter ante
+ * HTTP 429/5xx, y al cancelar el futuro devuelto se aborta la petición en curso.
+ * Las respuestas se reciben completas como texto ({@link #get}) o como flujo
+ * ({@link #open}).
+ *
+ * <p>Los límites por host son de toda la JVM, compartidos por todos los clientes,
+ * porque la API cuenta las peticiones por origen y no por cliente: cada intento
+ * pide antes un permiso de concurrencia a un {@link AimdLimiter}, que se reduce a
+ * la mitad ante 429/503 o tiempo agotado y vuelve a crecer con las respuestas
+ * correctas, y después una ficha de un {@link TokenBucket} de
+ * {@code -Dyugioh.api.rate} peticiones por segundo (15 por defecto, por debajo
+ * de las 20 que admite YGOProDeck). Un 429 con {@code Retry-After} detiene el
+ * cubo entero ese tiempo. Si la cola de un host está llena o la espera por una
+ * ficha pasaría de {@value #MAX_RATE_WAIT_SECONDS} s, la petición falla sin
+ * enviarse.
+ *
+ * <p>Cada intento queda en {@code yugioh_http_request_seconds} por endpoint y
+ * estado ({@code error} si no hubo respuesta), las esperas por un permiso y por
+ * una ficha en {@code yugioh_http_queue_seconds} y
+ * {@code yugioh_http_rate_wait_seconds}, los reintentos en
+ * {@code yugioh_http_retries_total} y los rechazos en
+ * {@code yugioh_http_rejected_total}. Cada host publica además su límite de
+ * concurrencia, peticiones en vuelo y en cola, fichas disponibles y reducciones
+ * del límite.
+ */
+final class HttpRequester {
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_MILLIS = 250;
+    private static final long MAX_BACKOFF_MILLIS = 8_000;
+    private static final long MAX_RATE_WAIT_SECONDS = 30;
+    private static final int MAX_QUEUED_PER_HOST = 10_000;
+    private static final int MAX_ERROR_BODY = 1024;
+    // el límite adaptativo puede crecer hasta este múltiplo del inicial
+    private static final int MAX_CONCURRENCY_FACTOR = 4;
+
+    private static final Map<String, Host> HOSTS = new ConcurrentHashMap<>();
+    private static volatile double ratePerSecond = Double.parseDouble(System.getProperty("yugioh.api.rate", "15"));
+
+    private final HttpClient httpClient;
+    private final int maxConcurrentPerHost;
+
+    HttpRequester(HttpClient httpClient, int maxConcurrentPerHost) {
+        this.httpClient = httpClient;
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+    }
+
+    CompletableFuture<String> get(String url) {
+        Call<String> call = new Call<>(URI.create(url), HttpResponse.BodyHandlers.ofString(), false);
+        call.attempt(1);
+        return call.result;
+    }
+
+    /**
+     * Entrega el cuerpo como flujo en cuanto llegan las cabeceras de una respuesta
+     * 200, para procesarlo mientras se descarga. El permiso del host se mantiene
+     * hasta que el llamante cierra el flujo.
+     */
+    CompletableFuture<InputStream> open(String url) {
+        Call<InputStream> call = new Call<>(URI.create(url), HttpResponse.BodyHandlers.ofInputStream(), true);
+        call.attempt(1);
+        return call.result;
+    }
+
+    /**
+     * Cambia el límite de peticiones por segundo de todos los hosts, los ya usados
+     * y los siguientes; 0 lo desactiva. La ráfaga admitida es de un segundo.
+     */
+    static void setRate(double perSecond) {
+        ratePerSecond = perSecond;
+        for (Host host : HOSTS.values()) {
+            host.bucket.setRate(perSecond, burst(perSecond));
+        }
+    }
+
+    private static int burst(double perSecond) {
+        return Math.max(1, (int) Math.ceil(perSecond));
+    }
+
+    /** Último segmento de la ruta ({@code cardinfo.php}, {@code randomcard.php}...), o el host. */
+    static String endpoint(URI uri) {
+        String path = uri.getPath();
+        if (path == null || path.isEmpty() || "/".equals(path)) {
+            return String.valueOf(uri.getHost());
+        }
+        return path.substring(path.lastIndexOf('/', path.length() - 2) + 1);
+    }
+
+    private static HttpRequest buildRequest(URI uri) {
+        return HttpRequest.newBuilder()
+                .uri(uri)
+                .header("User-Agent", "YugiApiClient/1.0 (+https://example)")
+                .GET()
+                .timeout(Duration.ofSeconds(15))
+                .build();
+    }
+
+    private static boolean retryable(int status) {
+        return status == 429 || (status >= 500 && status < 600);
+    }
+
+    /** Espera exponencial con jitter, respetando {@code Retry-After} si viene. */
+    private static long backoffMillis(int attempt, HttpResponse<?> response) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 1));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        return Math.min(MAX_BACKOFF_MILLIS, Math.max(delay, retryAfterMillis(response)));
+    }
+
+    private static long retryAfterMillis(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException e) {
+                        return 0L;
+                    }
+                })
+                .orElse(0L);
+    }
+
+    /** Cómo cuenta una respuesta, o su ausencia, para el límite adaptativo. */
+    private static AimdLimiter.Outcome outcome(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return cause instanceof HttpTimeoutException ? AimdLimiter.Outcome.OVERLOAD : AimdLimiter.Outcome.NEUTRAL;
+        }
+        int status = response.statusCode();
+        if (status == 429 || status == 503) {
+            return AimdLimiter.Outcome.OVERLOAD;
+        }
+        return status >= 500 ? AimdLimiter.Outcome.NEUTRAL : AimdLimiter.Outcome.SUCCESS;
+    }
+
+    private final class Call<T> {
+        private final URI uri;
+        private final HttpResponse.BodyHandler<T> handler;
+        private final boolean streaming;
+        private final Host host;
+        private final String endpoint;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private volatile CompletableFuture<?> inFlight;
+
+        Call(URI uri, HttpResponse.BodyHandler<T> handler, boolean streaming) {
+            this.uri = uri;
+            this.handler = handler;
+            this.streaming = streaming;
+            this.endpoint = endpoint(uri);
+            this.host = HOSTS.computeIfAbsent(String.valueOf(uri.getHost()), name -> new Host(name, maxConcurrentPerHost));
+            result.whenComplete((body, throwable) -> {
+                CompletableFuture<?> current = inFlight;
+                if (result.isCancelled() && current != null) {
+                    current.cancel(true);
+                }
+            });
+        }
+
+        void attempt(int number) {
+            if (result.isDone()) {
+                return;
+            }
+            long queued = System.nanoTime();
+            CompletableFuture<Long> permit = host.permits.acquire();
+            if (permit == null) {
+                reject("queue", new IOException("Demasiadas peticiones en cola para " + host.name));
+                return;
+            }
+            inFlight = permit;
+            permit.thenAccept(grantedAt -> {
+                MetricsRegistry.DEFAULT.histogram("yugioh_http_queue_seconds",
+                        "Espera por un permiso de concurrencia del host antes de enviar", "endpoint", endpoint)
+                        .recordSince(queued);
+                throttle(number, grantedAt);
+            });
+        }
+
+        /** Espera una ficha del cubo del host, sin ocupar un hilo, y envía. */
+        private void throttle(int number, long grantedAt) {
+            if (result.isDone()) {
+                host.permits.release(grantedAt, AimdLimiter.Outcome.NEUTRAL);
+                return;
+            }
+            long wait = host.bucket.reserve();
+            if (wait < 0) {
+                host.permits.release(grantedAt, AimdLimiter.Outcome.NEUTRAL);
+                reject("rate", new IOException("Límite de peticiones por segundo a " + host.name
+                        + ": la espera pasaría de " + MAX_RATE_WAIT_SECONDS + " s"));
+                return;
+            }
+            MetricsRegistry.DEFAULT.histogram("yugioh_http_rate_wait_seconds",
+                    "Espera por el límite de peticiones por segundo antes de enviar", "endpoint", endpoint).record(wait);
+            if (wait == 0) {
+                send(number, grantedAt);
+                return;
+            }
+            CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone()) {
+                    host.bucket.refund();
+                    host.permits.release(grantedAt, AimdLimiter.Outcome.NEUTRAL);
+                } else {
+                    send(number, grantedAt);
+                }
+            });
+        }
+
+        private void reject(String reason, IOException error) {
+            MetricsRegistry.DEFAULT.counter("yugioh_http_rejected_total",
+                    "Peticiones que fallan sin enviarse por los límites del host",
+                    "endpoint", endpoint, "reason", reason).increment();
+            result.completeExceptionally(error);
+        }
+
+        private void send(int number, long grantedAt) {
+            if (result.isDone()) {
+                host.permits.release(grantedAt, AimdLimiter.Outcome.NEUTRAL);
+                return;
+            }
+            long started = System.nanoTime();
+            CompletableFuture<HttpResponse<T>> exchange = httpClient.sendAsync(buildRequest(uri), handler);
+            inFlight = exchange;
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+            exchange.whenComplete((response, error) -> {
+                String outcome = error != null ? "error" : Integer.toString(response.statusCode());
+                MetricsRegistry.DEFAULT.histogram("yugioh_http_request_seconds",
+                        "Peticiones HTTP hasta la respuesta completa, o hasta las cabeceras si se lee como flujo",
+                        "endpoint", endpoint, "status", outcome).recordSince(started);
+                AimdLimiter.Outcome signal = outcome(response, error);
+                if (error != null) {
+                    host.permits.release(grantedAt, signal);
+                    if (!result.isDone()) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        result.completeExceptionally(cause);
+                    }
+                    return;
+                }
+                int status = response.statusCode();
+                if (status == 429) {
+                    // el servidor nos limita: nadie más envía hasta que lo permita
+                    host.bucket.pause(TimeUnit.MILLISECONDS.toNanos(Math.max(1_000, retryAfterMillis(response))));
+                }
+                if (status == 200 && streaming) {
+                    @SuppressWarnings("unchecked")
+                    T body = (T) new PermitStream((InputStream) response.body(), host.permits, grantedAt);
+                    if (!result.complete(body)) {
+                        discard(body);
+                    }
+                    return;
+                }
+                host.permits.release(grantedAt, signal);
+                if (status == 200) {
+                    result.complete(response.body());
+                    return;
+                }
+                if (result.isDone()) {
+                    discard(response.body());
+                    return;
+                }
+                if (retryable(status) && number < MAX_ATTEMPTS) {
+                    discard(response.body());
+                    MetricsRegistry.DEFAULT.counter("yugioh_http_retries_total", "Reintentos tras HTTP 429/5xx",
+                            "endpoint", endpoint, "status", Integer.toString(status)).increment();
+                    CompletableFuture.delayedExecutor(backoffMillis(number, response), TimeUnit.MILLISECONDS)
+                            .execute(() -> attempt(number + 1));
+                } else {
+                    result.completeExceptionally(new HttpStatusException(status, errorBody(response.body())));
+                }
+            });
+        }
+
+        /** Principio del cuerpo de un error; los de la API son un JSON corto que ya ha llegado con las cabeceras. */
+        private String errorBody(T body) {
+            if (body instanceof String) {
+                String text = (String) body;
+                return text.length() > MAX_ERROR_BODY ? text.substring(0, MAX_ERROR_BODY) : text;
+            }
+            if (body instanceof InputStream) {
+                try (InputStream in = (InputStream) body) {
+                    return new String(in.readNBytes(MAX_ERROR_BODY), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    return "";
+                }
+            }
+            return "";
+        }
+
+        private void discard(T body) {
+            if (body instanceof Closeable) {
+                try {
+                    ((Closeable) body).close();
+                } catch (IOException ignored) {
+                    // el cuerpo se descarta; un fallo al cerrarlo no cambia el resultado
+                }
+            }
+        }
+    }
+
+    /** Flujo del cuerpo que devuelve el permiso del host al cerrarse (una sola vez). */
+    private static final class PermitStream extends FilterInputStream {
+        private final AimdLimiter permits;
+        private final long grantedAt;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        PermitStream(InputStream in, AimdLimiter permits, long grantedAt) {
+            super(in);
+            this.permits = permits;
+            this.grantedAt = grantedAt;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                try {
+                    super.close();
+                } finally {
+                    permits.release(grantedAt, AimdLimiter.Outcome.SUCCESS);
+                }
+            }
+        }
+    }
+
+    /** Límites compartidos de un host, con sus indicadores. */
+    private static final class Host {
+        private final String name;
+        private final AimdLimiter permits;
+        private final TokenBucket bucket;
+
+        Host(String name, int initialConcurrency) {
+            this.name = name;
+            this.permits = new AimdLimiter(initialConcurrency, 1, initialConcurrency * MAX_CONCURRENCY_FACTOR,
+                    MAX_QUEUED_PER_HOST);
+            double rate = ratePerSecond;
+            this.bucket = new TokenBucket(rate, burst(rate), TimeUnit.SECONDS.toNanos(MAX_RATE_WAIT_SECONDS));
+            MetricsRegistry metrics = MetricsRegistry.DEFAULT;
+            metrics.gauge("yugioh_http_concurrency_limit", "Límite adaptativo de peticiones simultáneas",
+                    permits::getLimit, "host", name);
+            metrics.gauge("yugioh_http_in_flight", "Permisos de concurrencia en uso, esperando ficha o respuesta",
+                    permits::getInUse, "host", name);
+            metrics.gauge("yugioh_http_queued", "Peticiones esperando un permiso de concurrencia",
+                    permits::getQueued, "host", name);
+            metrics.gauge("yugioh_http_rate_tokens", "Fichas disponibles; negativo si hay peticiones esperando",
+                    bucket::available, "host", name);
+            metrics.counter("yugioh_http_concurrency_decreases_total", "Reducciones del límite por 429/503 o tiempo agotado",
+                    permits::getDecreases, "host", name);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package yugioh.api;
+
+import java.io.IOException;
+
+/**
+ * Respuesta HTTP con un código distinto de 200 que no se pudo resolver con
+ * reintentos. Conserva el principio del cuerpo, que en la API explica el error.
+ */
+final class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    // texto con el que cardinfo.php acompaña el 400 cuando el filtro no encuentra nada
+    private static final String NO_MATCH = "No card matching your query";
+
+    private final int statusCode;
+    private final String body;
+
+    HttpStatusException(int statusCode, String body) {
+        super("No se pudo cargar la carta: HTTP " + statusCode);
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    /** Principio del cuerpo de la respuesta; vacío si no se pudo leer. */
+    String getBody() {
+        return body;
+    }
+
+    /**
+     * Si es el 400 con el que la API dice que ninguna carta coincide, a
+     * diferencia de otros 400 por parámetros que no entiende.
+     */
+    boolean isNoMatch() {
+        return statusCode == 400 && body.contains(NO_MATCH);
+    }
+}
@@ -0,0 +1,679 @@
+package yugioh.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import yugioh.catalog.CardCatalog;
+import yugioh.catalog.DatabaseVersion;
+import yugioh.model.Card;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustituto local de YGOProDeck para pruebas de carga y de latencia sin red.
+ * Sirve {@code cardinfo.php} (completo o filtrado por {@code name}/{@code id} o por
+ * fecha de salida con {@code startdate}/{@code enddate}),
+ * {@code randomcard.php}, {@code checkDBVer.php} y las ilustraciones
+ * ({@code /images/cards/<id>.jpg}) a partir de un catálogo grabado, con la misma
+ * forma JSON que la API real en los campos que lee {@link CardJsonParser}. Las
+ * URL de las ilustraciones apuntan al propio servidor, así que un
+ * {@link YgoApiClient} creado con {@link #getBaseUrl()} y una caché de imágenes
+ * recorren todo el camino de reparto y pintado sin salir de la máquina.
+ *
+ * <p>Las cartas del catálogo inicial salen con fecha {@link #INITIAL_RELEASE};
+ * {@link #publish} añade o reemplaza cartas con otra fecha y cambia la versión de
+ * la base, como una actualización real de la API.
+ *
+ * <p>Las ilustraciones se leen de {@code <directorio>/<id>.jpg} si existe; si no,
+ * se genera una de tamaño real (421x614) por carta, para que decodificar y
+ * escalar cueste lo mismo que con las originales. Se sirven con ETag y responden
+ * 304 a {@code If-None-Match}.
+ *
+ * <p>Se pueden inyectar latencia (fija más jitter uniforme), una fracción de
+ * respuestas HTTP 500 y otra de HTTP 429 con {@code Retry-After}, y un límite real
+ * de peticiones por segundo a la API, por encima del cual también se responde 429.
+ * Todo se puede cambiar con el servidor en marcha. Qué peticiones fallan, el
+ * jitter de cada una y la carta de {@code randomcard.php} salen de un generador
+ * con semilla: con la misma semilla y las mismas peticiones en el mismo orden, los
+ * fallos se repiten.
+ *
+ * <p>Uso: {@code MockApiServer <catálogo | nº de cartas sintéticas> [puerto] [latencia ms] [% errores] [% 429] [imágenes | -] [semilla]}.
+ */
+public final class MockApiServer implements Closeable {
+
+    public static final String API_PATH = "/api/v7";
+    public static final String IMAGE_PATH = "/images/cards/";
+    public static final LocalDate INITIAL_RELEASE = LocalDate.of(2002, 3, 8);
+
+    private static final int IMAGE_WIDTH = 421;
+    private static final int IMAGE_HEIGHT = 614;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String NOT_FOUND = "{\"error\":\"No card matching your query was found in the database.\"}";
+
+    static {
+        // como en DuelServer: sin TCP_NODELAY cada respuesta pequeña espera al ACK diferido
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private volatile Contents contents;
+    private final Path imageDirectory;
+    private final Map<Integer, byte[]> images = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final String origin;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService delays;
+
+    private volatile DatabaseVersion version;
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile double throttleRate;
+    private volatile int rateLimit;
+
+    private long windowStart;
+    private int windowRequests;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    // SplittableRandom no es seguro entre hilos: se sincroniza sobre él mismo
+    private final SplittableRandom faults;
+
+    /**
+     * Con la semilla por defecto, 42.
+     *
+     * @param imageDirectory ilustraciones grabadas; {@code null} las genera todas
+     */
+    public MockApiServer(CardCatalog catalog, Path imageDirectory, InetSocketAddress address) throws IOException {
+        this(catalog, imageDirectory, address, 42);
+    }
+
+    /**
+     * @param imageDirectory ilustraciones grabadas; {@code null} las genera todas
+     * @param seed           semilla de los fallos, del jitter y de {@code randomcard.php}
+     */
+    public MockApiServer(CardCatalog catalog, Path imageDirectory, InetSocketAddress address, long seed)
+            throws IOException {
+        if (catalog.size() == 0) {
+            throw new IOException("El catálogo del servidor simulado está vacío");
+        }
+        this.contents = new Contents(catalog.getCards(), Map.of());
+        this.imageDirectory = imageDirectory;
+        this.faults = new SplittableRandom(seed);
+        this.version = catalog.getVersion().isKnown() ? catalog.getVersion() : new DatabaseVersion("1.0", "");
+        this.executor = Executors.newCachedThreadPool(daemon("mock-api"));
+        this.delays = Executors.newSingleThreadScheduledExecutor(daemon("mock-api-latency"));
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        InetSocketAddress bound = server.getAddress();
+        String host = bound.getAddress().isAnyLocalAddress() ? "localhost" : bound.getHostString();
+        this.origin = "http://" + host + ":" + bound.getPort();
+        server.createContext(API_PATH + "/", this::handleApi);
+        server.createContext(IMAGE_PATH, this::handleImage);
+    }
+
+    /**
+     * Catálogo de {@code cards} cartas generadas, con la mezcla de tipos de la base
+     * real (unos dos tercios de monstruos). Con la misma semilla sale el mismo.
+     */
+    public static CardCatalog syntheticCatalog(int cards, long seed) {
+        String[] types = {"Effect Monster", "Normal Monster", "Fusion Monster", "Spell Card", "Trap Card", "XYZ Monster"};
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Card> generated = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++) {
+            int id = 10_000_000 + i * 37;
+            String type = types[random.nextInt(types.length)];
+            boolean monster = type.endsWith("Monster");
+            generated.add(new Card(id, "Carta sintética " + i, type,
+                    monster ? random.nextInt(31) * 100 : 0, monster ? random.nextInt(31) * 100 : 0,
+                    "Carta generada para pruebas sin red.", Card.imageUrlFor(id)));
+        }
+        return new CardCatalog(new DatabaseVersion("1.0", ""), generated);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Raíz de la API para {@link YgoApiClient#YgoApiClient(String)}. */
+    public String getBaseUrl() {
+        return origin + API_PATH;
+    }
+
+    public CardCatalog getCatalog() {
+        return new CardCatalog(version, contents.cards);
+    }
+
+    /**
+     * Añade las cartas, o reemplaza las que tengan el mismo id, con fecha de salida
+     * {@code released} en TCG y OCG, y pasa a anunciar {@code newVersion} en
+     * {@code checkDBVer.php}. Las peticiones en curso terminan con los datos
+     * anteriores.
+     */
+    public synchronized void publish(Collection<Card> cards, LocalDate released, DatabaseVersion newVersion) {
+        Contents previous = contents;
+        Map<Integer, Card> merged = new LinkedHashMap<>(previous.byId);
+        Map<Integer, LocalDate> dates = new HashMap<>(previous.released);
+        for (Card card : cards) {
+            merged.put(card.getId(), card);
+            dates.put(card.getId(), released);
+            images.remove(card.getId());
+        }
+        contents = new Contents(merged.values(), dates);
+        version = newVersion;
+    }
+
+    public void setDatabaseVersion(DatabaseVersion version) {
+        this.version = version;
+    }
+
+    /** Cada respuesta se retrasa {@code latency} más un jitter uniforme entre 0 y {@code jitter}. */
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latencyMillis = latency.toMillis();
+        this.jitterMillis = jitter.toMillis();
+    }
+
+    /** Fracción de peticiones (0 a 1) que responden HTTP 500. */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = rate(errorRate);
+    }
+
+    /** Fracción de peticiones a la API (0 a 1) que responden HTTP 429. */
+    public void setThrottleRate(double throttleRate) {
+        this.throttleRate = rate(throttleRate);
+    }
+
+    /** Peticiones por segundo que admite la API antes de responder 429; 0 desactiva el límite. */
+    public void setRateLimit(int requestsPerSecond) {
+        if (requestsPerSecond < 0) {
+            throw new IllegalArgumentException("El límite de peticiones no puede ser negativo: " + requestsPerSecond);
+        }
+        this.rateLimit = requestsPerSecond;
+    }
+
+    private static double rate(double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException("La fracción debe estar entre 0 y 1: " + value);
+        }
+        return value;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    /** Respuestas 429, inyectadas o por superar el límite de peticiones por segundo. */
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        delays.shutdownNow();
+        executor.shutdown();
+    }
+
+    private void handleApi(HttpExchange exchange) {
+        requests.incrementAndGet();
+        String endpoint = exchange.getRequestURI().getPath().substring(API_PATH.length() + 1);
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        if (throttle()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respondLater(exchange, () -> send(exchange, 429, "{\"error\":\"Rate limit exceeded\"}"));
+            return;
+        }
+        if (injectError(exchange)) {
+            return;
+        }
+        respondLater(exchange, () -> {
+            switch (endpoint) {
+                case "cardinfo.php":
+                    cardInfo(exchange, query);
+                    break;
+                case "randomcard.php":
+                    List<Card> cards = contents.cards;
+                    Card card = cards.get(nextInt(cards.size()));
+                    send(exchange, 200, cards(List.of(card)));
+                    break;
+                case "checkDBVer.php":
+                    DatabaseVersion current = version;
+                    StringBuilder json = new StringBuilder("[{\"database_version\":");
+                    string(json, current.getVersion()).append(",\"last_update\":");
+                    string(json, current.getLastUpdate()).append("}]");
+                    send(exchange, 200, json.toString());
+                    break;
+                default:
+                    send(exchange, 404, "{\"error\":\"Endpoint desconocido\"}");
+            }
+        });
+    }
+
+    private void cardInfo(HttpExchange exchange, Map<String, String> query) throws IOException {
+        Contents current = contents;
+        String names = query.get("name");
+        String ids = query.get("id");
+        String start = query.get("startdate");
+        String end = query.get("enddate");
+        if (start != null || end != null) {
+            releasedBetween(exchange, current, start, end);
+            return;
+        }
+        if (names == null && ids == null) {
+            stream(exchange, current.cards);
+            return;
+        }
+        Map<Integer, Card> byId = current.byId;
+        Map<String, Card> byName = current.byName;
+        Map<Integer, Card> matches = new LinkedHashMap<>();
+        if (names != null) {
+            for (String name : names.split("\\|")) {
+                Card card = byName.get(CardCache.nameKey(name));
+                if (card != null) {
+                    matches.putIfAbsent(card.getId(), card);
+                }
+            }
+        }
+        if (ids != null) {
+            for (String id : ids.split(",")) {
+                try {
+                    Card card = byId.get(Integer.parseInt(id.trim()));
+                    if (card != null) {
+                        matches.putIfAbsent(card.getId(), card);
+                    }
+                } catch (NumberFormatException e) {
+                    // la API real ignora los ids mal formados del lote
+                }
+            }
+        }
+        if (matches.isEmpty()) {
+            send(exchange, 400, NOT_FOUND);
+        } else {
+            send(exchange, 200, cards(matches.values()));
+        }
+    }
+
+    /** La región ({@code dateregion}) no cambia nada: cada carta tiene la misma fecha en las dos. */
+    private void releasedBetween(HttpExchange exchange, Contents current, String start, String end)
+            throws IOException {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = start == null ? LocalDate.MIN : LocalDate.parse(start);
+            to = end == null ? LocalDate.MAX : LocalDate.parse(end);
+        } catch (DateTimeParseException e) {
+            send(exchange, 400, "{\"error\":\"Fecha no válida: use AAAA-MM-DD\"}");
+            return;
+        }
+        List<Card> matches = new ArrayList<>();
+        for (Card card : current.cards) {
+            LocalDate released = current.released.getOrDefault(card.getId(), INITIAL_RELEASE);
+            if (!released.isBefore(from) && !released.isAfter(to)) {
+                matches.add(card);
+            }
+        }
+        if (matches.isEmpty()) {
+            send(exchange, 400, NOT_FOUND);
+        } else {
+            stream(exchange, matches);
+        }
+    }
+
+    /** La base completa se escribe por trozos, como la real, para que el cliente la lea en streaming. */
+    private void stream(HttpExchange exchange, List<Card> cards) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(200, 0);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 16)) {
+                out.write("{\"data\":[");
+                StringBuilder json = new StringBuilder(1024);
+                boolean first = true;
+                for (Card card : cards) {
+                    json.setLength(0);
+                    if (!first) {
+                        json.append(',');
+                    }
+                    first = false;
+                    card(json, card);
+                    out.append(json);
+                }
+                out.write("]}");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleImage(HttpExchange exchange) {
+        requests.incrementAndGet();
+        String file = exchange.getRequestURI().getPath().substring(IMAGE_PATH.length());
+        int id;
+        try {
+            id = Integer.parseInt(file.endsWith(".jpg") ? file.substring(0, file.length() - 4) : file);
+        } catch (NumberFormatException e) {
+            respondLater(exchange, () -> send(exchange, 404, ""));
+            return;
+        }
+        if (injectError(exchange)) {
+            return;
+        }
+        respondLater(exchange, () -> {
+            if (!contents.byId.containsKey(id)) {
+                send(exchange, 404, "");
+                return;
+            }
+            byte[] bytes = image(id);
+            String etag = "\"" + id + "-" + bytes.length + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    private byte[] image(int id) {
+        return images.computeIfAbsent(id, key -> {
+            try {
+                if (imageDirectory != null) {
+                    Path recorded = imageDirectory.resolve(key + ".jpg");
+                    if (Files.exists(recorded)) {
+                        return Files.readAllBytes(recorded);
+                    }
+                }
+                return placeholder(contents.byId.get(key));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static byte[] placeholder(Card card) throws IOException {
+        BufferedImage image = new BufferedImage(IMAGE_WIDTH, IMAGE_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            float hue = (card.getId() * 0.618034f) % 1f;
+            g.setPaint(new GradientPaint(0, 0, Color.getHSBColor(hue, 0.6f, 0.9f),
+                    IMAGE_WIDTH, IMAGE_HEIGHT, Color.getHSBColor(hue, 0.9f, 0.3f)));
+            g.fillRect(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT);
+            g.setColor(Color.WHITE);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 28));
+            g.drawString(card.getName(), 24, 60);
+            g.drawString(card.getAtk() + " / " + card.getDef(), 24, IMAGE_HEIGHT - 40);
+        } finally {
+            g.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private boolean throttle() {
+        if (throttleRate > 0 && nextDouble() < throttleRate) {
+            return true;
+        }
+        int limit = rateLimit;
+        if (limit == 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            if (now - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                windowStart = now;
+                windowRequests = 0;
+            }
+            return ++windowRequests > limit;
+        }
+    }
+
+    private boolean injectError(HttpExchange exchange) {
+        if (errorRate == 0 || nextDouble() >= errorRate) {
+            return false;
+        }
+        injectedErrors.incrementAndGet();
+        respondLater(exchange, () -> send(exchange, 500, "{\"error\":\"Error inyectado\"}"));
+        return true;
+    }
+
+    private double nextDouble() {
+        synchronized (faults) {
+            return faults.nextDouble();
+        }
+    }
+
+    private int nextInt(int bound) {
+        synchronized (faults) {
+            return faults.nextInt(bound);
+        }
+    }
+
+    private long nextLong(long bound) {
+        synchronized (faults) {
+            return faults.nextLong(bound);
+        }
+    }
+
+    /** Responde tras la latencia configurada sin ocupar un hilo mientras espera. */
+    private void respondLater(HttpExchange exchange, Response response) {
+        long delay = latencyMillis;
+        long jitter = jitterMillis;
+        if (jitter > 0) {
+            delay += nextLong(jitter + 1);
+        }
+        Runnable task = () -> {
+            try {
+                response.write();
+            } catch (IOException | RuntimeException e) {
+                // el cliente pudo cortar la conexión: no hay a quién avisar
+                exchange.close();
+            }
+        };
+        if (delay == 0) {
+            task.run();
+        } else {
+            delays.schedule(() -> executor.execute(task), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Cartas servidas e índices; se sustituye entero al publicar. */
+    private static final class Contents {
+        private final List<Card> cards;
+        private final Map<Integer, Card> byId = new LinkedHashMap<>();
+        private final Map<String, Card> byName = new HashMap<>();
+        private final Map<Integer, LocalDate> released;
+
+        Contents(Collection<Card> cards, Map<Integer, LocalDate> released) {
+            this.cards = List.copyOf(cards);
+            this.released = Map.copyOf(released);
+            for (Card card : this.cards) {
+                byId.putIfAbsent(card.getId(), card);
+                byName.putIfAbsent(CardCache.nameKey(card.getName()), card);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Response {
+        void write() throws IOException;
+    }
+
+    private String cards(Iterable<Card> cards) {
+        StringBuilder json = new StringBuilder(1024).append("{\"data\":[");
+        boolean first = true;
+        for (Card card : cards) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            card(json, card);
+        }
+        return json.append("]}").toString();
+    }
+
+    /** Carta con la forma de {@code cardinfo.php}; la ilustración se sirve desde este servidor. */
+    private void card(StringBuilder json, Card card) {
+        json.append("{\"id\":").append(card.getId()).append(",\"name\":");
+        string(json, card.getName()).append(",\"type\":");
+        string(json, card.getType()).append(",\"desc\":");
+        string(json, card.getDescription());
+        if (card.isMonster()) {
+            json.append(",\"atk\":").append(card.getAtk()).append(",\"def\":").append(card.getDef());
+        }
+        json.append(",\"card_images\":[{\"id\":").append(card.getId()).append(",\"image_url\":");
+        string(json, origin + IMAGE_PATH + card.getId() + ".jpg").append("}]}");
+    }
+
+    private static StringBuilder string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> values = new HashMap<>();
+        if (raw == null) {
+            return values;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        try {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            if (body.length > 0) {
+                exchange.getResponseHeaders().set("Content-Type", JSON);
+            }
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicLong counter = new AtomicLong();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: MockApiServer <catálogo | nº de cartas sintéticas> [puerto] [latencia ms] [% errores] [% 429] [imágenes | -] [semilla]");
+            System.exit(2);
+        }
+        CardCatalog catalog = args[0].chars().allMatch(Character::isDigit)
+                ? syntheticCatalog(Integer.parseInt(args[0]), 42)
+                : CardCatalog.open(Path.of(args[0]));
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8081;
+        long latency = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        double errors = args.length > 3 ? Double.parseDouble(args[3]) / 100 : 0;
+        double throttles = args.length > 4 ? Double.parseDouble(args[4]) / 100 : 0;
+        // "-" deja las ilustraciones generadas y permite dar la semilla
+        Path imageDirectory = args.length > 5 && !args[5].equals("-") ? Path.of(args[5]) : null;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+
+        MockApiServer server = new MockApiServer(catalog, imageDirectory, new InetSocketAddress(port), seed);
+        // jitter de la mitad de la latencia: las respuestas no llegan todas a la vez
+        server.setLatency(Duration.ofMillis(latency), Duration.ofMillis(latency / 2));
+        server.setErrorRate(errors);
+        server.setThrottleRate(throttles);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        System.out.printf(Locale.ROOT, "API simulada en %s (%,d cartas): -Dyugioh.api=%s%n",
+                server.getBaseUrl(), catalog.size(), server.getBaseUrl());
+    }
+}
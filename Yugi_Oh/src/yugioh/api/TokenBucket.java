@@ -0,0 +1,91 @@
+package yugioh.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cubo de fichas para limitar las peticiones por segundo a un host. Cada
+ * petición reserva una ficha; si no queda ninguna, la reserva devuelve cuánto
+ * hay que esperar a que se repongan y deja el saldo en negativo, de modo que las
+ * siguientes se ponen detrás sin que nadie tenga que bloquear un hilo. Una
+ * reserva que obligaría a esperar más de {@code maxWaitNanos} se rechaza.
+ *
+ * <p>Con una tasa de 0 no hay límite.
+ */
+final class TokenBucket {
+
+    private final long maxWaitNanos;
+    private double tokensPerNano;
+    private double burst;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    TokenBucket(double perSecond, int burst, long maxWaitNanos) {
+        this.maxWaitNanos = maxWaitNanos;
+        setRate(perSecond, burst);
+        this.tokens = this.burst;
+    }
+
+    synchronized void setRate(double perSecond, int burst) {
+        if (perSecond < 0 || burst < 1) {
+            throw new IllegalArgumentException("Tasa o ráfaga no válidas: " + perSecond + "/s, " + burst);
+        }
+        refill(System.nanoTime());
+        this.tokensPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = Math.min(tokens, burst);
+    }
+
+    /**
+     * Reserva una ficha.
+     *
+     * @return nanosegundos que hay que esperar antes de enviar (0 si se puede ya),
+     *         o -1 si la espera pasaría del máximo y la petición se rechaza
+     */
+    synchronized long reserve() {
+        if (tokensPerNano == 0) {
+            return 0;
+        }
+        refill(System.nanoTime());
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long wait = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+
+    /** Devuelve una ficha reservada que no llegó a usarse (la petición se canceló esperando). */
+    synchronized void refund() {
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    /**
+     * El servidor pidió parar ({@code 429} con {@code Retry-After}): la próxima
+     * ficha que se reserve espera al menos {@code nanos} desde ahora (o lo que ya
+     * faltara, si la cola de reservas era más larga). No se suma a la cola: varios
+     * 429 seguidos con el mismo {@code Retry-After} no alargan la pausa. Las fichas
+     * ya reservadas mantienen su turno.
+     */
+    synchronized void pause(long nanos) {
+        if (tokensPerNano == 0) {
+            return;
+        }
+        refill(System.nanoTime());
+        tokens = Math.min(tokens, -Math.min(nanos, maxWaitNanos) * tokensPerNano);
+    }
+
+    /** Fichas disponibles ahora; negativo si hay peticiones esperando. */
+    synchronized long available() {
+        refill(System.nanoTime());
+        return (long) Math.floor(tokens);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+}
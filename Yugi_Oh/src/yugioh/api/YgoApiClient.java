@@ -1,198 +1,696 @@
 package yugioh.api;
 
+import yugioh.catalog.CardCatalog;
+import yugioh.catalog.CardStore;
+import yugioh.catalog.CatalogSync;
+import yugioh.catalog.DatabaseVersion;
+import yugioh.metrics.Counter;
+import yugioh.metrics.LatencyHistogram;
+import yugioh.metrics.MetricsRegistry;
 import yugioh.model.Card;
 
 import java.io.IOException;
-import java.net.URI;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 //import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class YgoApiClient {
 
-    private static final String BASE_URL = "https://db.ygoprodeck.com/api/v7";
+    public static final String DEFAULT_BASE_URL = "https://db.ygoprodeck.com/api/v7";
+    private static final int MAX_REQUESTS_PER_HOST = 6;
+    private static final int CARD_CACHE_ENTRIES = 4096;
+    private static final Duration CARD_CACHE_TTL = Duration.ofHours(6);
+    private static final Duration MISSING_CARD_TTL = Duration.ofMinutes(10);
+    private static final String NAME_SEPARATOR = "%7C";
+    private static final String ID_SEPARATOR = ",";
+    // margen holgado bajo el límite habitual de 2 KB por URL
+    private static final int MAX_QUERY_LENGTH = 1800;
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-        .connectTimeout(Duration.ofSeconds(10))
-        .followRedirects(HttpClient.Redirect.NORMAL)
-        .build();
+    private static final LatencyHistogram PARSE_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_json_parse_seconds", "Parseo de respuestas de cardinfo.php y randomcard.php ya descargadas");
+    private static final Counter PARSED_CARDS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_json_cards_total", "Cartas leídas de respuestas ya descargadas");
+    private static final Counter PARSED_CHARS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_json_chars_total", "Caracteres JSON parseados de respuestas ya descargadas");
+    private static final LatencyHistogram STREAM_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_catalog_stream_seconds", "Descarga y parseo solapados de la base de datos completa");
+    private static final Counter STREAMED_CARDS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_catalog_stream_cards_total", "Cartas leídas al descargar la base de datos completa");
+
+    private final String baseUrl;
+    private final HttpRequester requester;
+
+    private final CardCache cardCache = new CardCache(CARD_CACHE_ENTRIES, CARD_CACHE_TTL, MISSING_CARD_TTL);
+
+    private volatile int maxBatchSize = 50;
+    private volatile int maxConcurrentBatches = 4;
+
+    // catálogo local opcional; si está cargado las manos se reparten sin red
+    private volatile CardCatalog catalog;
+
+    public YgoApiClient() {
+        this(DEFAULT_BASE_URL);
+    }
+
+    /**
+     * @param baseUrl raíz de la API ({@code .../api/v7}); permite apuntar el cliente a
+     *                un espejo o a {@link MockApiServer} para probar sin red
+     */
+    public YgoApiClient(String baseUrl) {
+        this(baseUrl, HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build());
+    }
+
+    /** Como {@link #YgoApiClient(String)}, con un {@link HttpClient} propio (proxy, SSL, ejecutor...). */
+    public YgoApiClient(String baseUrl, HttpClient httpClient) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requester = new HttpRequester(httpClient, MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Peticiones por segundo que admite cada host para todos los clientes de la
+     * JVM juntos (por defecto {@code -Dyugioh.api.rate}, o 15); 0 quita el límite.
+     * La concurrencia por host se adapta sola a las respuestas 429/503.
+     */
+    public static void setRequestRate(double perSecond) {
+        if (perSecond < 0) {
+            throw new IllegalArgumentException("La tasa de peticiones no puede ser negativa: " + perSecond);
+        }
+        HttpRequester.setRate(perSecond);
+    }
 
     public Optional<Card> fetchCardByName(String cardName) throws IOException, InterruptedException {
-        String encodedName = URLEncoder.encode(cardName, StandardCharsets.UTF_8);
-        String url = BASE_URL + "/cardinfo.php?name=" + encodedName;
-        String body = performRequest(url);
-        List<Card> cards = parseCards(body);
-        return cards.isEmpty() ? Optional.empty() : Optional.of(cards.get(0));
+        return await(fetchCardByNameAsync(cardName));
     }
 
-    public List<Card> fetchRandomMonsterCards(int desiredCount) throws IOException, InterruptedException {
-        List<Card> cards = new ArrayList<>();
-        int attempts = 0;
-        while (cards.size() < desiredCount && attempts < desiredCount * 8) {
-            attempts++;
-            String body = performRequest(BASE_URL + "/randomcard.php");
-            List<Card> fetched = parseCards(body);
-            for (Card card : fetched) {
-                if (card.isMonster()) {
-                    cards.add(card);
-                }
-                if (cards.size() == desiredCount) {
-                    break;
+    /**
+     * Versión no bloqueante de {@link #fetchCardByName}. Las respuestas se guardan
+     * en {@link #getCardCache()}; consultas simultáneas por el mismo nombre
+     * comparten una sola petición.
+     */
+    public CompletableFuture<Optional<Card>> fetchCardByNameAsync(String cardName) {
+        String encodedName = URLEncoder.encode(cardName.trim(), StandardCharsets.UTF_8);
+        return cardCache.byName(cardName, () -> fetchMatchingCards(baseUrl + "/cardinfo.php?name=" + encodedName));
+    }
+
+    public Optional<Card> fetchCardById(int id) throws IOException, InterruptedException {
+        return await(fetchCardByIdAsync(id));
+    }
+
+    public CompletableFuture<Optional<Card>> fetchCardByIdAsync(int id) {
+        return cardCache.byId(id, () -> fetchMatchingCards(baseUrl + "/cardinfo.php?id=" + id));
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public CardCache getCardCache() {
+        return cardCache;
+    }
+
+    /**
+     * {@code cardinfo.php} responde HTTP 400 cuando ninguna carta coincide con el
+     * filtro; solo ese 400 es una lista vacía, los demás fallan y no quedan en caché.
+     */
+    private CompletableFuture<List<Card>> fetchMatchingCards(String url) {
+        CompletableFuture<String> request = performRequestAsync(url);
+        CompletableFuture<List<Card>> cards = request.handle((body, error) -> {
+            if (error == null) {
+                try {
+                    return parseCards(body);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
                 }
             }
+            Throwable cause = unwrap(error);
+            if (cause instanceof HttpStatusException && ((HttpStatusException) cause).isNoMatch()) {
+                return List.<Card>of();
+            }
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(cause);
+        });
+        cards.whenComplete((value, error) -> {
+            if (cards.isCancelled()) {
+                request.cancel(true);
+            }
+        });
+        return cards;
+    }
+
+    /**
+     * Resuelve varios nombres con el menor número posible de peticiones: los que no
+     * están en caché se agrupan en consultas {@code cardinfo.php?name=a|b|...}.
+     * Los resultados siguen el orden de entrada y cada elemento informa su propio
+     * error, sin que un lote fallido invalide el resto.
+     */
+    public List<CardLookup<String>> fetchCardsByNames(Collection<String> names) throws IOException, InterruptedException {
+        return await(fetchCardsByNamesAsync(names));
+    }
+
+    public CompletableFuture<List<CardLookup<String>>> fetchCardsByNamesAsync(Collection<String> names) {
+        return new BatchLookup<>(List.copyOf(names), "name", NAME_SEPARATOR,
+                name -> URLEncoder.encode(name.trim(), StandardCharsets.UTF_8),
+                CardCache::nameKey, card -> CardCache.nameKey(card.getName())).start();
+    }
+
+    /** Como {@link #fetchCardsByNames}, agrupando ids separados por comas. */
+    public List<CardLookup<Integer>> fetchCardsByIds(Collection<Integer> ids) throws IOException, InterruptedException {
+        return await(fetchCardsByIdsAsync(ids));
+    }
+
+    public CompletableFuture<List<CardLookup<Integer>>> fetchCardsByIdsAsync(Collection<Integer> ids) {
+        return new BatchLookup<>(List.copyOf(ids), "id", ID_SEPARATOR, String::valueOf,
+                CardCache::idKey, card -> CardCache.idKey(card.getId())).start();
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /** Máximo de nombres o ids por petición de un lote. */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize debe ser positivo: " + maxBatchSize);
         }
-        if (cards.size() < desiredCount) {
-            throw new IOException("No se pudieron obtener cartas Monster aleatorias tras " + attempts + " intentos");
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+
+    /** Máximo de peticiones de un mismo lote en vuelo a la vez. */
+    public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+        if (maxConcurrentBatches <= 0) {
+            throw new IllegalArgumentException("maxConcurrentBatches debe ser positivo: " + maxConcurrentBatches);
         }
-        Collections.shuffle(cards, ThreadLocalRandom.current());
-        return cards;
+        this.maxConcurrentBatches = maxConcurrentBatches;
     }
 
-    private String performRequest(String url) throws IOException, InterruptedException {
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create(url))
-        .header("User-Agent", "YugiApiClient/1.0 (+https://example)")
-        .GET()
-        .timeout(Duration.ofSeconds(15))
-        .build();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new IOException("No se pudo cargar la carta: HTTP " + response.statusCode());
-        }
-        return response.body();
+    public List<Card> fetchRandomMonsterCards(int desiredCount) throws IOException, InterruptedException {
+        return await(fetchRandomMonsterCardsAsync(desiredCount));
     }
-    private List<Card> parseCards(String json) throws IOException {
-        // Find the "data" array and extract each JSON object within it.
-        int dataIndex = json.indexOf("\"data\"");
-        if (dataIndex < 0) {
-            return List.of();
+
+    public CompletableFuture<List<Card>> fetchRandomMonsterCardsAsync(int desiredCount) {
+        CompletableFuture<List<List<Card>>> hands = fetchRandomMonsterHandsAsync(desiredCount, 1);
+        return propagateCancel(hands, result -> result.get(0));
+    }
+
+    /**
+     * Reparte {@code handCount} manos de {@code handSize} monstruos en una sola
+     * operación, sin cartas repetidas entre manos. Con catálogo local se muestrea
+     * directamente del índice de monstruos; sin él, las peticiones a
+     * {@code randomcard.php} se lanzan en paralelo.
+     */
+    public List<List<Card>> fetchRandomMonsterHands(int handSize, int handCount) throws IOException, InterruptedException {
+        return await(fetchRandomMonsterHandsAsync(handSize, handCount));
+    }
+
+    /**
+     * Versión no bloqueante de {@link #fetchRandomMonsterHands}. Cancelar el futuro
+     * cancela las peticiones pendientes de la oleada en curso.
+     */
+    public CompletableFuture<List<List<Card>>> fetchRandomMonsterHandsAsync(int handSize, int handCount) {
+        int total = handSize * handCount;
+        CardCatalog local = catalog;
+        CompletableFuture<List<Card>> drawn;
+        if (local != null) {
+            try {
+                drawn = CompletableFuture.completedFuture(local.randomMonsters(total, ThreadLocalRandom.current()));
+            } catch (IOException e) {
+                drawn = CompletableFuture.failedFuture(e);
+            }
+        } else {
+            drawn = new RandomMonsterDraw(total).start();
+        }
+        return propagateCancel(drawn, cards -> {
+            List<List<Card>> hands = new ArrayList<>(handCount);
+            for (int h = 0; h < handCount; h++) {
+                hands.add(new ArrayList<>(cards.subList(h * handSize, (h + 1) * handSize)));
+            }
+            return hands;
+        });
+    }
+
+    /**
+     * Pide cartas aleatorias en oleadas concurrentes hasta reunir {@code total}
+     * monstruos distintos o agotar los intentos. Falla en cuanto una oleada
+     * entera se queda sin ninguna respuesta válida.
+     */
+    private final class RandomMonsterDraw {
+        private final int total;
+        private final int maxAttempts;
+        private final Map<Integer, Card> monsters = new LinkedHashMap<>();
+        private final CompletableFuture<List<Card>> result = new CompletableFuture<>();
+        private volatile List<CompletableFuture<String>> wave = List.of();
+        private int attempts;
+        private IOException lastError;
+
+        RandomMonsterDraw(int total) {
+            this.total = total;
+            this.maxAttempts = total * 8;
+            result.whenComplete((cards, error) -> {
+                if (result.isCancelled()) {
+                    wave.forEach(pending -> pending.cancel(true));
+                }
+            });
         }
-        int arrayStart = json.indexOf('[', dataIndex);
-        if (arrayStart < 0) {
-            return List.of();
+
+        CompletableFuture<List<Card>> start() {
+            nextWave();
+            return result;
         }
-        int idx = arrayStart + 1;
-        List<Card> cards = new ArrayList<>();
-        while (idx < json.length()) {
-            // skip whitespace
-            while (idx < json.length() && Character.isWhitespace(json.charAt(idx))) idx++;
-            if (idx >= json.length() || json.charAt(idx) == ']') break;
-            if (json.charAt(idx) != '{') {
-                idx++;
-                continue;
-            }
-            int depth = 0;
-            int objStart = idx;
-            while (idx < json.length()) {
-                char c = json.charAt(idx);
-                if (c == '{') depth++;
-                else if (c == '}') {
-                    depth--;
-                    if (depth == 0) {
-                        idx++; // include closing brace
-                        break;
+
+        private void nextWave() {
+            if (result.isDone()) {
+                return;
+            }
+            if (monsters.size() >= total || attempts >= maxAttempts) {
+                finish();
+                return;
+            }
+            int shortfall = total - monsters.size();
+            // unas dos de cada tres cartas son monstruos: se pide la mitad más de lo que falta
+            int size = Math.min(maxAttempts - attempts, shortfall + (shortfall + 1) / 2);
+            List<CompletableFuture<String>> requests = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                requests.add(performRequestAsync(baseUrl + "/randomcard.php"));
+            }
+            attempts += size;
+            wave = requests;
+            if (result.isCancelled()) {
+                requests.forEach(pending -> pending.cancel(true));
+                return;
+            }
+            CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0]))
+                    .whenComplete((ignored, error) -> {
+                        if (collect(requests)) {
+                            nextWave();
+                        } else {
+                            // ninguna respuesta válida en toda la oleada: la API está caída o
+                            // rechazando, no tiene sentido seguir hasta agotar los intentos
+                            fail();
+                        }
+                    });
+        }
+
+        /** Guarda los monstruos recibidos; devuelve si alguna petición respondió bien. */
+        private boolean collect(List<CompletableFuture<String>> requests) {
+            boolean answered = false;
+            for (CompletableFuture<String> request : requests) {
+                try {
+                    for (Card card : parseCards(request.join())) {
+                        if (card.isMonster()) {
+                            monsters.putIfAbsent(card.getId(), card);
+                        }
                     }
+                    answered = true;
+                } catch (CompletionException | CancellationException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    lastError = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                } catch (IOException e) {
+                    lastError = e;
                 }
-                idx++;
             }
-            if (depth != 0) break; // malformed
-            String objJson = json.substring(objStart, idx);
-            Card card = parseCardObject(objJson);
-            if (card != null) cards.add(card);
-            // skip commas/spaces
-            while (idx < json.length() && (Character.isWhitespace(json.charAt(idx)) || json.charAt(idx) == ',')) idx++;
+            return answered;
+        }
+
+        private void finish() {
+            if (monsters.size() < total) {
+                fail();
+                return;
+            }
+            List<Card> cards = new ArrayList<>(monsters.values());
+            Collections.shuffle(cards, ThreadLocalRandom.current());
+            result.complete(new ArrayList<>(cards.subList(0, total)));
+        }
+
+        private void fail() {
+            result.completeExceptionally(new IOException(
+                    "No se pudieron obtener cartas Monster aleatorias tras " + attempts + " intentos", lastError));
         }
-        return cards;
     }
 
-    private Card parseCardObject(String objJson) {
-        int id = extractInt(objJson, "\"id\"\s*:\s*(\\d+)", 0);
-        String name = extractString(objJson, "\"name\"\s*:\s*\"(.*?)\"");
-        if (name == null) name = "Desconocida";
-        String type = extractString(objJson, "\"type\"\s*:\s*\"(.*?)\"");
-        if (type == null) type = "";
-        int atk = extractInt(objJson, "\"atk\"\s*:\s*(null|\\d+)", 0);
-        int def = extractInt(objJson, "\"def\"\s*:\s*(null|\\d+)", 0);
-        String desc = extractString(objJson, "\"desc\"\s*:\s*\"(.*?)\"");
-        if (desc == null) desc = "";
-        String imageUrl = extractImageUrlFromObject(objJson);
-        return new Card(id, name, type, atk, def, desc, imageUrl);
-    }
-
-    private int extractInt(String json, String regex, int fallback) {
-        Pattern p = Pattern.compile(regex, Pattern.DOTALL);
-        Matcher m = p.matcher(json);
-        if (m.find()) {
-            String g = m.group(1);
-            if (g == null || g.equals("null")) return fallback;
-            try {
-                return Integer.parseInt(g);
-            } catch (NumberFormatException e) {
-                return fallback;
-            }
-        }
-        return fallback;
-    }
-
-    private String extractString(String json, String regex) {
-        Pattern p = Pattern.compile(regex, Pattern.DOTALL);
-        Matcher m = p.matcher(json);
-        if (m.find()) {
-            String g = m.group(1);
-            return unescapeJsonString(g);
-        }
-        return null;
-    }
-
-    private String extractImageUrlFromObject(String objJson) {
-        // Find card_images array and then first image_url
-        int ci = objJson.indexOf("\"card_images\"");
-        if (ci < 0) return "";
-        int start = objJson.indexOf('[', ci);
-        if (start < 0) return "";
-        int idx = start + 1;
-        // find first object inside array
-        while (idx < objJson.length()) {
-            while (idx < objJson.length() && Character.isWhitespace(objJson.charAt(idx))) idx++;
-            if (idx >= objJson.length() || objJson.charAt(idx) == ']') break;
-            if (objJson.charAt(idx) != '{') { idx++; continue; }
-            int depth = 0;
-            int objStart = idx;
-            while (idx < objJson.length()) {
-                char c = objJson.charAt(idx);
-                if (c == '{') depth++;
-                else if (c == '}') {
-                    depth--;
-                    if (depth == 0) { idx++; break; }
+    /**
+     * Consulta por lotes: reparte las claves sin caché en peticiones de hasta
+     * {@code maxBatchSize} valores, con como mucho {@code maxConcurrentBatches} en
+     * vuelo. Si la API responde al lote con el HTTP 400 de "ninguna carta coincide"
+     * se parte en dos hasta aislar las claves inexistentes; cualquier otro error
+     * falla las claves del lote sin guardarlas en caché.
+     */
+    private final class BatchLookup<K> {
+        private final List<K> keys;
+        private final String parameter;
+        private final String separator;
+        private final Function<K, String> encoder;
+        private final Function<K, String> cacheKey;
+        private final Function<Card, String> cardKey;
+        private final int batchSize = maxBatchSize;
+        private final int concurrency = maxConcurrentBatches;
+
+        private final Map<String, CardLookup<K>> resolved = new ConcurrentHashMap<>();
+        private final Set<CompletableFuture<?>> requests = ConcurrentHashMap.newKeySet();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicInteger remainingChunks = new AtomicInteger();
+        private List<List<K>> chunks;
+
+        BatchLookup(List<K> keys, String parameter, String separator, Function<K, String> encoder,
+                    Function<K, String> cacheKey, Function<Card, String> cardKey) {
+            this.keys = keys;
+            this.parameter = parameter;
+            this.separator = separator;
+            this.encoder = encoder;
+            this.cacheKey = cacheKey;
+            this.cardKey = cardKey;
+        }
+
+        CompletableFuture<List<CardLookup<K>>> start() {
+            Map<String, K> pending = new LinkedHashMap<>();
+            for (K key : keys) {
+                String cached = cacheKey.apply(key);
+                if (resolved.containsKey(cached) || pending.containsKey(cached)) {
+                    continue;
+                }
+                Optional<Card> card = cardCache.peek(cached);
+                if (card != null) {
+                    resolved.put(cached, new CardLookup<>(key, card.orElse(null), null));
+                } else {
+                    pending.put(cached, key);
+                }
+            }
+            chunks = split(new ArrayList<>(pending.values()));
+            remainingChunks.set(chunks.size());
+            if (chunks.isEmpty()) {
+                done.complete(null);
+            }
+            for (int i = 0; i < Math.min(concurrency, chunks.size()); i++) {
+                launchNext();
+            }
+            CompletableFuture<List<CardLookup<K>>> result = done.thenApply(ignored -> assemble());
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    done.cancel(true);
+                    requests.forEach(request -> request.cancel(true));
+                }
+            });
+            return result;
+        }
+
+        private List<List<K>> split(List<K> pending) {
+            List<List<K>> result = new ArrayList<>();
+            List<K> current = new ArrayList<>();
+            int length = 0;
+            for (K key : pending) {
+                int encoded = encoder.apply(key).length() + separator.length();
+                if (!current.isEmpty() && (current.size() >= batchSize || length + encoded > MAX_QUERY_LENGTH)) {
+                    result.add(current);
+                    current = new ArrayList<>();
+                    length = 0;
+                }
+                current.add(key);
+                length += encoded;
+            }
+            if (!current.isEmpty()) {
+                result.add(current);
+            }
+            return result;
+        }
+
+        private void launchNext() {
+            int index = nextChunk.getAndIncrement();
+            if (index >= chunks.size() || done.isDone()) {
+                return;
+            }
+            List<K> chunk = chunks.get(index);
+            fetchChunk(chunk).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    fail(chunk, error);
+                }
+                if (remainingChunks.decrementAndGet() == 0) {
+                    done.complete(null);
+                } else {
+                    launchNext();
+                }
+            });
+        }
+
+        private CompletableFuture<Void> fetchChunk(List<K> chunk) {
+            StringBuilder url = new StringBuilder(baseUrl).append("/cardinfo.php?").append(parameter).append('=');
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    url.append(separator);
                 }
-                idx++;
+                url.append(encoder.apply(chunk.get(i)));
             }
-            String firstImageObj = objJson.substring(objStart, idx);
-            String url = extractString(firstImageObj, "\"image_url\"\s*:\s*\"(.*?)\"");
-            return url == null ? "" : url;
+            CompletableFuture<String> request = performRequestAsync(url.toString());
+            requests.add(request);
+            return request.handle((body, error) -> {
+                requests.remove(request);
+                if (error == null) {
+                    try {
+                        record(chunk, parseCards(body));
+                    } catch (IOException e) {
+                        fail(chunk, e);
+                    }
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                Throwable cause = unwrap(error);
+                // otro 400 (consulta mal formada, parámetro rechazado) no dice nada de las
+                // cartas: falla el lote sin recordarlas como inexistentes
+                if (cause instanceof HttpStatusException && ((HttpStatusException) cause).isNoMatch()) {
+                    if (chunk.size() == 1) {
+                        record(chunk, List.of());
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    int half = chunk.size() / 2;
+                    return CompletableFuture.allOf(
+                            fetchChunk(chunk.subList(0, half)),
+                            fetchChunk(chunk.subList(half, chunk.size())));
+                }
+                fail(chunk, cause);
+                return CompletableFuture.<Void>completedFuture(null);
+            }).thenCompose(Function.identity());
+        }
+
+        private void record(List<K> chunk, List<Card> cards) {
+            Map<String, Card> byKey = new HashMap<>();
+            for (Card card : cards) {
+                cardCache.put(card);
+                byKey.putIfAbsent(cardKey.apply(card), card);
+            }
+            for (K key : chunk) {
+                String cached = cacheKey.apply(key);
+                Card card = byKey.get(cached);
+                if (card == null) {
+                    cardCache.putMissing(cached);
+                }
+                resolved.put(cached, new CardLookup<>(key, card, null));
+            }
+        }
+
+        private void fail(List<K> chunk, Throwable error) {
+            Throwable cause = unwrap(error);
+            IOException failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            for (K key : chunk) {
+                resolved.putIfAbsent(cacheKey.apply(key), new CardLookup<>(key, null, failure));
+            }
+        }
+
+        private List<CardLookup<K>> assemble() {
+            List<CardLookup<K>> result = new ArrayList<>(keys.size());
+            for (K key : keys) {
+                CardLookup<K> lookup = resolved.get(cacheKey.apply(key));
+                result.add(new CardLookup<>(key, lookup.getCard().orElse(null), lookup.getError()));
+            }
+            return result;
         }
-        return "";
     }
 
-    private String unescapeJsonString(String s) {
-        if (s == null) return null;
-        // minimal unescape for common escapes
-        return s.replaceAll("\\\\\"", "\"")
-                .replaceAll("\\\\/", "/")
-                .replaceAll("\\\\n", "\n")
-                .replaceAll("\\\\r", "\r")
-                .replaceAll("\\\\t", "\t")
-                .replaceAll("\\\\\\\\", "\\");
+    public CardCatalog getCatalog() {
+        return catalog;
+    }
+
+    public void setCatalog(CardCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public DatabaseVersion fetchDatabaseVersion() throws IOException, InterruptedException {
+        return CardJsonParser.parseDatabaseVersion(performRequest(baseUrl + "/checkDBVer.php"));
+    }
+
+    /**
+     * Descarga la base de datos completa en una sola petición a {@code cardinfo.php}.
+     */
+    public CardCatalog downloadCatalog() throws IOException, InterruptedException {
+        DatabaseVersion version = fetchDatabaseVersion();
+        List<Card> cards = new ArrayList<>();
+        streamAllCards(cards::add);
+        if (cards.isEmpty()) {
+            throw new IOException("La API no devolvió cartas para el catálogo");
+        }
+        return new CardCatalog(version, cards);
+    }
+
+    /**
+     * Recorre la base de datos completa entregando cada carta a {@code sink} a
+     * medida que llega: el cuerpo se decodifica desde el flujo de la respuesta sin
+     * guardarlo entero en memoria, y el procesamiento se solapa con la descarga.
+     * Se ejecuta en el hilo que llama.
+     *
+     * @return número de cartas entregadas
+     */
+    public int streamAllCards(Consumer<? super Card> sink) throws IOException, InterruptedException {
+        return streamCards(baseUrl + "/cardinfo.php", sink);
+    }
+
+    /**
+     * Como {@link #streamAllCards}, pero solo con las cartas cuya fecha de salida
+     * en la región {@code dateRegion} ({@code tcg_date} u {@code ocg_date}) está
+     * entre {@code from} y {@code to}, ambos incluidos. La API fecha las cartas por
+     * su salida, no por su alta ni por su última edición.
+     *
+     * @return número de cartas entregadas; 0 si ninguna coincide
+     * @throws IOException si la consulta falla, incluido un HTTP 400 que no sea el
+     *                     de "ninguna carta coincide" (fechas o región no válidas)
+     */
+    public int streamCardsReleased(LocalDate from, LocalDate to, String dateRegion, Consumer<? super Card> sink)
+            throws IOException, InterruptedException {
+        String url = baseUrl + "/cardinfo.php?startdate=" + from + "&enddate=" + to
+                + "&dateregion=" + URLEncoder.encode(dateRegion, StandardCharsets.UTF_8);
+        try {
+            return streamCards(url, sink);
+        } catch (HttpStatusException e) {
+            if (e.isNoMatch()) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    private int streamCards(String url, Consumer<? super Card> sink) throws IOException, InterruptedException {
+        int[] count = {0};
+        long start = System.nanoTime();
+        try (Reader reader = new InputStreamReader(await(requester.open(url)), StandardCharsets.UTF_8)) {
+            CardJsonParser.parse(reader, card -> {
+                sink.accept(card);
+                count[0]++;
+            });
+        }
+        STREAM_TIME.recordSince(start);
+        STREAMED_CARDS.add(count[0]);
+        return count[0];
+    }
+
+    /**
+     * Usa el snapshot local si coincide con {@code checkDBVer}; si no existe
+     * descarga el catálogo, y si está desactualizado le aplica solo las cartas
+     * nuevas ({@link CatalogSync}). Sin red, un snapshot existente se usa aunque no
+     * se haya podido validar su versión. Con extensión {@code .ygc} el snapshot es
+     * un {@link CardStore}: las cartas se leen del archivo mapeado y las
+     * descripciones no ocupan heap hasta que se piden.
+     */
+    public CardCatalog loadOrDownloadCatalog(Path snapshotFile) throws IOException, InterruptedException {
+        CatalogSync sync = new CatalogSync(this, snapshotFile);
+        CardCatalog local = sync.loadLocal();
+        try {
+            sync.sync();
+        } catch (IOException e) {
+            if (local == null) {
+                throw e;
+            }
+        }
+        return sync.getCatalog();
+    }
+
+    private String performRequest(String url) throws IOException, InterruptedException {
+        return await(performRequestAsync(url));
+    }
+
+    private CompletableFuture<String> performRequestAsync(String url) {
+        return requester.get(url);
+    }
+
+    /** Espera un futuro de esta clase y devuelve sus fallos como excepciones comprobadas. */
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Encadena {@code step} sobre {@code upstream} de modo que cancelar el futuro
+     * resultante también cancele el original.
+     */
+    private static <T, R> CompletableFuture<R> propagateCancel(CompletableFuture<T> upstream, ResponseStep<T, R> step) {
+        CompletableFuture<R> downstream = upstream.thenApply(value -> {
+            try {
+                return step.apply(value);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+        downstream.whenComplete((value, error) -> {
+            if (downstream.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return downstream;
+    }
+
+    @FunctionalInterface
+    private interface ResponseStep<T, R> {
+        R apply(T value) throws IOException;
+    }
+
+    private List<Card> parseCards(String json) throws IOException {
+        long start = System.nanoTime();
+        List<Card> cards = CardJsonParser.parse(json);
+        PARSE_TIME.recordSince(start);
+        PARSED_CARDS.add(cards.size());
+        PARSED_CHARS.add(json.length());
+        return cards;
     }
 }
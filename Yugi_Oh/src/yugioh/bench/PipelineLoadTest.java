@@ -0,0 +1,130 @@
+package yugioh.bench;
+
+import yugioh.api.MockApiServer;
+import yugioh.api.YgoApiClient;
+import yugioh.catalog.CardCatalog;
+import yugioh.image.ImageCache;
+import yugioh.metrics.LatencyHistogram;
+import yugioh.model.Card;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga del camino completo de una partida nueva, sin red: reparte las
+ * dos manos con {@code randomcard.php} y obtiene las ilustraciones de las seis
+ * cartas en los dos tamaños de la interfaz (descarga, decodificación y escalado),
+ * contra un {@link MockApiServer} en el mismo proceso. Mide cargas por segundo y
+ * los percentiles del reparto y de la carga completa, con la latencia, errores y
+ * 429 que se inyecten en el servidor, así que el resultado es reproducible en CI.
+ *
+ * <p>Con un límite de peticiones por segundo en el servidor se comprueba el
+ * del cliente ({@code -Dyugioh.api.rate}): por debajo de ese límite no debería
+ * haber respuestas 429. {@code -Dbench.catalog=<ruta>} sirve un catálogo grabado
+ * en lugar del sintético y {@code -Dbench.seed=<n>} cambia la semilla de los
+ * fallos inyectados.
+ *
+ * <p>Uso: {@code PipelineLoadTest [cargas] [cargas simultáneas] [latencia ms] [% errores] [% 429] [límite del servidor /s]}.
+ */
+public final class PipelineLoadTest {
+
+    private static final int HAND = 3;
+    private static final List<ImageCache.Size> SIZES = List.of(new ImageCache.Size(160, 240), new ImageCache.Size(180, 262));
+    private static final long IMAGE_MEMORY_BUDGET = 32L * 1024 * 1024;
+
+    private final YgoApiClient client;
+    private final ImageCache images;
+    private final LatencyHistogram dealTime = new LatencyHistogram();
+    private final LatencyHistogram loadTime = new LatencyHistogram();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private PipelineLoadTest(YgoApiClient client, ImageCache images) {
+        this.client = client;
+        this.images = images;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int loads = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int concurrent = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long latency = args.length > 2 ? Long.parseLong(args[2]) : 20;
+        double errors = args.length > 3 ? Double.parseDouble(args[3]) / 100 : 0;
+        double throttles = args.length > 4 ? Double.parseDouble(args[4]) / 100 : 0;
+        int serverRate = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+
+        String recorded = System.getProperty("bench.catalog");
+        CardCatalog catalog = recorded != null
+                ? CardCatalog.open(Path.of(recorded))
+                : MockApiServer.syntheticCatalog(2_000, 42);
+        ExecutorService decoders = Executors.newFixedThreadPool(3);
+        try (MockApiServer server = new MockApiServer(catalog, null,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), Long.getLong("bench.seed", 42))) {
+            server.setLatency(Duration.ofMillis(latency), Duration.ofMillis(latency / 2));
+            server.setErrorRate(errors);
+            server.setThrottleRate(throttles);
+            server.setRateLimit(serverRate);
+            server.start();
+            PipelineLoadTest test = new PipelineLoadTest(new YgoApiClient(server.getBaseUrl()),
+                    new ImageCache(null, IMAGE_MEMORY_BUDGET, decoders));
+
+            Semaphore active = new Semaphore(concurrent);
+            CompletableFuture<?>[] done = new CompletableFuture<?>[loads];
+            long started = System.nanoTime();
+            for (int i = 0; i < loads; i++) {
+                active.acquire();
+                done[i] = test.load().handle((ignored, error) -> {
+                    active.release();
+                    if (error != null) {
+                        test.failures.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            CompletableFuture.allOf(done).join();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("%,d cargas (%,d simultáneas) en %.2f s: %,.1f cargas/s, %,d fallidas%n",
+                    loads, concurrent, seconds, (loads - test.failures.get()) / seconds, test.failures.get());
+            print("Reparto", test.dealTime);
+            print("Carga completa", test.loadTime);
+            System.out.printf("Servidor: %,d peticiones, %,d errores inyectados, %,d respuestas 429%n",
+                    server.getRequestCount(), server.getInjectedErrorCount(), server.getThrottledCount());
+        } finally {
+            decoders.shutdown();
+        }
+    }
+
+    /** Una partida nueva: reparto y, después, las seis ilustraciones a la vez. */
+    private CompletableFuture<Void> load() {
+        long started = System.nanoTime();
+        return client.fetchRandomMonsterHandsAsync(HAND, 2).thenCompose(hands -> {
+            dealTime.recordSince(started);
+            List<CompletableFuture<?>> pending = new ArrayList<>();
+            for (List<Card> hand : hands) {
+                for (Card card : hand) {
+                    pending.add(images.getAll(card.getId(), card.getImageUrl(), SIZES));
+                }
+            }
+            return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+        }).thenRun(() -> loadTime.recordSince(started));
+    }
+
+    private static void print(String label, LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        System.out.printf("%s: p50 %s, p90 %s, p99 %s, máx %s%n", label,
+                millis(snapshot.getValueAtQuantile(0.50)), millis(snapshot.getValueAtQuantile(0.90)),
+                millis(snapshot.getValueAtQuantile(0.99)), millis(snapshot.getMax()));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%,.1f ms", nanos / 1e6);
+    }
+}
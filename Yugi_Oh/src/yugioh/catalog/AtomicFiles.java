@@ -0,0 +1,39 @@
+package yugioh.catalog;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Escritura de archivos mediante un temporal que se mueve al destino al final,
+ * para que los lectores nunca vean un archivo a medias.
+ */
+final class AtomicFiles {
+
+    interface Writer {
+        void write(Path temp) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    static void write(Path file, Writer writer) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            writer.write(temp);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package yugioh.catalog;
+
+import yugioh.api.CardJsonParser;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Copia local e inmutable de la base de datos de cartas. Permite repartir manos
+ * aleatorias desde memoria sin volver a consultar la API.
+ */
+public final class CardCatalog {
+
+    private final DatabaseVersion version;
+    private final List<Card> cards;
+    private final List<Card> monsters;
+    private volatile CardIndex index;
+
+    public CardCatalog(DatabaseVersion version, Collection<Card> cards) {
+        this.version = version;
+        this.cards = Collections.unmodifiableList(new ArrayList<>(cards));
+        List<Card> monsterCards = new ArrayList<>();
+        for (Card card : this.cards) {
+            if (card.isMonster()) {
+                monsterCards.add(card);
+            }
+        }
+        this.monsters = Collections.unmodifiableList(monsterCards);
+    }
+
+    /**
+     * Construye un catálogo a partir de un volcado JSON grabado de {@code cardinfo.php},
+     * útil como fixture para pruebas sin red.
+     */
+    public static CardCatalog fromJsonFile(Path jsonDump) throws IOException {
+        List<Card> cards = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(jsonDump, StandardCharsets.UTF_8)) {
+            CardJsonParser.parse(reader, cards::add);
+        }
+        return new CardCatalog(DatabaseVersion.UNKNOWN, cards);
+    }
+
+    /** Construye un catálogo a partir de un volcado NDJSON (una carta por línea). */
+    public static CardCatalog fromNdjsonFile(Path ndjsonDump) throws IOException {
+        List<Card> cards = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(ndjsonDump, StandardCharsets.UTF_8)) {
+            CardJsonParser.parseNdjson(reader, cards::add);
+        }
+        return new CardCatalog(DatabaseVersion.UNKNOWN, cards);
+    }
+
+    /**
+     * Abre un catálogo local según su extensión: volcado {@code .json} o
+     * {@code .ndjson}, almacén columnar {@code .ygc} o, en otro caso, un
+     * {@link CatalogSnapshot}.
+     */
+    public static CardCatalog open(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".json")) {
+            return fromJsonFile(file);
+        }
+        if (name.endsWith(".ndjson")) {
+            return fromNdjsonFile(file);
+        }
+        if (name.endsWith(".ygc")) {
+            return CardStore.open(file).toCatalog();
+        }
+        return CatalogSnapshot.read(file);
+    }
+
+    public DatabaseVersion getVersion() {
+        return version;
+    }
+
+    public List<Card> getCards() {
+        return cards;
+    }
+
+    public List<Card> getMonsters() {
+        return monsters;
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    /** Índice de consultas sobre {@link #getCards()}; se construye la primera vez que se pide. */
+    public CardIndex getIndex() {
+        CardIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new CardIndex(cards);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Elige {@code count} monstruos distintos al azar (algoritmo de Floyd, sin
+     * copiar ni barajar la lista completa).
+     */
+    public List<Card> randomMonsters(int count, Random random) throws IOException {
+        int total = monsters.size();
+        if (count > total) {
+            throw new IOException("El catálogo solo tiene " + total + " cartas Monster");
+        }
+        Set<Integer> chosen = new HashSet<>();
+        List<Card> hand = new ArrayList<>(count);
+        for (int j = total - count; j < total; j++) {
+            int candidate = random.nextInt(j + 1);
+            if (!chosen.add(candidate)) {
+                chosen.add(j);
+                candidate = j;
+            }
+            hand.add(monsters.get(candidate));
+        }
+        Collections.shuffle(hand, random);
+        return hand;
+    }
+}
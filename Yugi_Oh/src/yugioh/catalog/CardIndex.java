@@ -0,0 +1,419 @@
+package yugioh.catalog;
+
+import yugioh.model.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice inmutable sobre las cartas de un catálogo. Las cartas se identifican por
+ * su posición en la lista original, y todas las estructuras son arreglos
+ * primitivos construidos una sola vez:
+ * <ul>
+ *     <li>id → posición en una tabla de direccionamiento abierto;</li>
+ *     <li>ATK y DEF ordenados, para consultas por rango con búsqueda binaria;</li>
+ *     <li>un código por tipo de carta y un {@link BitSet} por código;</li>
+ *     <li>nombres en minúsculas ordenados (búsqueda por prefijo) y listas de
+ *     posiciones por trigrama (búsqueda por subcadena).</li>
+ * </ul>
+ * Las consultas que devuelven conjuntos usan {@link BitSet} para poder
+ * combinarse con {@code and}/{@code or} antes de materializar las cartas.
+ */
+public final class CardIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final List<Card> cards;
+
+    private final int[] idKeys;
+    private final int[] idSlots;
+    private final int idMask;
+
+    private final int[] atkSorted;
+    private final int[] atkOrder;
+    private final int[] defSorted;
+    private final int[] defOrder;
+
+    private final List<String> types;
+    private final Map<String, Integer> typeCodes;
+    private final short[] typeByCard;
+    private final BitSet[] typeBitmaps;
+    private final BitSet monsters;
+
+    private final String[] lowerNames;
+    private final String[] sortedNames;
+    private final int[] nameOrder;
+    private final Map<Long, int[]> trigrams;
+
+    public CardIndex(List<Card> cards) {
+        this.cards = Collections.unmodifiableList(new ArrayList<>(cards));
+        int count = this.cards.size();
+
+        int capacity = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+        this.idKeys = new int[capacity];
+        this.idSlots = new int[capacity];
+        this.idMask = capacity - 1;
+        for (int i = 0; i < count; i++) {
+            putId(this.cards.get(i).getId(), i);
+        }
+
+        int[] atk = new int[count];
+        int[] def = new int[count];
+        for (int i = 0; i < count; i++) {
+            atk[i] = this.cards.get(i).getAtk();
+            def[i] = this.cards.get(i).getDef();
+        }
+        this.atkOrder = sortedOrder(atk);
+        this.atkSorted = permute(atk, atkOrder);
+        this.defOrder = sortedOrder(def);
+        this.defSorted = permute(def, defOrder);
+
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        this.typeByCard = new short[count];
+        for (int i = 0; i < count; i++) {
+            String type = this.cards.get(i).getType();
+            Integer code = codes.get(type);
+            if (code == null) {
+                code = codes.size();
+                codes.put(type, code);
+            }
+            typeByCard[i] = code.shortValue();
+        }
+        this.typeCodes = Collections.unmodifiableMap(codes);
+        this.types = List.copyOf(codes.keySet());
+        this.typeBitmaps = new BitSet[types.size()];
+        for (int code = 0; code < typeBitmaps.length; code++) {
+            typeBitmaps[code] = new BitSet(count);
+        }
+        for (int i = 0; i < count; i++) {
+            typeBitmaps[typeByCard[i]].set(i);
+        }
+        // isMonster() se evalúa una vez por tipo distinto, no por carta
+        this.monsters = new BitSet(count);
+        for (int code = 0; code < types.size(); code++) {
+            if (isMonsterType(types.get(code))) {
+                monsters.or(typeBitmaps[code]);
+            }
+        }
+
+        this.lowerNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            lowerNames[i] = this.cards.get(i).getName().toLowerCase(Locale.ROOT);
+        }
+        Integer[] byName = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            byName[i] = i;
+        }
+        Arrays.sort(byName, (a, b) -> lowerNames[a].compareTo(lowerNames[b]));
+        this.nameOrder = new int[count];
+        this.sortedNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            nameOrder[i] = byName[i];
+            sortedNames[i] = lowerNames[byName[i]];
+        }
+        this.trigrams = buildTrigrams(lowerNames);
+    }
+
+    public static CardIndex of(CardCatalog catalog) {
+        return new CardIndex(catalog.getCards());
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    public Card get(int position) {
+        return cards.get(position);
+    }
+
+    /** Posición de la carta con ese id, o -1 si no está. */
+    public int positionOf(int id) {
+        int slot = mix(id) & idMask;
+        while (idSlots[slot] != 0) {
+            if (idKeys[slot] == id) {
+                return idSlots[slot] - 1;
+            }
+            slot = (slot + 1) & idMask;
+        }
+        return -1;
+    }
+
+    /** Carta con ese id, o {@code null} si no está. */
+    public Card byId(int id) {
+        int position = positionOf(id);
+        return position < 0 ? null : cards.get(position);
+    }
+
+    /** Número de cartas con {@code min <= ATK <= max}, sin reservar memoria. */
+    public int countAtkBetween(int min, int max) {
+        return countBetween(atkSorted, min, max);
+    }
+
+    public int countDefBetween(int min, int max) {
+        return countBetween(defSorted, min, max);
+    }
+
+    public BitSet atkBetween(int min, int max) {
+        return between(atkSorted, atkOrder, min, max);
+    }
+
+    public BitSet defBetween(int min, int max) {
+        return between(defSorted, defOrder, min, max);
+    }
+
+    /** Tipos distintos presentes en el catálogo; el índice de cada uno es su código. */
+    public List<String> getTypes() {
+        return types;
+    }
+
+    /** Código del tipo, o -1 si ninguna carta lo tiene. */
+    public int typeCode(String type) {
+        Integer code = typeCodes.get(type);
+        return code == null ? -1 : code;
+    }
+
+    public int typeCodeAt(int position) {
+        return typeByCard[position];
+    }
+
+    public BitSet ofType(String type) {
+        int code = typeCode(type);
+        return code < 0 ? new BitSet() : (BitSet) typeBitmaps[code].clone();
+    }
+
+    public BitSet monsters() {
+        return (BitSet) monsters.clone();
+    }
+
+    public boolean isMonster(int position) {
+        return monsters.get(position);
+    }
+
+    /** Monstruos con {@code min <= ATK <= max}, en el orden del catálogo. */
+    public List<Card> monstersWithAtkBetween(int min, int max) {
+        BitSet selection = atkBetween(min, max);
+        selection.and(monsters);
+        return select(selection);
+    }
+
+    /**
+     * Cartas cuyo nombre empieza por {@code prefix} (sin distinguir mayúsculas),
+     * en orden alfabético y como mucho {@code limit}.
+     */
+    public List<Card> byNamePrefix(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        List<Card> result = new ArrayList<>();
+        for (int i = lowerBound(sortedNames, key); i < sortedNames.length && result.size() < limit; i++) {
+            if (!sortedNames[i].startsWith(key)) {
+                break;
+            }
+            result.add(cards.get(nameOrder[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Cartas cuyo nombre contiene {@code text} (sin distinguir mayúsculas), en el
+     * orden del catálogo y como mucho {@code limit}. Con tres o más caracteres se
+     * cruzan las listas de trigramas y solo se verifican los candidatos; con menos
+     * se recorre la lista de nombres.
+     */
+    public List<Card> searchName(String text, int limit) {
+        String key = text.toLowerCase(Locale.ROOT);
+        List<Card> result = new ArrayList<>();
+        if (key.length() < 3) {
+            for (int i = 0; i < cards.size() && result.size() < limit; i++) {
+                if (lowerNames[i].contains(key)) {
+                    result.add(cards.get(i));
+                }
+            }
+            return result;
+        }
+        int[][] postings = new int[key.length() - 2][];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = trigrams.getOrDefault(trigram(key, i), NO_POSITIONS);
+        }
+        // se cruza empezando por los trigramas más raros; cuando la siguiente lista
+        // es mucho mayor sale más barato verificar los candidatos uno a uno
+        Arrays.sort(postings, (a, b) -> Integer.compare(a.length, b.length));
+        int[] candidates = postings[0];
+        for (int i = 1; i < postings.length && candidates.length > 0; i++) {
+            if (postings[i].length > candidates.length * 8) {
+                break;
+            }
+            candidates = intersect(candidates, postings[i]);
+        }
+        for (int i = 0; i < candidates.length && result.size() < limit; i++) {
+            int position = candidates[i];
+            if (key.length() == 3 || lowerNames[position].contains(key)) {
+                result.add(cards.get(position));
+            }
+        }
+        return result;
+    }
+
+    /** Materializa una selección en el orden del catálogo. */
+    public List<Card> select(BitSet positions) {
+        List<Card> result = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            result.add(cards.get(i));
+        }
+        return result;
+    }
+
+    private void putId(int id, int position) {
+        int slot = mix(id) & idMask;
+        while (idSlots[slot] != 0) {
+            if (idKeys[slot] == id) {
+                // id repetido: se conserva la primera aparición
+                return;
+            }
+            slot = (slot + 1) & idMask;
+        }
+        idKeys[slot] = id;
+        idSlots[slot] = position + 1;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static boolean isMonsterType(String type) {
+        return type != null && type.toLowerCase(Locale.ROOT).contains("monster");
+    }
+
+    private static int[] sortedOrder(int[] values) {
+        // clave compuesta valor|posición: un solo sort primitivo, estable por posición
+        long[] keyed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keyed[i] = (long) values[i] << 32 | i;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[values.length];
+        for (int i = 0; i < keyed.length; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+
+    private static int[] permute(int[] values, int[] order) {
+        int[] sorted = new int[values.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = values[order[i]];
+        }
+        return sorted;
+    }
+
+    private static int countBetween(int[] sorted, int min, int max) {
+        if (min > max) {
+            return 0;
+        }
+        return firstGreaterThan(sorted, max) - firstAtLeast(sorted, min);
+    }
+
+    private BitSet between(int[] sorted, int[] order, int min, int max) {
+        BitSet result = new BitSet(cards.size());
+        if (min > max) {
+            return result;
+        }
+        int end = firstGreaterThan(sorted, max);
+        for (int i = firstAtLeast(sorted, min); i < end; i++) {
+            result.set(order[i]);
+        }
+        return result;
+    }
+
+    private static int firstAtLeast(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstGreaterThan(int[] sorted, int value) {
+        return value == Integer.MAX_VALUE ? sorted.length : firstAtLeast(sorted, value + 1);
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long trigram(String text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    private static Map<Long, int[]> buildTrigrams(String[] names) {
+        Map<Long, IntList> postings = new HashMap<>();
+        for (int position = 0; position < names.length; position++) {
+            String name = names[position];
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                IntList list = postings.computeIfAbsent(trigram(name, i), key -> new IntList());
+                // las posiciones llegan en orden: basta con mirar la última para no repetir
+                if (list.size == 0 || list.values[list.size - 1] != position) {
+                    list.add(position);
+                }
+            }
+        }
+        Map<Long, int[]> result = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<Long, IntList> entry : postings.entrySet()) {
+            result.put(entry.getKey(), Arrays.copyOf(entry.getValue().values, entry.getValue().size));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package yugioh.catalog;
+
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Catálogo de cartas en formato columnar, leído con {@link FileChannel#map} para
+ * que cargarlo cueste milisegundos y varias JVM compartan las mismas páginas.
+ *
+ * <p>Disposición del archivo (big-endian): cabecera de 7 enteros; columnas
+ * {@code id}, {@code atk}, {@code def} y referencias a nombre, descripción y URL
+ * (un {@code int} por carta; la referencia de URL {@code -1} indica que se
+ * deriva del id); tabla de tipos; offsets del heap de cadenas; código de tipo
+ * por carta ({@code short}); y el heap de cadenas UTF-8.
+ */
+public final class CardStore {
+
+    static final int MAGIC = 0x59474f43; // "YGOC"
+    static final int FORMAT_VERSION = 2;
+    // el formato 1 guarda siempre la URL; el 2 usa -1 cuando se deriva del id
+    private static final int OLDEST_READABLE_FORMAT = 1;
+    private static final int HEADER_BYTES = 7 * Integer.BYTES;
+
+    private final ByteBuffer data;
+    private final Layout layout;
+    private final String[] types;
+    private final DatabaseVersion version;
+    private final List<Card> cards = new CardList();
+
+    private CardStore(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+            throw new IOException("El archivo no es un almacén de cartas");
+        }
+        int format = data.getInt(4);
+        if (format < OLDEST_READABLE_FORMAT || format > FORMAT_VERSION) {
+            throw new IOException("Formato de almacén no soportado: " + format);
+        }
+        this.layout = new Layout(data.getInt(8), data.getInt(12), data.getInt(16));
+        if (layout.heapOffset > data.capacity()) {
+            throw new IOException("Almacén de cartas truncado");
+        }
+        this.version = new DatabaseVersion(string(data.getInt(20)), string(data.getInt(24)));
+        // los tipos son pocos y se repiten en casi todas las cartas: se decodifican una vez
+        this.types = new String[layout.typeCount];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = string(data.getInt((int) (layout.typeTableOffset + (long) i * Integer.BYTES)));
+        }
+    }
+
+    public static CardStore open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CardStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public DatabaseVersion getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return layout.count;
+    }
+
+    /** Vista de solo lectura; cada carta decodifica sus textos al pedirlos. */
+    public List<Card> cards() {
+        return cards;
+    }
+
+    public CardCatalog toCatalog() {
+        return new CardCatalog(version, cards);
+    }
+
+    public int id(int index) {
+        return data.getInt(column(layout.idOffset, index));
+    }
+
+    public int atk(int index) {
+        return data.getInt(column(layout.atkOffset, index));
+    }
+
+    public int def(int index) {
+        return data.getInt(column(layout.defOffset, index));
+    }
+
+    public String type(int index) {
+        checkIndex(index);
+        return types[data.getShort((int) (layout.typeCodeOffset + (long) index * Short.BYTES))];
+    }
+
+    public String name(int index) {
+        return string(data.getInt(column(layout.nameRefOffset, index)));
+    }
+
+    public String description(int index) {
+        return string(data.getInt(column(layout.descRefOffset, index)));
+    }
+
+    public String imageUrl(int index) {
+        int ref = data.getInt(column(layout.urlRefOffset, index));
+        return ref < 0 ? Card.imageUrlFor(id(index)) : string(ref);
+    }
+
+    private int column(long offset, int index) {
+        checkIndex(index);
+        return (int) (offset + (long) index * Integer.BYTES);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= layout.count) {
+            throw new IndexOutOfBoundsException("Carta " + index + " fuera de rango (" + layout.count + ")");
+        }
+    }
+
+    private String string(int ref) {
+        int entry = (int) (layout.stringOffsetsOffset + (long) ref * Integer.BYTES);
+        int start = data.getInt(entry);
+        int end = data.getInt(entry + Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        // get(int, byte[]) es de Java 13: una vista propia no mueve la posición compartida
+        data.duplicate().position((int) layout.heapOffset + start).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static final class Layout {
+        final int count;
+        final int typeCount;
+        final int stringCount;
+        final long idOffset;
+        final long atkOffset;
+        final long defOffset;
+        final long nameRefOffset;
+        final long descRefOffset;
+        final long urlRefOffset;
+        final long typeTableOffset;
+        final long stringOffsetsOffset;
+        final long typeCodeOffset;
+        final long heapOffset;
+
+        Layout(int count, int typeCount, int stringCount) {
+            this.count = count;
+            this.typeCount = typeCount;
+            this.stringCount = stringCount;
+            long column = (long) count * Integer.BYTES;
+            this.idOffset = HEADER_BYTES;
+            this.atkOffset = idOffset + column;
+            this.defOffset = atkOffset + column;
+            this.nameRefOffset = defOffset + column;
+            this.descRefOffset = nameRefOffset + column;
+            this.urlRefOffset = descRefOffset + column;
+            this.typeTableOffset = urlRefOffset + column;
+            this.stringOffsetsOffset = typeTableOffset + (long) typeCount * Integer.BYTES;
+            this.typeCodeOffset = stringOffsetsOffset + (long) (stringCount + 1) * Integer.BYTES;
+            this.heapOffset = typeCodeOffset + (long) count * Short.BYTES;
+        }
+    }
+
+    private final class CardList extends AbstractList<Card> implements RandomAccess {
+        @Override
+        public Card get(int index) {
+            return new StoredCard(index);
+        }
+
+        @Override
+        public int size() {
+            return layout.count;
+        }
+    }
+
+    /**
+     * Carta respaldada por el archivo mapeado: id, ATK, DEF y tipo se leen de las
+     * columnas; nombre, descripción y URL se decodifican solo cuando se piden.
+     */
+    private final class StoredCard extends Card {
+        private final int index;
+        private String name;
+
+        StoredCard(int index) {
+            super(id(index), null, type(index), atk(index), def(index), null, null);
+            this.index = index;
+        }
+
+        @Override
+        public String getName() {
+            String cached = name;
+            if (cached == null) {
+                cached = name(index);
+                name = cached;
+            }
+            return cached;
+        }
+
+        @Override
+        public String getDescription() {
+            return description(index);
+        }
+
+        @Override
+        public String getImageUrl() {
+            return imageUrl(index);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package yugioh.catalog;
+
+import yugioh.api.CardJsonParser;
+import yugioh.model.Card;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Genera el archivo columnar que lee {@link CardStore}. Las cadenas se internan:
+ * cada texto distinto se guarda una sola vez en el heap de cadenas.
+ */
+public final class CardStoreWriter {
+
+    private final List<Card> cards = new ArrayList<>();
+    private final Map<String, Integer> stringRefs = new HashMap<>();
+    private final List<Integer> stringOffsets = new ArrayList<>();
+    private final ByteArrayOutputStream heap = new ByteArrayOutputStream(1 << 20);
+    private final Map<String, Integer> typeCodes = new HashMap<>();
+    private final List<Integer> typeRefs = new ArrayList<>();
+
+    private CardStoreWriter() {
+    }
+
+    public static void write(CardCatalog catalog, Path file) throws IOException {
+        write(catalog.getVersion(), catalog.getCards(), file);
+    }
+
+    public static void write(DatabaseVersion version, Collection<Card> cards, Path file) throws IOException {
+        CardStoreWriter writer = new CardStoreWriter();
+        writer.cards.addAll(cards);
+        writer.writeTo(version, file);
+    }
+
+    /**
+     * Convierte una respuesta JSON de {@code cardinfo.php} directamente al formato columnar.
+     */
+    public static void convertJson(Reader json, DatabaseVersion version, Path file) throws IOException {
+        CardStoreWriter writer = new CardStoreWriter();
+        CardJsonParser.parse(json, writer.cards::add);
+        writer.writeTo(version, file);
+    }
+
+    private void writeTo(DatabaseVersion version, Path file) throws IOException {
+        int count = cards.size();
+        int versionRef = intern(version.getVersion());
+        int lastUpdateRef = intern(version.getLastUpdate());
+        int[] nameRefs = new int[count];
+        int[] descRefs = new int[count];
+        int[] urlRefs = new int[count];
+        short[] types = new short[count];
+        for (int i = 0; i < count; i++) {
+            Card card = cards.get(i);
+            nameRefs[i] = intern(card.getName());
+            descRefs[i] = intern(card.getDescription());
+            String url = card.getImageUrl();
+            urlRefs[i] = url.equals(Card.imageUrlFor(card.getId())) ? -1 : intern(url);
+            types[i] = typeCode(card.getType());
+        }
+        stringOffsets.add(heap.size());
+
+        CardStore.Layout layout = new CardStore.Layout(count, typeRefs.size(), stringOffsets.size() - 1);
+        ByteBuffer columns = ByteBuffer.allocate((int) layout.heapOffset);
+        columns.putInt(CardStore.MAGIC)
+                .putInt(CardStore.FORMAT_VERSION)
+                .putInt(count)
+                .putInt(typeRefs.size())
+                .putInt(stringOffsets.size() - 1)
+                .putInt(versionRef)
+                .putInt(lastUpdateRef);
+        for (Card card : cards) {
+            columns.putInt(card.getId());
+        }
+        for (Card card : cards) {
+            columns.putInt(card.getAtk());
+        }
+        for (Card card : cards) {
+            columns.putInt(card.getDef());
+        }
+        putAll(columns, nameRefs);
+        putAll(columns, descRefs);
+        putAll(columns, urlRefs);
+        for (int ref : typeRefs) {
+            columns.putInt(ref);
+        }
+        for (int offset : stringOffsets) {
+            columns.putInt(offset);
+        }
+        for (short type : types) {
+            columns.putShort(type);
+        }
+        columns.flip();
+
+        AtomicFiles.write(file, temp -> {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, columns);
+                writeFully(channel, ByteBuffer.wrap(heap.toByteArray()));
+            }
+        });
+    }
+
+    private int intern(String value) {
+        Integer existing = stringRefs.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int ref = stringOffsets.size();
+        stringOffsets.add(heap.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        heap.write(bytes, 0, bytes.length);
+        stringRefs.put(value, ref);
+        return ref;
+    }
+
+    private short typeCode(String type) throws IOException {
+        Integer code = typeCodes.get(type);
+        if (code == null) {
+            if (typeRefs.size() > Short.MAX_VALUE) {
+                throw new IOException("Demasiados tipos de carta distintos");
+            }
+            code = typeRefs.size();
+            typeRefs.add(intern(type));
+            typeCodes.put(type, code);
+        }
+        return code.shortValue();
+    }
+
+    private static void putAll(ByteBuffer buffer, int[] values) {
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package yugioh.catalog;
+
+import yugioh.model.Card;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Formato binario comprimido para guardar un {@link CardCatalog} en disco junto
+ * con la versión de la base de datos de la que proviene.
+ */
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x59474f53; // "YGOS"
+    private static final int FORMAT_VERSION = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    public static void write(CardCatalog catalog, Path file) throws IOException {
+        AtomicFiles.write(file, temp -> {
+            try (OutputStream raw = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(raw, 1 << 16)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(catalog.getVersion().getVersion());
+                out.writeUTF(catalog.getVersion().getLastUpdate());
+                out.writeInt(catalog.size());
+                for (Card card : catalog.getCards()) {
+                    out.writeInt(card.getId());
+                    writeString(out, card.getName());
+                    writeString(out, card.getType());
+                    out.writeInt(card.getAtk());
+                    out.writeInt(card.getDef());
+                    writeString(out, card.getDescription());
+                    writeString(out, card.getImageUrl());
+                }
+            }
+        });
+    }
+
+    public static CardCatalog read(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(raw, 1 << 16)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("El archivo no es un snapshot de cartas: " + file);
+            }
+            int format = in.readInt();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Formato de snapshot no soportado: " + format);
+            }
+            DatabaseVersion version = new DatabaseVersion(in.readUTF(), in.readUTF());
+            int count = in.readInt();
+            List<Card> cards = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int id = in.readInt();
+                String name = readString(in);
+                String type = readString(in);
+                int atk = in.readInt();
+                int def = in.readInt();
+                String description = readString(in);
+                String imageUrl = readString(in);
+                cards.add(new Card(id, name, type, atk, def, description, imageUrl));
+            }
+            return new CardCatalog(version, cards);
+        }
+    }
+
+    // writeUTF limita a 64 KB, así que las cadenas se guardan con longitud explícita
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Snapshot corrupto: longitud negativa");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
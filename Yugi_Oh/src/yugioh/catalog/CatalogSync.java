@@ -0,0 +1,300 @@
+package yugioh.catalog;
+
+import yugioh.api.YgoApiClient;
+import yugioh.metrics.Counter;
+import yugioh.metrics.MetricsRegistry;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene al día el snapshot local del catálogo sin volver a descargar la base
+ * completa cada vez que cambia. Compara la versión local con {@code checkDBVer};
+ * si difiere, pide solo las cartas con fecha de salida posterior a la última
+ * actualización local (menos un margen de solape, porque las cartas se dan de
+ * alta antes de salir y con fechas que a veces se corrigen), en TCG y en OCG, y
+ * las mezcla por id con las que ya había.
+ *
+ * <p>La mezcla es copia-en-escritura: se construye un {@link CardCatalog} nuevo,
+ * se escribe el snapshot en un temporal que reemplaza al anterior con un
+ * movimiento atómico, y solo entonces se publica con un único cambio de
+ * referencia, así que ni los lectores de {@link #getCatalog()} ni otro proceso
+ * que abra el archivo ven nunca un catálogo a medio actualizar.
+ *
+ * <p>La API no expone la fecha de edición de una carta, así que las erratas de
+ * cartas antiguas no llegan por delta: sin snapshot local, sin fecha legible en
+ * su versión o con una actualización más antigua que {@link #getMaxDeltaAge()}
+ * se descarga la base completa.
+ *
+ * <p>Métricas: duración de cada sincronización por modo, cartas recibidas,
+ * añadidas y modificadas, fallos y tamaño del catálogo publicado.
+ */
+public final class CatalogSync {
+
+    /** Qué hizo una sincronización. */
+    public enum Mode {
+        /** La versión local ya era la de la API. */
+        CURRENT,
+        /** Se aplicaron solo las cartas nuevas o cambiadas. */
+        DELTA,
+        /** Se descargó la base completa. */
+        FULL
+    }
+
+    private static final String[] DATE_REGIONS = {"tcg_date", "ocg_date"};
+    // las cartas anunciadas ya están en la base con su fecha de salida futura
+    private static final int ANNOUNCED_DAYS = 730;
+
+    private static final Counter FETCHED = MetricsRegistry.DEFAULT.counter(
+            "yugioh_catalog_sync_fetched_cards_total", "Cartas recibidas en sincronizaciones por delta");
+    private static final Counter ADDED = MetricsRegistry.DEFAULT.counter(
+            "yugioh_catalog_sync_cards_total", "Cambios aplicados al catálogo local", "change", "added");
+    private static final Counter UPDATED = MetricsRegistry.DEFAULT.counter(
+            "yugioh_catalog_sync_cards_total", "Cambios aplicados al catálogo local", "change", "updated");
+    private static final Counter FAILURES = MetricsRegistry.DEFAULT.counter(
+            "yugioh_catalog_sync_failures_total", "Sincronizaciones que no pudieron completarse");
+
+    private final YgoApiClient client;
+    private final Path snapshotFile;
+    private final AtomicReference<CardCatalog> current = new AtomicReference<>();
+    private volatile Duration overlap = Duration.ofDays(60);
+    private volatile Duration maxDeltaAge = Duration.ofDays(365);
+
+    /**
+     * @param snapshotFile snapshot local; con extensión {@code .ygc} se guarda como
+     *                     {@link CardStore}, si no como {@link CatalogSnapshot}
+     */
+    public CatalogSync(YgoApiClient client, Path snapshotFile) {
+        this.client = Objects.requireNonNull(client);
+        this.snapshotFile = Objects.requireNonNull(snapshotFile);
+        MetricsRegistry.DEFAULT.gauge("yugioh_catalog_cards", "Cartas del catálogo local publicado", () -> {
+            CardCatalog catalog = current.get();
+            return catalog == null ? 0 : catalog.size();
+        });
+    }
+
+    /** Último catálogo publicado, o {@code null} si aún no hay ninguno. */
+    public CardCatalog getCatalog() {
+        return current.get();
+    }
+
+    /**
+     * Abre el snapshot local, si existe, y lo publica sin consultar la red.
+     *
+     * @return el catálogo local, o {@code null} si no hay snapshot
+     */
+    public CardCatalog loadLocal() throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+        CardCatalog local = isStore() ? CardStore.open(snapshotFile).toCatalog() : CatalogSnapshot.read(snapshotFile);
+        publish(local);
+        return local;
+    }
+
+    public Duration getOverlap() {
+        return overlap;
+    }
+
+    /** Cuánto antes de la última actualización local empieza el delta. */
+    public void setOverlap(Duration overlap) {
+        if (overlap.isNegative()) {
+            throw new IllegalArgumentException("El solape no puede ser negativo: " + overlap);
+        }
+        this.overlap = overlap;
+    }
+
+    public Duration getMaxDeltaAge() {
+        return maxDeltaAge;
+    }
+
+    /** Con un snapshot más antiguo que esto se descarga la base completa en lugar del delta. */
+    public void setMaxDeltaAge(Duration maxDeltaAge) {
+        this.maxDeltaAge = Objects.requireNonNull(maxDeltaAge);
+    }
+
+    /**
+     * Pone el catálogo local al día con la API. Las sincronizaciones se ejecutan de
+     * una en una; mientras tanto los lectores siguen viendo el catálogo anterior.
+     * Si falla, el catálogo publicado y el snapshot no cambian.
+     */
+    public synchronized Result sync() throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        try {
+            Result result = syncNow(started);
+            MetricsRegistry.DEFAULT.histogram("yugioh_catalog_sync_seconds",
+                    "Sincronización del catálogo local, desde checkDBVer hasta publicar", "mode",
+                    result.mode.name().toLowerCase(Locale.ROOT)).recordSince(started);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            FAILURES.increment();
+            throw e;
+        }
+    }
+
+    private Result syncNow(long started) throws IOException, InterruptedException {
+        CardCatalog local = current.get();
+        if (local == null) {
+            local = loadLocal();
+        }
+        DatabaseVersion remote = client.fetchDatabaseVersion();
+        if (local != null && (!remote.isKnown() || remote.equals(local.getVersion()))) {
+            return new Result(Mode.CURRENT, local.getVersion(), 0, 0, 0, elapsed(started));
+        }
+        LocalDate since = local == null ? null : deltaStart(local.getVersion());
+        if (since == null) {
+            List<Card> cards = new ArrayList<>();
+            client.streamAllCards(cards::add);
+            if (cards.isEmpty()) {
+                throw new IOException("La API no devolvió cartas para el catálogo");
+            }
+            CardCatalog full = new CardCatalog(remote, cards);
+            persist(full);
+            return new Result(Mode.FULL, remote, cards.size(), full.size(), 0, elapsed(started));
+        }
+
+        // una carta con fecha en las dos regiones llega dos veces: cuenta la última
+        Map<Integer, Card> delta = new LinkedHashMap<>();
+        LocalDate until = LocalDate.now().plusDays(ANNOUNCED_DAYS);
+        int fetched = 0;
+        // si una región falla se lanza antes de persistir: la versión local no avanza
+        // y el próximo intento vuelve a pedir el mismo intervalo
+        for (String region : DATE_REGIONS) {
+            fetched += client.streamCardsReleased(since, until, region, card -> delta.put(card.getId(), card));
+        }
+        List<Card> merged = new ArrayList<>(local.size() + delta.size());
+        int updated = 0;
+        for (Card card : local.getCards()) {
+            Card replacement = delta.remove(card.getId());
+            if (replacement == null) {
+                merged.add(card);
+            } else {
+                merged.add(replacement);
+                if (!sameContent(card, replacement)) {
+                    updated++;
+                }
+            }
+        }
+        int added = delta.size();
+        merged.addAll(delta.values());
+        persist(new CardCatalog(remote, merged));
+        FETCHED.add(fetched);
+        ADDED.add(added);
+        UPDATED.add(updated);
+        return new Result(Mode.DELTA, remote, fetched, added, updated, elapsed(started));
+    }
+
+    /** Primer día que hay que volver a pedir, o {@code null} si toca descarga completa. */
+    private LocalDate deltaStart(DatabaseVersion version) {
+        String lastUpdate = version.getLastUpdate();
+        LocalDate updated;
+        try {
+            // checkDBVer da "2024-05-23 02:21:10"; basta con el día
+            updated = LocalDate.parse(lastUpdate.length() >= 10 ? lastUpdate.substring(0, 10) : lastUpdate);
+        } catch (DateTimeException e) {
+            return null;
+        }
+        if (updated.isBefore(LocalDate.now().minusDays(maxDeltaAge.toDays()))) {
+            return null;
+        }
+        return updated.minusDays(overlap.toDays());
+    }
+
+    /** Escribe el snapshot de forma atómica y después publica el catálogo. */
+    private void persist(CardCatalog catalog) throws IOException {
+        CardCatalog published = catalog;
+        if (isStore()) {
+            CardStoreWriter.write(catalog, snapshotFile);
+            // el archivo anterior sigue mapeado por quien lo tenga abierto: el movimiento no lo toca
+            published = CardStore.open(snapshotFile).toCatalog();
+        } else {
+            CatalogSnapshot.write(catalog, snapshotFile);
+        }
+        publish(published);
+    }
+
+    private void publish(CardCatalog catalog) {
+        current.set(catalog);
+        client.setCatalog(catalog);
+    }
+
+    private boolean isStore() {
+        return snapshotFile.getFileName().toString().endsWith(".ygc");
+    }
+
+    private static boolean sameContent(Card a, Card b) {
+        return a.getName().equals(b.getName())
+                && a.getType().equals(b.getType())
+                && a.getAtk() == b.getAtk()
+                && a.getDef() == b.getDef()
+                && a.getDescription().equals(b.getDescription())
+                && a.getImageUrl().equals(b.getImageUrl());
+    }
+
+    private static Duration elapsed(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /** Resumen de una sincronización. */
+    public static final class Result {
+        private final Mode mode;
+        private final DatabaseVersion version;
+        private final int fetched;
+        private final int added;
+        private final int updated;
+        private final Duration duration;
+
+        Result(Mode mode, DatabaseVersion version, int fetched, int added, int updated, Duration duration) {
+            this.mode = mode;
+            this.version = version;
+            this.fetched = fetched;
+            this.added = added;
+            this.updated = updated;
+            this.duration = duration;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public DatabaseVersion getVersion() {
+            return version;
+        }
+
+        /** Cartas recibidas de la API (en un delta, incluidas las que no cambiaron). */
+        public int getFetched() {
+            return fetched;
+        }
+
+        /** Cartas que no estaban en el catálogo local (todas, en una descarga completa). */
+        public int getAdded() {
+            return added;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            return mode + " " + version + ": " + fetched + " recibidas, " + added + " nuevas, " + updated
+                    + " modificadas en " + duration.toMillis() + " ms";
+        }
+    }
+}
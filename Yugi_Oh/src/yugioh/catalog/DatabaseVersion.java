@@ -0,0 +1,49 @@
+package yugioh.catalog;
+
+import java.util.Objects;
+
+/**
+ * Versión de la base de datos de YGOProDeck tal como la reporta {@code checkDBVer.php}.
+ */
+public final class DatabaseVersion {
+
+    public static final DatabaseVersion UNKNOWN = new DatabaseVersion("", "");
+
+    private final String version;
+    private final String lastUpdate;
+
+    public DatabaseVersion(String version, String lastUpdate) {
+        this.version = Objects.requireNonNull(version);
+        this.lastUpdate = Objects.requireNonNull(lastUpdate);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getLastUpdate() {
+        return lastUpdate;
+    }
+
+    public boolean isKnown() {
+        return !version.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return version + " (" + lastUpdate + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DatabaseVersion)) return false;
+        DatabaseVersion that = (DatabaseVersion) o;
+        return version.equals(that.version) && lastUpdate.equals(that.lastUpdate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, lastUpdate);
+    }
+}
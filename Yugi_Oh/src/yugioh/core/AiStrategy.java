@@ -0,0 +1,18 @@
+package yugioh.core;
+
+import yugioh.model.CardSelection;
+
+/**
+ * Decide la carta y la posición de la IA en cada ronda.
+ */
+public interface AiStrategy {
+
+    /**
+     * @param duel            duelo en curso; la estrategia solo debe leer su estado
+     * @param playerSelection selección ya comprometida por el jugador cuando él abre
+     *                        la ronda, o {@code null} si la IA elige primero
+     * @param random          generador del duelo, para que las partidas sean reproducibles
+     * @return la selección de la IA, o {@code null} si no le quedan cartas
+     */
+    CardSelection choose(Duel duel, CardSelection playerSelection, DuelRandom random);
+}
@@ -0,0 +1,45 @@
+package yugioh.core;
+
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.util.List;
+
+/**
+ * Implementación vacía de {@link BattleListener} para quien solo necesita
+ * algunos eventos (simulaciones, benchmarks, servidores).
+ */
+public abstract class BattleAdapter implements BattleListener {
+
+    @Override
+    public void onDuelStarted(String startingPlayer) {
+    }
+
+    @Override
+    public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+    }
+
+    @Override
+    public void onScoreChanged(int playerScore, int aiScore) {
+    }
+
+    @Override
+    public void onDuelEnded(String winner) {
+    }
+
+    @Override
+    public void onError(String message, Throwable throwable) {
+    }
+
+    @Override
+    public void onReplacementRequested(boolean playerSide) {
+    }
+
+    @Override
+    public void onCardsRemoved(List<Card> playerRemoved, List<Card> aiRemoved) {
+    }
+
+    @Override
+    public void onAiSelectedFirst(CardSelection aiSelection) {
+    }
+}
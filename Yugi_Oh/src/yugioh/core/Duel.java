@@ -1,5 +1,8 @@
 package yugioh.core;
 
+import yugioh.metrics.Counter;
+import yugioh.metrics.LatencyHistogram;
+import yugioh.metrics.MetricsRegistry;
 import yugioh.model.Card;
 import yugioh.model.CardPosition;
 import yugioh.model.CardSelection;
@@ -8,14 +11,23 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Duel {
 
+    // una ronda dura lo que dos System.nanoTime() en algunas máquinas, así que se mide
+    // una muestra aleatoria; los percentiles no cambian y el simulador apenas lo nota
+    private static final int ROUND_SAMPLE_MASK = 15;
+    private static final Counter ROUNDS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_duel_rounds_total", "Rondas resueltas");
+    private static final LatencyHistogram ROUND_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_duel_round_seconds", "Resolución de una ronda, incluidos los listeners (muestreada)");
+
     private final List<Card> playerDeck;
     private final List<Card> aiDeck;
     private final BattleListener listener;
-    private final Random random = new Random();
+    private final DuelRandom random;
+    private final AiStrategy aiStrategy;
 
     private final List<Card> playerAvailable;
     private final List<Card> aiAvailable;
@@ -33,6 +45,16 @@ public class Duel {
     private CardSelection pendingAiSelection;
 
     public Duel(List<Card> playerDeck, List<Card> aiDeck, BattleListener listener) {
+        this(playerDeck, aiDeck, listener, DuelRandom.fromEntropy());
+    }
+
+    public Duel(List<Card> playerDeck, List<Card> aiDeck, BattleListener listener, DuelRandom random) {
+        this(playerDeck, aiDeck, listener, random, GreedyAiStrategy.INSTANCE);
+    }
+
+    public Duel(List<Card> playerDeck, List<Card> aiDeck, BattleListener listener, DuelRandom random, AiStrategy aiStrategy) {
+        this.random = Objects.requireNonNull(random);
+        this.aiStrategy = Objects.requireNonNull(aiStrategy);
         this.playerDeck = new ArrayList<>(Objects.requireNonNull(playerDeck));
         this.aiDeck = new ArrayList<>(Objects.requireNonNull(aiDeck));
         this.listener = Objects.requireNonNull(listener);
@@ -73,6 +95,18 @@ public class Duel {
         return aiScore;
     }
 
+    public boolean isPlayerTurn() {
+        return playerTurn;
+    }
+
+    public List<Card> getPlayerDeck() {
+        return Collections.unmodifiableList(playerDeck);
+    }
+
+    public List<Card> getAiDeck() {
+        return Collections.unmodifiableList(aiDeck);
+    }
+
     public List<Card> getPlayerAvailable() {
         return Collections.unmodifiableList(playerAvailable);
     }
@@ -101,6 +135,100 @@ public class Duel {
         return aiLivesRemaining;
     }
 
+    /**
+     * Captura el estado de la partida y del generador. Requiere mazos de hasta 64
+     * cartas, porque la disponibilidad se guarda en una máscara por mano.
+     */
+    public synchronized DuelState snapshot() {
+        return new DuelState(
+                availableMask(playerDeck, playerAvailable),
+                availableMask(aiDeck, aiAvailable),
+                playerScore, aiScore, playerLivesRemaining, aiLivesRemaining,
+                playerTurn, active,
+                pendingCode(pendingPlayerSelection, playerDeck),
+                pendingCode(pendingAiSelection, aiDeck),
+                random.getState());
+    }
+
+    /**
+     * Vuelve al estado capturado por {@link #snapshot()} en este duelo o en otro con
+     * los mismos mazos. No notifica al listener ni consulta a la IA.
+     */
+    public synchronized void restore(DuelState state) {
+        if ((state.getPlayerMask() & ~fullMask(playerDeck)) != 0 || (state.getAiMask() & ~fullMask(aiDeck)) != 0
+                || state.getPendingPlayerIndex() >= playerDeck.size() || state.getPendingAiIndex() >= aiDeck.size()) {
+            throw new IllegalArgumentException("La instantánea no corresponde a los mazos de este duelo");
+        }
+        restoreAvailable(playerDeck, playerAvailable, state.getPlayerMask());
+        restoreAvailable(aiDeck, aiAvailable, state.getAiMask());
+        this.playerScore = state.getPlayerScore();
+        this.aiScore = state.getAiScore();
+        this.playerLivesRemaining = state.getPlayerLives();
+        this.aiLivesRemaining = state.getAiLives();
+        this.playerTurn = state.isPlayerTurn();
+        this.active = state.isActive();
+        this.pendingPlayerSelection = pendingSelection(playerDeck, state.getPendingPlayerIndex(), state.getPendingPlayerPosition());
+        this.pendingAiSelection = pendingSelection(aiDeck, state.getPendingAiIndex(), state.getPendingAiPosition());
+        random.setState(state.getRandomState());
+    }
+
+    /**
+     * Copia independiente del duelo en su estado actual, con su propio generador,
+     * la misma IA y otro listener. Las ramas no se afectan entre sí.
+     */
+    public synchronized Duel fork(BattleListener listener) {
+        Duel copy = new Duel(playerDeck, aiDeck, listener, new DuelRandom(random.getSeed()), aiStrategy);
+        copy.restore(snapshot());
+        return copy;
+    }
+
+    private static long availableMask(List<Card> deck, List<Card> available) {
+        if (deck.size() > Long.SIZE) {
+            throw new IllegalStateException("La instantánea admite mazos de hasta " + Long.SIZE + " cartas");
+        }
+        long mask = 0;
+        // las disponibles son una subsecuencia del mazo en orden (solo se retiran cartas),
+        // así que con cartas repetidas cada una se asocia a su copia y no a la primera
+        int i = 0;
+        for (Card card : available) {
+            while (i < deck.size() && !deck.get(i).equals(card)) {
+                i++;
+            }
+            if (i == deck.size()) {
+                throw new IllegalStateException("Las cartas disponibles no siguen el orden del mazo");
+            }
+            mask |= 1L << i++;
+        }
+        return mask;
+    }
+
+    private static long fullMask(List<Card> deck) {
+        return deck.size() >= Long.SIZE ? -1L : (1L << deck.size()) - 1;
+    }
+
+    private static void restoreAvailable(List<Card> deck, List<Card> available, long mask) {
+        available.clear();
+        for (int i = 0; i < deck.size(); i++) {
+            if ((mask & (1L << i)) != 0) {
+                available.add(deck.get(i));
+            }
+        }
+    }
+
+    private static int pendingCode(CardSelection selection, List<Card> deck) {
+        if (selection == null) {
+            return DuelState.selection(-1, 0);
+        }
+        return DuelState.selection(deck.indexOf(selection.getCard()), kernelPosition(selection.getPosition()));
+    }
+
+    private static CardSelection pendingSelection(List<Card> deck, int index, int position) {
+        if (index < 0) {
+            return null;
+        }
+        return new CardSelection(deck.get(index), position == DuelKernel.ATTACK ? CardPosition.ATTACK : CardPosition.DEFENSE);
+    }
+
     public synchronized void playRound(CardSelection playerSelection) {
         // legacy path: not used. New flow uses setPlayerSelection + resolvePendingRound
         setPlayerSelection(playerSelection);
@@ -124,14 +252,12 @@ public class Duel {
         
         // Si es turno del jugador, la IA responde automáticamente
         if (playerTurn) {
-            // Elegir carta de la IA al azar como respuesta
-            Card aiCard = chooseAiCard();
-            if (aiCard == null) {
+            CardSelection aiSelection = chooseAiSelection(playerSelection);
+            if (aiSelection == null) {
                 listener.onError("La IA no tiene cartas disponibles", null);
                 return false;
             }
-            CardPosition aiPosition = random.nextBoolean() ? CardPosition.ATTACK : CardPosition.DEFENSE;
-            this.pendingAiSelection = new CardSelection(aiCard, aiPosition);
+            this.pendingAiSelection = aiSelection;
         }
         // Si es turno de la IA, ya tiene su selección pendiente, solo se completa el par
         
@@ -146,79 +272,50 @@ public class Duel {
         return pendingAiSelection;
     }
 
-    
+    /**
+     * Resuelve la ronda con las dos selecciones pendientes. Cuenta solo las rondas
+     * resueltas y mide una de cada {@code ROUND_SAMPLE_MASK + 1} en
+     * {@code yugioh_duel_round_seconds}.
+     */
     public synchronized void resolvePendingRound() {
         if (!active) return;
         if (pendingPlayerSelection == null || pendingAiSelection == null) {
             listener.onError("No hay una selección pendiente", null);
             return;
         }
+        ROUNDS.increment();
+        if ((ThreadLocalRandom.current().nextInt() & ROUND_SAMPLE_MASK) != 0) {
+            resolveRound();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            resolveRound();
+        } finally {
+            ROUND_TIME.recordSince(start);
+        }
+    }
 
+    private void resolveRound() {
         Card playerCard = pendingPlayerSelection.getCard();
         Card aiCard = pendingAiSelection.getCard();
-        CardPosition playerPosition = pendingPlayerSelection.getPosition();
-        CardPosition aiPosition = pendingAiSelection.getPosition();
 
-        String roundWinner = "Empate";
-        boolean playerWins = false;
-        
-        // Aplicar lógica según los requisitos del laboratorio:
+        // Reglas del laboratorio (ver DuelKernel.resolve):
         // Si ambos en ataque → gana el mayor ATK
         // Si uno en ataque y otro en defensa → ATK del atacante vs DEF del defensor
-        
-        if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.ATTACK) {
-            // Ambos en ataque → comparar ATK vs ATK
-            if (playerCard.getAtk() > aiCard.getAtk()) {
-                playerWins = true;
-            } else if (playerCard.getAtk() < aiCard.getAtk()) {
-                playerWins = false;
-            } else {
-                // Empate en ATK → nadie pierde vida
-                roundWinner = "Empate";
-                playerWins = false; // Para no procesar ganador
-            }
-        } else if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.DEFENSE) {
-            // Jugador ataca, IA defiende → ATK jugador vs DEF IA
-            playerWins = playerCard.getAtk() > aiCard.getDef();
-        } else if (playerPosition == CardPosition.DEFENSE && aiPosition == CardPosition.ATTACK) {
-            // IA ataca, jugador defiende → ATK IA vs DEF jugador
-            playerWins = aiCard.getAtk() <= playerCard.getDef();
-        } else {
-            // Ambos en defensa → empate, nadie pierde vida
-            roundWinner = "Empate (Ambos Defendiendo)";
-            playerWins = false; // Para no procesar ganador
-        }
+        RoundOutcome outcome = RoundOutcome.fromCode(DuelKernel.resolve(
+                playerCard.getAtk(), playerCard.getDef(), kernelPosition(pendingPlayerSelection.getPosition()),
+                aiCard.getAtk(), aiCard.getDef(), kernelPosition(pendingAiSelection.getPosition())));
 
         // Actualizar vidas y puntuación
-        if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.ATTACK && 
-            playerCard.getAtk() != aiCard.getAtk()) {
-            // Solo hay ganador/perdedor si no es empate
-            if (playerWins) {
-                aiLivesRemaining--;
-                playerScore++;
-                roundWinner = "Jugador";
-            } else {
-                playerLivesRemaining--;
-                aiScore++;
-                roundWinner = "IA";
-            }
-        } else if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.DEFENSE) {
-            if (playerWins) {
-                aiLivesRemaining--;
-                playerScore++;
-                roundWinner = "Jugador";
-            } else {
-                roundWinner = "IA (Defensa Exitosa)";
-            }
-        } else if (playerPosition == CardPosition.DEFENSE && aiPosition == CardPosition.ATTACK) {
-            if (playerWins) {
-                roundWinner = "Jugador (Defensa Exitosa)";
-            } else {
-                playerLivesRemaining--;
-                aiScore++;
-                roundWinner = "IA";
-            }
+        if (outcome.playerScores()) {
+            aiLivesRemaining--;
+            playerScore++;
+        } else if (outcome.aiScores()) {
+            playerLivesRemaining--;
+            aiScore++;
         }
+        String roundWinner = outcome.getLabel();
 
         // Asegurar que las vidas no sean negativas
         playerLivesRemaining = Math.max(0, playerLivesRemaining);
@@ -252,6 +349,10 @@ public class Duel {
         }
     }
 
+    private static int kernelPosition(CardPosition position) {
+        return position == CardPosition.ATTACK ? DuelKernel.ATTACK : DuelKernel.DEFENSE;
+    }
+
     private void endDuel() {
         this.active = false;
         String winner;
@@ -266,30 +367,21 @@ public class Duel {
         listener.onDuelEnded(winner);
     }
 
-    private Card chooseAiCard() {
-        if (aiAvailable.isEmpty()) {
+    private CardSelection chooseAiSelection(CardSelection playerSelection) {
+        CardSelection selection = aiStrategy.choose(this, playerSelection, random);
+        if (selection == null || selection.getCard() == null || !aiAvailable.contains(selection.getCard())) {
             return null;
         }
-        // choose the available card with highest ATK
-        Card best = aiAvailable.get(0);
-        for (Card c : aiAvailable) {
-            if (c.getAtk() > best.getAtk()) {
-                best = c;
-            }
-        }
-        return best;
+        return selection;
     }
 
     private void selectAiCardFirst() {
         // IA selecciona primero cuando es su turno
-        Card aiCard = chooseAiCard();
-        if (aiCard != null) {
-            CardPosition aiPosition = random.nextBoolean() ? CardPosition.ATTACK : CardPosition.DEFENSE;
-            this.pendingAiSelection = new CardSelection(aiCard, aiPosition);
+        CardSelection aiSelection = chooseAiSelection(null);
+        if (aiSelection != null) {
+            this.pendingAiSelection = aiSelection;
             // Notificar que la IA ya seleccionó y ahora es turno del jugador para responder
             listener.onAiSelectedFirst(pendingAiSelection);
         }
     }
-
-    
 }
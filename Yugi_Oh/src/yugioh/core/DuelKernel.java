@@ -0,0 +1,162 @@
+package yugioh.core;
+
+/**
+ * Núcleo de resolución de duelos sobre arreglos primitivos, pensado para
+ * simulaciones masivas y búsqueda de la IA. Las manos son arreglos de ATK/DEF
+ * y la disponibilidad es una máscara de bits (bit {@code i} = carta {@code i}
+ * sin usar). Los resultados se codifican con {@link RoundOutcome#code()}.
+ *
+ * <p>Una instancia se reutiliza con {@link #load} y no reserva memoria por
+ * ronda. No es segura entre hilos.
+ */
+public final class DuelKernel {
+
+    public static final int ATTACK = 0;
+    public static final int DEFENSE = 1;
+
+    private static final int MAX_HAND = 31;
+    private static final int WINNING_SCORE = 2;
+    private static final int STARTING_LIVES = 3;
+
+    private static final int DRAW = RoundOutcome.DRAW.code();
+    private static final int DRAW_BOTH_DEFENDING = RoundOutcome.DRAW_BOTH_DEFENDING.code();
+    private static final int PLAYER_WINS = RoundOutcome.PLAYER_WINS.code();
+    private static final int AI_WINS = RoundOutcome.AI_WINS.code();
+    private static final int PLAYER_DEFENSE_HOLDS = RoundOutcome.PLAYER_DEFENSE_HOLDS.code();
+    private static final int AI_DEFENSE_HOLDS = RoundOutcome.AI_DEFENSE_HOLDS.code();
+
+    private int[] playerAtk;
+    private int[] playerDef;
+    private int[] aiAtk;
+    private int[] aiDef;
+
+    private int playerMask;
+    private int aiMask;
+    private int playerScore;
+    private int aiScore;
+    private int playerLives;
+    private int aiLives;
+    private boolean playerTurn;
+
+    /**
+     * Resuelve una ronda aislada. Posiciones: {@link #ATTACK} o {@link #DEFENSE}.
+     */
+    public static int resolve(int playerAtk, int playerDef, int playerPosition,
+                              int aiAtk, int aiDef, int aiPosition) {
+        if (playerPosition == ATTACK) {
+            if (aiPosition == ATTACK) {
+                if (playerAtk > aiAtk) return PLAYER_WINS;
+                if (playerAtk < aiAtk) return AI_WINS;
+                return DRAW;
+            }
+            return playerAtk > aiDef ? PLAYER_WINS : AI_DEFENSE_HOLDS;
+        }
+        if (aiPosition == ATTACK) {
+            return aiAtk <= playerDef ? PLAYER_DEFENSE_HOLDS : AI_WINS;
+        }
+        return DRAW_BOTH_DEFENDING;
+    }
+
+    /**
+     * Índice de la carta disponible con mayor ATK (la primera en caso de empate),
+     * o -1 si la máscara está vacía. Es el criterio de la IA de {@link Duel}.
+     */
+    public static int highestAtk(int[] atk, int mask) {
+        int best = -1;
+        for (int m = mask; m != 0; m &= m - 1) {
+            int i = Integer.numberOfTrailingZeros(m);
+            if (best < 0 || atk[i] > atk[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Carga unas manos nuevas y reinicia marcador y vidas. Los arreglos no se
+     * copian: el llamador no debe modificarlos mientras dure el duelo.
+     */
+    public void load(int[] playerAtk, int[] playerDef, int[] aiAtk, int[] aiDef, boolean playerStarts) {
+        if (playerAtk.length > MAX_HAND || aiAtk.length > MAX_HAND
+                || playerDef.length != playerAtk.length || aiDef.length != aiAtk.length) {
+            throw new IllegalArgumentException("Manos inválidas para el núcleo de duelo");
+        }
+        this.playerAtk = playerAtk;
+        this.playerDef = playerDef;
+        this.aiAtk = aiAtk;
+        this.aiDef = aiDef;
+        this.playerMask = (1 << playerAtk.length) - 1;
+        this.aiMask = (1 << aiAtk.length) - 1;
+        this.playerScore = 0;
+        this.aiScore = 0;
+        this.playerLives = STARTING_LIVES;
+        this.aiLives = STARTING_LIVES;
+        this.playerTurn = playerStarts;
+    }
+
+    /**
+     * Juega una ronda con las cartas indicadas, actualiza marcador, vidas,
+     * disponibilidad y turno, y devuelve el código del resultado.
+     */
+    public int playRound(int playerIndex, int playerPosition, int aiIndex, int aiPosition) {
+        if ((playerMask & (1 << playerIndex)) == 0 || (aiMask & (1 << aiIndex)) == 0) {
+            throw new IllegalArgumentException("Carta no disponible");
+        }
+        int outcome = resolve(playerAtk[playerIndex], playerDef[playerIndex], playerPosition,
+                aiAtk[aiIndex], aiDef[aiIndex], aiPosition);
+        if (outcome == PLAYER_WINS) {
+            playerScore++;
+            aiLives = Math.max(0, aiLives - 1);
+        } else if (outcome == AI_WINS) {
+            aiScore++;
+            playerLives = Math.max(0, playerLives - 1);
+        }
+        playerMask &= ~(1 << playerIndex);
+        aiMask &= ~(1 << aiIndex);
+        if (!isFinished()) {
+            playerTurn = !playerTurn;
+        }
+        return outcome;
+    }
+
+    public boolean isFinished() {
+        return playerScore >= WINNING_SCORE || aiScore >= WINNING_SCORE || playerMask == 0 || aiMask == 0;
+    }
+
+    /** 1 si gana el jugador, -1 si gana la IA y 0 en empate (según el marcador actual). */
+    public int winner() {
+        return Integer.compare(playerScore, aiScore);
+    }
+
+    public int aiChoice() {
+        return highestAtk(aiAtk, aiMask);
+    }
+
+    public int getPlayerMask() {
+        return playerMask;
+    }
+
+    public int getAiMask() {
+        return aiMask;
+    }
+
+    public int getPlayerScore() {
+        return playerScore;
+    }
+
+    public int getAiScore() {
+        return aiScore;
+    }
+
+    public int getPlayerLives() {
+        return playerLives;
+    }
+
+    public int getAiLives() {
+        return aiLives;
+    }
+
+    public boolean isPlayerTurn() {
+        return playerTurn;
+    }
+}
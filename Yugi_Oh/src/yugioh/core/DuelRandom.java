@@ -0,0 +1,68 @@
+package yugioh.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generador SplitMix64 para los sorteos del duelo. Es determinista a partir de
+ * la semilla y permite derivar un generador independiente por duelo
+ * ({@link #forStream}), de modo que una simulación en paralelo da el mismo
+ * resultado sin importar qué hilo ejecute cada duelo. No es seguro entre hilos.
+ */
+public final class DuelRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+    private long state;
+
+    public DuelRandom(long seed) {
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    public static DuelRandom fromEntropy() {
+        return new DuelRandom(ThreadLocalRandom.current().nextLong());
+    }
+
+    /** Generador del duelo número {@code index} de una serie con semilla {@code seed}. */
+    public static DuelRandom forStream(long seed, long index) {
+        return new DuelRandom(mix(seed + index * GOLDEN_GAMMA));
+    }
+
+    /** Semilla de creación: {@code new DuelRandom(getSeed())} repite la misma secuencia. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Estado actual; junto con {@link #setState} permite bifurcar la secuencia. */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound debe ser positivo");
+        }
+        // Lemire: multiplicación de 32x32 bits, el sesgo es despreciable para manos pequeñas
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,206 @@
+package yugioh.core;
+
+/**
+ * Instantánea inmutable de un {@link Duel}: todo lo que cambia durante la partida,
+ * sin las cartas. La disponibilidad es una máscara por mano (bit {@code i} =
+ * carta {@code i} del mazo sin usar) y las selecciones pendientes se guardan como
+ * posición en el mazo y {@link DuelKernel#ATTACK}/{@link DuelKernel#DEFENSE}, así
+ * que copiarla cuesta un objeto y restaurarla solo tiene sentido sobre un duelo
+ * con los mismos mazos. Incluye el estado del {@link DuelRandom}, de modo que un
+ * duelo restaurado repite exactamente los sorteos que venían a continuación.
+ *
+ * <p>Para manos de hasta {@value #MAX_PACKED_HAND} cartas la parte de juego cabe
+ * en un {@code long} ({@link #pack()}), útil como clave en tablas de búsqueda.
+ */
+public final class DuelState {
+
+    public static final int MAX_PACKED_HAND = 16;
+
+    private static final int NONE = -1;
+
+    // disposición de pack(): máscaras 16+16, marcador 3+3, vidas 2+2, turno, activo, pendientes 6+6
+    private static final int AI_MASK_SHIFT = 16;
+    private static final int PLAYER_SCORE_SHIFT = 32;
+    private static final int AI_SCORE_SHIFT = 35;
+    private static final int PLAYER_LIVES_SHIFT = 38;
+    private static final int AI_LIVES_SHIFT = 40;
+    private static final int TURN_SHIFT = 42;
+    private static final int ACTIVE_SHIFT = 43;
+    private static final int PENDING_PLAYER_SHIFT = 44;
+    private static final int PENDING_AI_SHIFT = 50;
+
+    private final long playerMask;
+    private final long aiMask;
+    private final int playerScore;
+    private final int aiScore;
+    private final int playerLives;
+    private final int aiLives;
+    private final boolean playerTurn;
+    private final boolean active;
+    private final int pendingPlayer;
+    private final int pendingAi;
+    private final long randomState;
+
+    /**
+     * @param pendingPlayer selección pendiente del jugador como {@code índice * 2 + posición},
+     *                      o -1 si no hay
+     * @param pendingAi     lo mismo para la IA
+     */
+    DuelState(long playerMask, long aiMask, int playerScore, int aiScore, int playerLives, int aiLives,
+              boolean playerTurn, boolean active, int pendingPlayer, int pendingAi, long randomState) {
+        if (playerScore < 0 || aiScore < 0 || playerLives < 0 || aiLives < 0
+                || pendingPlayer < NONE || pendingAi < NONE) {
+            throw new IllegalArgumentException("Estado de duelo inválido");
+        }
+        this.playerMask = playerMask;
+        this.aiMask = aiMask;
+        this.playerScore = playerScore;
+        this.aiScore = aiScore;
+        this.playerLives = playerLives;
+        this.aiLives = aiLives;
+        this.playerTurn = playerTurn;
+        this.active = active;
+        this.pendingPlayer = pendingPlayer;
+        this.pendingAi = pendingAi;
+        this.randomState = randomState;
+    }
+
+    /** Codifica una selección pendiente para el constructor; -1 si {@code index} es negativo. */
+    static int selection(int index, int position) {
+        return index < 0 ? NONE : index * 2 + position;
+    }
+
+    public long getPlayerMask() {
+        return playerMask;
+    }
+
+    public long getAiMask() {
+        return aiMask;
+    }
+
+    public int getPlayerScore() {
+        return playerScore;
+    }
+
+    public int getAiScore() {
+        return aiScore;
+    }
+
+    public int getPlayerLives() {
+        return playerLives;
+    }
+
+    public int getAiLives() {
+        return aiLives;
+    }
+
+    public boolean isPlayerTurn() {
+        return playerTurn;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /** Índice en el mazo de la selección pendiente del jugador, o -1. */
+    public int getPendingPlayerIndex() {
+        return pendingPlayer < 0 ? NONE : pendingPlayer >> 1;
+    }
+
+    public int getPendingPlayerPosition() {
+        return pendingPlayer < 0 ? NONE : pendingPlayer & 1;
+    }
+
+    /** Índice en el mazo de la selección pendiente de la IA, o -1. */
+    public int getPendingAiIndex() {
+        return pendingAi < 0 ? NONE : pendingAi >> 1;
+    }
+
+    public int getPendingAiPosition() {
+        return pendingAi < 0 ? NONE : pendingAi & 1;
+    }
+
+    public long getRandomState() {
+        return randomState;
+    }
+
+    /** Copia con otro estado del generador, para explorar sorteos distintos desde el mismo punto. */
+    public DuelState withRandomState(long randomState) {
+        return new DuelState(playerMask, aiMask, playerScore, aiScore, playerLives, aiLives,
+                playerTurn, active, pendingPlayer, pendingAi, randomState);
+    }
+
+    /** Si la parte de juego cabe en {@link #pack()}. */
+    public boolean isPackable() {
+        return (playerMask >>> MAX_PACKED_HAND) == 0 && (aiMask >>> MAX_PACKED_HAND) == 0
+                && playerScore < 8 && aiScore < 8 && playerLives < 4 && aiLives < 4
+                && pendingPlayer < 2 * MAX_PACKED_HAND && pendingAi < 2 * MAX_PACKED_HAND;
+    }
+
+    /**
+     * Parte de juego en 56 bits, sin el estado del generador.
+     *
+     * @throws IllegalStateException si no {@link #isPackable()}
+     */
+    public long pack() {
+        if (!isPackable()) {
+            throw new IllegalStateException("El estado no cabe en un long: manos de más de "
+                    + MAX_PACKED_HAND + " cartas o marcador fuera de rango");
+        }
+        return playerMask
+                | aiMask << AI_MASK_SHIFT
+                | (long) playerScore << PLAYER_SCORE_SHIFT
+                | (long) aiScore << AI_SCORE_SHIFT
+                | (long) playerLives << PLAYER_LIVES_SHIFT
+                | (long) aiLives << AI_LIVES_SHIFT
+                | (playerTurn ? 1L : 0L) << TURN_SHIFT
+                | (active ? 1L : 0L) << ACTIVE_SHIFT
+                | (long) (pendingPlayer + 1) << PENDING_PLAYER_SHIFT
+                | (long) (pendingAi + 1) << PENDING_AI_SHIFT;
+    }
+
+    /** Inversa de {@link #pack()}. */
+    public static DuelState unpack(long packed, long randomState) {
+        return new DuelState(
+                packed & 0xffff,
+                (packed >>> AI_MASK_SHIFT) & 0xffff,
+                (int) (packed >>> PLAYER_SCORE_SHIFT) & 7,
+                (int) (packed >>> AI_SCORE_SHIFT) & 7,
+                (int) (packed >>> PLAYER_LIVES_SHIFT) & 3,
+                (int) (packed >>> AI_LIVES_SHIFT) & 3,
+                ((packed >>> TURN_SHIFT) & 1) != 0,
+                ((packed >>> ACTIVE_SHIFT) & 1) != 0,
+                (int) (packed >>> PENDING_PLAYER_SHIFT & 0x3f) - 1,
+                (int) (packed >>> PENDING_AI_SHIFT & 0x3f) - 1,
+                randomState);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DuelState)) return false;
+        DuelState other = (DuelState) o;
+        return playerMask == other.playerMask && aiMask == other.aiMask
+                && playerScore == other.playerScore && aiScore == other.aiScore
+                && playerLives == other.playerLives && aiLives == other.aiLives
+                && playerTurn == other.playerTurn && active == other.active
+                && pendingPlayer == other.pendingPlayer && pendingAi == other.pendingAi
+                && randomState == other.randomState;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = playerMask * 31 + aiMask;
+        h = h * 31 + ((playerScore << 24) | (aiScore << 16) | (playerLives << 8) | aiLives);
+        h = h * 31 + ((pendingPlayer << 16) ^ pendingAi) + (playerTurn ? 2 : 0) + (active ? 1 : 0);
+        h = h * 31 + randomState;
+        return Long.hashCode(h);
+    }
+
+    @Override
+    public String toString() {
+        return "DuelState{jugador=" + Long.toBinaryString(playerMask) + ", ia=" + Long.toBinaryString(aiMask)
+                + ", marcador=" + playerScore + "-" + aiScore + ", vidas=" + playerLives + "-" + aiLives
+                + ", turno=" + (playerTurn ? "Jugador" : "IA") + (active ? "" : ", inactivo") + "}";
+    }
+}
@@ -0,0 +1,315 @@
+package yugioh.core;
+
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * IA de búsqueda: expectimax sobre las cartas restantes y ambas posiciones, con
+ * las reglas de {@link DuelKernel}. El jugador se modela como un rival que elige
+ * carta y posición al azar; la IA maximiza su probabilidad de ganar el duelo
+ * (empate = 0.5). Cuando el jugador abre la ronda, la IA responde conociendo su
+ * selección, igual que en el flujo de {@link Duel#setPlayerSelection}.
+ *
+ * <p>Las jugadas raíz se evalúan en paralelo en un {@link ForkJoinPool} con
+ * profundización iterativa por rondas, y la búsqueda se corta al agotar el
+ * presupuesto de tiempo; se juega la mejor jugada de la última profundidad
+ * completa. Los valores se guardan en una tabla de transposición indexada por
+ * máscaras de mano, marcador, turno y profundidad, que se reutiliza entre
+ * rondas del mismo duelo.
+ *
+ * <p>Una instancia debe atender un solo duelo a la vez.
+ */
+public final class ExpectimaxAiStrategy implements AiStrategy {
+
+    private static final int MAX_HAND = 16;
+    private static final int WINNING_SCORE = 2;
+    private static final double NO_VALUE = -1;
+
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+
+    private Map<Long, Double> table = new ConcurrentHashMap<>();
+    private List<Card> tablePlayerDeck = List.of();
+    private List<Card> tableAiDeck = List.of();
+
+    public ExpectimaxAiStrategy(Duration budget) {
+        this(budget, ForkJoinPool.commonPool());
+    }
+
+    public ExpectimaxAiStrategy(Duration budget, ForkJoinPool pool) {
+        this.budgetNanos = budget.toNanos();
+        this.pool = pool;
+    }
+
+    @Override
+    public CardSelection choose(Duel duel, CardSelection playerSelection, DuelRandom random) {
+        long deadline = System.nanoTime() + budgetNanos;
+        List<Card> playerDeck = duel.getPlayerDeck();
+        List<Card> aiDeck = duel.getAiDeck();
+        int aiMask = mask(aiDeck, duel.getAiAvailable());
+        if (aiMask == 0) {
+            return null;
+        }
+        if (playerDeck.size() > MAX_HAND || aiDeck.size() > MAX_HAND) {
+            return GreedyAiStrategy.INSTANCE.choose(duel, playerSelection, random);
+        }
+        if (!playerDeck.equals(tablePlayerDeck) || !aiDeck.equals(tableAiDeck)) {
+            // las máscaras son relativas a las manos: otro duelo invalida la tabla
+            table = new ConcurrentHashMap<>();
+            tablePlayerDeck = List.copyOf(playerDeck);
+            tableAiDeck = List.copyOf(aiDeck);
+        }
+
+        Search search = new Search(playerDeck, aiDeck, table, deadline);
+        int playerMask = mask(playerDeck, duel.getPlayerAvailable());
+        int playerIndex = -1;
+        int playerPosition = -1;
+        if (playerSelection != null) {
+            playerIndex = playerDeck.indexOf(playerSelection.getCard());
+            playerPosition = kernelPosition(playerSelection.getPosition());
+        }
+
+        List<RootMove> moves = new ArrayList<>();
+        for (int m = aiMask; m != 0; m &= m - 1) {
+            int index = Integer.numberOfTrailingZeros(m);
+            moves.add(new RootMove(index, DuelKernel.ATTACK));
+            moves.add(new RootMove(index, DuelKernel.DEFENSE));
+        }
+
+        RootMove best = null;
+        int maxDepth = Math.min(Integer.bitCount(playerMask), Integer.bitCount(aiMask));
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            RootSearch root = new RootSearch(search, moves, playerMask, aiMask,
+                    duel.getPlayerScore(), duel.getAiScore(), playerIndex, playerPosition, depth);
+            try {
+                pool.invoke(root);
+            } catch (SearchTimeout e) {
+                break;
+            }
+            RootMove bestAtDepth = moves.get(0);
+            for (RootMove move : moves) {
+                if (move.value > bestAtDepth.value) {
+                    bestAtDepth = move;
+                }
+            }
+            best = bestAtDepth;
+        }
+        if (best == null) {
+            return GreedyAiStrategy.INSTANCE.choose(duel, playerSelection, random);
+        }
+        return new CardSelection(aiDeck.get(best.index),
+                best.position == DuelKernel.ATTACK ? CardPosition.ATTACK : CardPosition.DEFENSE);
+    }
+
+    private static int mask(List<Card> deck, List<Card> available) {
+        int mask = 0;
+        for (int i = 0; i < deck.size(); i++) {
+            if (available.contains(deck.get(i))) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static int kernelPosition(CardPosition position) {
+        return position == CardPosition.ATTACK ? DuelKernel.ATTACK : DuelKernel.DEFENSE;
+    }
+
+    private static final class RootMove {
+        final int index;
+        final int position;
+        volatile double value = NO_VALUE;
+
+        RootMove(int index, int position) {
+            this.index = index;
+            this.position = position;
+        }
+    }
+
+    private static final class SearchTimeout extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SearchTimeout() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class RootSearch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final List<RootMove> moves;
+        private final int playerMask;
+        private final int aiMask;
+        private final int playerScore;
+        private final int aiScore;
+        private final int playerIndex;
+        private final int playerPosition;
+        private final int depth;
+
+        RootSearch(Search search, List<RootMove> moves, int playerMask, int aiMask, int playerScore, int aiScore,
+                   int playerIndex, int playerPosition, int depth) {
+            this.search = search;
+            this.moves = moves;
+            this.playerMask = playerMask;
+            this.aiMask = aiMask;
+            this.playerScore = playerScore;
+            this.aiScore = aiScore;
+            this.playerIndex = playerIndex;
+            this.playerPosition = playerPosition;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            List<RecursiveAction> tasks = new ArrayList<>(moves.size());
+            for (RootMove move : moves) {
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        move.value = evaluate(move);
+                    }
+                });
+            }
+            invokeAll(tasks);
+        }
+
+        private double evaluate(RootMove move) {
+            if (playerIndex >= 0) {
+                return search.round(playerMask, aiMask, playerScore, aiScore, true,
+                        playerIndex, playerPosition, move.index, move.position, depth);
+            }
+            // la IA abre la ronda: promedio sobre las respuestas posibles del jugador
+            double sum = 0;
+            int count = 0;
+            for (int m = playerMask; m != 0; m &= m - 1) {
+                int p = Integer.numberOfTrailingZeros(m);
+                for (int pp = DuelKernel.ATTACK; pp <= DuelKernel.DEFENSE; pp++) {
+                    sum += search.round(playerMask, aiMask, playerScore, aiScore, false,
+                            p, pp, move.index, move.position, depth);
+                    count++;
+                }
+            }
+            return sum / count;
+        }
+    }
+
+    private static final class Search {
+        private final int[] playerAtk;
+        private final int[] playerDef;
+        private final int[] aiAtk;
+        private final int[] aiDef;
+        private final Map<Long, Double> table;
+        private final long deadline;
+
+        Search(List<Card> playerDeck, List<Card> aiDeck, Map<Long, Double> table, long deadline) {
+            this.playerAtk = new int[playerDeck.size()];
+            this.playerDef = new int[playerDeck.size()];
+            this.aiAtk = new int[aiDeck.size()];
+            this.aiDef = new int[aiDeck.size()];
+            for (int i = 0; i < playerDeck.size(); i++) {
+                playerAtk[i] = playerDeck.get(i).getAtk();
+                playerDef[i] = playerDeck.get(i).getDef();
+            }
+            for (int i = 0; i < aiDeck.size(); i++) {
+                aiAtk[i] = aiDeck.get(i).getAtk();
+                aiDef[i] = aiDeck.get(i).getDef();
+            }
+            this.table = table;
+            this.deadline = deadline;
+        }
+
+        /** Juega una ronda concreta y devuelve el valor del estado resultante. */
+        double round(int playerMask, int aiMask, int playerScore, int aiScore, boolean playerTurn,
+                     int p, int pp, int a, int ap, int depth) {
+            int outcome = DuelKernel.resolve(playerAtk[p], playerDef[p], pp, aiAtk[a], aiDef[a], ap);
+            RoundOutcome result = RoundOutcome.fromCode(outcome);
+            return value(playerMask & ~(1 << p), aiMask & ~(1 << a),
+                    playerScore + (result.playerScores() ? 1 : 0),
+                    aiScore + (result.aiScores() ? 1 : 0),
+                    !playerTurn, depth - 1);
+        }
+
+        /** Probabilidad esperada de victoria de la IA desde este estado. */
+        double value(int playerMask, int aiMask, int playerScore, int aiScore, boolean playerTurn, int depth) {
+            if (playerScore >= WINNING_SCORE || aiScore >= WINNING_SCORE || playerMask == 0 || aiMask == 0) {
+                return Integer.signum(aiScore - playerScore) * 0.5 + 0.5;
+            }
+            if (depth == 0) {
+                // corte por profundidad: estimación según la ventaja en el marcador
+                return Math.max(0, Math.min(1, 0.5 + 0.25 * (aiScore - playerScore)));
+            }
+            if (System.nanoTime() > deadline) {
+                throw new SearchTimeout();
+            }
+            long key = key(playerMask, aiMask, playerScore, aiScore, playerTurn, depth);
+            Double cached = table.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            double result;
+            if (playerTurn) {
+                // el jugador elige al azar y la IA responde con la mejor opción
+                double sum = 0;
+                int count = 0;
+                for (int pm = playerMask; pm != 0; pm &= pm - 1) {
+                    int p = Integer.numberOfTrailingZeros(pm);
+                    for (int pp = DuelKernel.ATTACK; pp <= DuelKernel.DEFENSE; pp++) {
+                        double best = 0;
+                        for (int am = aiMask; am != 0; am &= am - 1) {
+                            int a = Integer.numberOfTrailingZeros(am);
+                            for (int ap = DuelKernel.ATTACK; ap <= DuelKernel.DEFENSE; ap++) {
+                                best = Math.max(best, round(playerMask, aiMask, playerScore, aiScore, true,
+                                        p, pp, a, ap, depth));
+                            }
+                        }
+                        sum += best;
+                        count++;
+                    }
+                }
+                result = sum / count;
+            } else {
+                // la IA abre: maximiza el promedio sobre las respuestas del jugador
+                double best = 0;
+                for (int am = aiMask; am != 0; am &= am - 1) {
+                    int a = Integer.numberOfTrailingZeros(am);
+                    for (int ap = DuelKernel.ATTACK; ap <= DuelKernel.DEFENSE; ap++) {
+                        double sum = 0;
+                        int count = 0;
+                        for (int pm = playerMask; pm != 0; pm &= pm - 1) {
+                            int p = Integer.numberOfTrailingZeros(pm);
+                            for (int pp = DuelKernel.ATTACK; pp <= DuelKernel.DEFENSE; pp++) {
+                                sum += round(playerMask, aiMask, playerScore, aiScore, false,
+                                        p, pp, a, ap, depth);
+                                count++;
+                            }
+                        }
+                        best = Math.max(best, sum / count);
+                    }
+                }
+                result = best;
+            }
+            table.put(key, result);
+            return result;
+        }
+
+        private static long key(int playerMask, int aiMask, int playerScore, int aiScore, boolean playerTurn, int depth) {
+            return (long) playerMask
+                    | (long) aiMask << 16
+                    | (long) playerScore << 32
+                    | (long) aiScore << 34
+                    | (playerTurn ? 1L : 0L) << 36
+                    | (long) depth << 37;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package yugioh.core;
+
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.util.List;
+
+/**
+ * IA original del laboratorio: juega la carta disponible con mayor ATK y decide
+ * la posición a cara o cruz.
+ */
+public final class GreedyAiStrategy implements AiStrategy {
+
+    public static final GreedyAiStrategy INSTANCE = new GreedyAiStrategy();
+
+    private GreedyAiStrategy() {
+    }
+
+    @Override
+    public CardSelection choose(Duel duel, CardSelection playerSelection, DuelRandom random) {
+        List<Card> available = duel.getAiAvailable();
+        if (available.isEmpty()) {
+            return null;
+        }
+        // choose the available card with highest ATK
+        Card best = available.get(0);
+        for (Card c : available) {
+            if (c.getAtk() > best.getAtk()) {
+                best = c;
+            }
+        }
+        CardPosition position = random.nextBoolean() ? CardPosition.ATTACK : CardPosition.DEFENSE;
+        return new CardSelection(best, position);
+    }
+}
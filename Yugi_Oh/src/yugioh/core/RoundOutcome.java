@@ -0,0 +1,48 @@
+package yugioh.core;
+
+/**
+ * Resultado de una ronda según las reglas del laboratorio. La etiqueta es el
+ * texto que {@link Duel} reporta en {@link BattleListener#onTurnResolved}.
+ */
+public enum RoundOutcome {
+    DRAW("Empate", false, false),
+    DRAW_BOTH_DEFENDING("Empate (Ambos Defendiendo)", false, false),
+    PLAYER_WINS("Jugador", true, false),
+    AI_WINS("IA", false, true),
+    PLAYER_DEFENSE_HOLDS("Jugador (Defensa Exitosa)", false, false),
+    AI_DEFENSE_HOLDS("IA (Defensa Exitosa)", false, false);
+
+    private static final RoundOutcome[] BY_CODE = values();
+
+    private final String label;
+    private final boolean playerScores;
+    private final boolean aiScores;
+
+    RoundOutcome(String label, boolean playerScores, boolean aiScores) {
+        this.label = label;
+        this.playerScores = playerScores;
+        this.aiScores = aiScores;
+    }
+
+    public static RoundOutcome fromCode(int code) {
+        return BY_CODE[code];
+    }
+
+    public int code() {
+        return ordinal();
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /** El jugador suma un punto y la IA pierde una vida. */
+    public boolean playerScores() {
+        return playerScores;
+    }
+
+    /** La IA suma un punto y el jugador pierde una vida. */
+    public boolean aiScores() {
+        return aiScores;
+    }
+}
@@ -0,0 +1,366 @@
+package yugioh.image;
+
+import yugioh.metrics.Counter;
+import yugioh.metrics.LatencyHistogram;
+import yugioh.metrics.MetricsRegistry;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Caché de imágenes de cartas en dos niveles: un LRU en memoria, acotado en
+ * bytes, con las imágenes ya escaladas, y un directorio en disco con los
+ * originales descargados, que se revalidan con ETag/Last-Modified una vez por
+ * ejecución. Las peticiones concurrentes de la misma imagen comparten una sola
+ * descarga.
+ *
+ * <p>Métricas: aciertos y fallos del nivel de memoria, de dónde sale cada
+ * original (disco, revalidado con 304 o descargado), la duración de las
+ * descargas por estado HTTP y los tiempos de decodificación y escalado.
+ */
+public final class ImageCache {
+
+    private static final Counter MEMORY_HITS = MetricsRegistry.DEFAULT.counter(
+            "yugioh_image_cache_total", "Tamaños pedidos a la caché de imágenes en memoria", "result", "hit");
+    private static final Counter MEMORY_MISSES = MetricsRegistry.DEFAULT.counter(
+            "yugioh_image_cache_total", "Tamaños pedidos a la caché de imágenes en memoria", "result", "miss");
+    private static final LatencyHistogram DECODE_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_image_decode_seconds", "Decodificación submuestreada de un original");
+    private static final LatencyHistogram SCALE_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_image_scale_seconds", "Escalado de una imagen decodificada a un tamaño");
+
+    private final Path directory;
+    private final long memoryBudgetBytes;
+    private final Executor executor;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final LinkedHashMap<Key, BufferedImage> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    private final Map<Key, CompletableFuture<BufferedImage>> scaling = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<byte[]>> downloads = new ConcurrentHashMap<>();
+    private final Set<String> revalidated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param directory carpeta para los originales; {@code null} desactiva el nivel de disco
+     */
+    public ImageCache(Path directory, long memoryBudgetBytes, Executor executor) {
+        this.directory = directory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".yugioh", "images");
+    }
+
+    /**
+     * Devuelve la imagen de la carta escalada a {@code width x height}. Si ya está
+     * en memoria el futuro se entrega completado.
+     */
+    public CompletableFuture<BufferedImage> get(int cardId, String url, int width, int height) {
+        Key key = new Key(cardId, width, height);
+        BufferedImage cached = memoryGet(key);
+        if (cached != null) {
+            MEMORY_HITS.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        return getAll(cardId, url, List.of(new Size(width, height))).thenApply(images -> images.get(0));
+    }
+
+    /**
+     * Devuelve la imagen de la carta en cada uno de los tamaños, en el mismo orden.
+     * Los que falten en memoria salen de una sola decodificación del original; los
+     * que otra petición ya está generando se esperan en lugar de repetirse.
+     */
+    public CompletableFuture<List<BufferedImage>> getAll(int cardId, String url, List<Size> sizes) {
+        List<CompletableFuture<BufferedImage>> results = new ArrayList<>(sizes.size());
+        Map<Key, CompletableFuture<BufferedImage>> owned = new LinkedHashMap<>();
+        for (Size size : sizes) {
+            Key key = new Key(cardId, size.width, size.height);
+            BufferedImage cached = memoryGet(key);
+            if (cached != null) {
+                MEMORY_HITS.increment();
+                results.add(CompletableFuture.completedFuture(cached));
+                continue;
+            }
+            MEMORY_MISSES.increment();
+            CompletableFuture<BufferedImage> pending = owned.get(key);
+            if (pending == null) {
+                CompletableFuture<BufferedImage> created = new CompletableFuture<>();
+                pending = scaling.putIfAbsent(key, created);
+                if (pending == null) {
+                    owned.put(key, created);
+                    pending = created;
+                }
+            }
+            results.add(pending);
+        }
+        if (!owned.isEmpty()) {
+            original(cardId, url).whenCompleteAsync((bytes, throwable) -> render(url, bytes, throwable, owned), executor);
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<BufferedImage> images = new ArrayList<>(results.size());
+            for (CompletableFuture<BufferedImage> result : results) {
+                images.add(result.join());
+            }
+            return images;
+        });
+    }
+
+    private void render(String url, byte[] bytes, Throwable throwable, Map<Key, CompletableFuture<BufferedImage>> owned) {
+        try {
+            if (throwable != null) {
+                owned.values().forEach(future -> future.completeExceptionally(throwable));
+                return;
+            }
+            int maxWidth = 0;
+            int maxHeight = 0;
+            for (Key key : owned.keySet()) {
+                maxWidth = Math.max(maxWidth, key.width);
+                maxHeight = Math.max(maxHeight, key.height);
+            }
+            long start = System.nanoTime();
+            BufferedImage decoded = ImageScaler.decode(bytes, maxWidth, maxHeight);
+            DECODE_TIME.recordSince(start);
+            if (decoded == null) {
+                throw new IOException("Formato de imagen no reconocido: " + url);
+            }
+            for (Map.Entry<Key, CompletableFuture<BufferedImage>> entry : owned.entrySet()) {
+                Key key = entry.getKey();
+                start = System.nanoTime();
+                BufferedImage scaled = ImageScaler.scale(decoded, key.width, key.height);
+                SCALE_TIME.recordSince(start);
+                memoryPut(key, scaled);
+                entry.getValue().complete(scaled);
+            }
+        } catch (IOException | RuntimeException e) {
+            owned.values().forEach(future -> future.completeExceptionally(e));
+        } finally {
+            owned.forEach(scaling::remove);
+        }
+    }
+
+    private CompletableFuture<byte[]> original(int cardId, String url) {
+        CompletableFuture<byte[]> created = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = downloads.putIfAbsent(url, created);
+        if (existing != null) {
+            return existing;
+        }
+        executor.execute(() -> {
+            try {
+                created.complete(loadOriginal(cardId, url));
+            } catch (IOException e) {
+                created.completeExceptionally(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                created.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+            } finally {
+                downloads.remove(url, created);
+            }
+        });
+        return created;
+    }
+
+    private byte[] loadOriginal(int cardId, String url) throws IOException, InterruptedException {
+        Path data = directory == null ? null : directory.resolve(cardId + ".img");
+        Properties meta = readMeta(cardId, url);
+        if (meta != null && revalidated.contains(url)) {
+            return fromDisk(data, "disk");
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofSeconds(15))
+                .GET();
+        if (meta != null) {
+            String etag = meta.getProperty("etag");
+            String lastModified = meta.getProperty("lastModified");
+            if (etag != null) request.header("If-None-Match", etag);
+            if (lastModified != null) request.header("If-Modified-Since", lastModified);
+        }
+
+        HttpResponse<byte[]> response;
+        long start = System.nanoTime();
+        try {
+            response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            downloadTime("error").recordSince(start);
+            // sin red, la copia en disco sigue sirviendo aunque no se haya podido revalidar
+            if (meta != null) return fromDisk(data, "disk");
+            throw e;
+        }
+        downloadTime(Integer.toString(response.statusCode())).recordSince(start);
+        if (response.statusCode() == 304 && meta != null) {
+            revalidated.add(url);
+            return fromDisk(data, "revalidated");
+        }
+        if (response.statusCode() != 200) {
+            if (meta != null) return fromDisk(data, "disk");
+            throw new IOException("No se pudo descargar la imagen: HTTP " + response.statusCode());
+        }
+        source("network").increment();
+        byte[] body = response.body();
+        revalidated.add(url);
+        writeToDisk(cardId, url, body, response);
+        return body;
+    }
+
+    private static byte[] fromDisk(Path data, String source) throws IOException {
+        byte[] bytes = Files.readAllBytes(data);
+        source(source).increment();
+        return bytes;
+    }
+
+    private static Counter source(String source) {
+        return MetricsRegistry.DEFAULT.counter("yugioh_image_source_total",
+                "Originales leídos de disco, revalidados con 304 o descargados", "source", source);
+    }
+
+    private static LatencyHistogram downloadTime(String status) {
+        return MetricsRegistry.DEFAULT.histogram("yugioh_image_download_seconds",
+                "Descargas de ilustraciones por estado HTTP", "status", status);
+    }
+
+    private Properties readMeta(int cardId, String url) {
+        if (directory == null) {
+            return null;
+        }
+        Path metaFile = directory.resolve(cardId + ".properties");
+        if (!Files.exists(metaFile) || !Files.exists(directory.resolve(cardId + ".img"))) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            meta.load(in);
+        } catch (IOException e) {
+            return null;
+        }
+        return url.equals(meta.getProperty("url")) ? meta : null;
+    }
+
+    private void writeToDisk(int cardId, String url, byte[] body, HttpResponse<?> response) {
+        if (directory == null) {
+            return;
+        }
+        Properties meta = new Properties();
+        meta.setProperty("url", url);
+        response.headers().firstValue("ETag").ifPresent(v -> meta.setProperty("etag", v));
+        response.headers().firstValue("Last-Modified").ifPresent(v -> meta.setProperty("lastModified", v));
+        try {
+            Files.createDirectories(directory);
+            replace(directory.resolve(cardId + ".img"), temp -> Files.write(temp, body));
+            replace(directory.resolve(cardId + ".properties"), temp -> {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    meta.store(out, null);
+                }
+            });
+        } catch (IOException e) {
+            // el disco es solo una optimización: si falla, la imagen se sirve igual
+        }
+    }
+
+    private interface FileWriter {
+        void write(Path temp) throws IOException;
+    }
+
+    private void replace(Path target, FileWriter writer) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            writer.write(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private synchronized BufferedImage memoryGet(Key key) {
+        return memory.get(key);
+    }
+
+    private synchronized void memoryPut(Key key, BufferedImage image) {
+        BufferedImage previous = memory.put(key, image);
+        if (previous != null) {
+            memoryBytes -= sizeOf(previous);
+        }
+        memoryBytes += sizeOf(image);
+        Iterator<BufferedImage> eldest = memory.values().iterator();
+        while (memoryBytes > memoryBudgetBytes && eldest.hasNext()) {
+            BufferedImage evicted = eldest.next();
+            if (evicted == image) {
+                break;
+            }
+            memoryBytes -= sizeOf(evicted);
+            eldest.remove();
+        }
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    /** Tamaño de destino para {@link #getAll}. */
+    public static final class Size {
+        final int width;
+        final int height;
+
+        public Size(int width, int height) {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException("Tamaño no válido: " + width + "x" + height);
+            }
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private static final class Key {
+        private final int cardId;
+        private final int width;
+        private final int height;
+
+        Key(int cardId, int width, int height) {
+            this.cardId = cardId;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return cardId == key.cardId && width == key.width && height == key.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return (cardId * 31 + width) * 31 + height;
+        }
+    }
+}
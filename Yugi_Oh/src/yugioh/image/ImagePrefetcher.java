@@ -0,0 +1,152 @@
+package yugioh.image;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precarga ilustraciones en un {@link ImageCache} por orden de prioridad, con un
+ * máximo de peticiones simultáneas para dejar hueco a las que pide la interfaz.
+ * Cada llamada a {@link #prefetch} sustituye a la anterior: lo que quedaba en cola
+ * se descarta, y lo que ya estaba en curso termina y queda en la caché.
+ */
+public final class ImagePrefetcher {
+
+    /**
+     * Imagen a precargar; menor {@code priority} se pide antes. Todos los tamaños
+     * de una petición salen de una sola decodificación.
+     */
+    public static final class Request {
+        final int priority;
+        final int cardId;
+        final String url;
+        final List<ImageCache.Size> sizes;
+
+        public Request(int priority, int cardId, String url, int width, int height) {
+            this(priority, cardId, url, List.of(new ImageCache.Size(width, height)));
+        }
+
+        public Request(int priority, int cardId, String url, List<ImageCache.Size> sizes) {
+            this.priority = priority;
+            this.cardId = cardId;
+            this.url = url;
+            this.sizes = List.copyOf(sizes);
+        }
+    }
+
+    private static final Comparator<Task> ORDER = Comparator
+            .comparingInt((Task task) -> task.request.priority)
+            .thenComparingLong(task -> task.sequence);
+
+    private final ImageCache cache;
+    private final int maxInFlight;
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(ORDER);
+    private int inFlight;
+    private long sequence;
+    private Batch current;
+
+    public ImagePrefetcher(ImageCache cache, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight debe ser positivo: " + maxInFlight);
+        }
+        this.cache = cache;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Encola las imágenes y cancela la precarga anterior. El futuro se completa
+     * cuando todas están en caché (o fallaron), y se cancela si otra llamada o
+     * {@link #cancel()} la sustituye antes.
+     */
+    public CompletableFuture<Void> prefetch(List<Request> requests) {
+        List<Task> launch;
+        Batch batch;
+        synchronized (this) {
+            cancelCurrent();
+            batch = new Batch(requests.size());
+            current = batch;
+            for (Request request : requests) {
+                queue.add(new Task(request, batch, sequence++));
+            }
+            if (requests.isEmpty()) {
+                batch.done.complete(null);
+            }
+            launch = drain();
+        }
+        launch.forEach(this::run);
+        return batch.done;
+    }
+
+    /** Descarta la precarga pendiente, por ejemplo al recargar las cartas. */
+    public void cancel() {
+        synchronized (this) {
+            cancelCurrent();
+        }
+    }
+
+    private void cancelCurrent() {
+        if (current != null) {
+            queue.removeIf(task -> task.batch == current);
+            current.done.cancel(false);
+            current = null;
+        }
+    }
+
+    private List<Task> drain() {
+        List<Task> launch = new ArrayList<>();
+        while (inFlight < maxInFlight && !queue.isEmpty()) {
+            inFlight++;
+            launch.add(queue.poll());
+        }
+        return launch;
+    }
+
+    private void run(Task task) {
+        Request request = task.request;
+        CompletableFuture<List<BufferedImage>> image;
+        try {
+            image = cache.getAll(request.cardId, request.url, request.sizes);
+        } catch (RuntimeException e) {
+            image = CompletableFuture.failedFuture(e);
+        }
+        // un fallo de precarga no se informa: la interfaz lo verá al pedir la imagen
+        image.whenComplete((ignored, error) -> finished(task));
+    }
+
+    private void finished(Task task) {
+        List<Task> launch;
+        synchronized (this) {
+            inFlight--;
+            launch = drain();
+        }
+        if (task.batch.remaining.decrementAndGet() == 0) {
+            task.batch.done.complete(null);
+        }
+        launch.forEach(this::run);
+    }
+
+    private static final class Batch {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final AtomicInteger remaining;
+
+        Batch(int size) {
+            this.remaining = new AtomicInteger(size);
+        }
+    }
+
+    private static final class Task {
+        final Request request;
+        final Batch batch;
+        final long sequence;
+
+        Task(Request request, Batch batch, long sequence) {
+            this.request = request;
+            this.batch = batch;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package yugioh.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decodificación y reducción de ilustraciones. Al decodificar se descartan filas
+ * y columnas con {@link ImageReadParam#setSourceSubsampling} mientras la imagen
+ * siga midiendo al menos el doble del tamaño mayor pedido; después se reduce a la
+ * mitad con interpolación bilineal hasta acercarse al destino y se hace un último
+ * paso bilineal. El resultado es {@code TYPE_INT_ARGB_PRE}, que Swing pinta sin
+ * convertir.
+ */
+public final class ImageScaler {
+
+    private ImageScaler() {
+    }
+
+    /**
+     * Decodifica la imagen con el submuestreo que permite el tamaño mayor que se
+     * va a generar a partir de ella. Como {@link ImageIO#read}, devuelve
+     * {@code null} si ningún lector reconoce el formato.
+     */
+    public static BufferedImage decode(byte[] data, int maxWidth, int maxHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(sourceWidth / (2 * maxWidth), sourceHeight / (2 * maxHeight)));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Reduce (o amplía) {@code source} a {@code width x height}. */
+    public static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        // un paso bilineal solo mezcla 2x2 píxeles: por encima de la mitad se pierde detalle
+        while (currentWidth / 2 >= width && currentHeight / 2 >= height) {
+            currentWidth /= 2;
+            currentHeight /= 2;
+            current = draw(current, currentWidth, currentHeight);
+        }
+        if (currentWidth == width && currentHeight == height && current.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            return current;
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
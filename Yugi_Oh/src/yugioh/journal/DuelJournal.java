@@ -0,0 +1,397 @@
+package yugioh.journal;
+
+import yugioh.core.BattleListener;
+import yugioh.core.DuelRandom;
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Diario binario de duelos, solo de escritura al final del archivo. Cada duelo
+ * se registra envolviendo su {@link BattleListener} con {@link #record}: los
+ * eventos se copian al diario y después se pasan al listener original. Varios
+ * duelos pueden compartir diario a la vez; sus registros se intercalan y se
+ * separan por número de duelo al leerlos con {@link DuelJournalReader}.
+ *
+ * <p>Los registros se acumulan en un búfer que se vuelca al canal cuando se
+ * llena, al terminar cada duelo y en {@link #flush()}. Si la escritura falla el
+ * diario deja de registrar, avisa una vez por {@code onError} y el error se lanza
+ * en {@link #close()}; el duelo sigue su curso.
+ */
+public final class DuelJournal implements Closeable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private long nextDuelId;
+    private long events;
+    private IOException failure;
+    private boolean closed;
+
+    private DuelJournal(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Abre el diario para añadir duelos, creándolo si no existe. Si el archivo
+     * acaba en un registro incompleto, se recorta.
+     */
+    public static DuelJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(JournalFormat.HEADER_BYTES)
+                        .putInt(JournalFormat.MAGIC)
+                        .putInt(JournalFormat.FORMAT_VERSION);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } else {
+                // un registro cortado al final haría ilegible todo lo que se añada detrás
+                long valid = DuelJournalReader.validLength(file);
+                if (valid < channel.size()) {
+                    channel.truncate(valid);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new DuelJournal(channel);
+    }
+
+    /**
+     * Registra el comienzo de un duelo y devuelve el listener que hay que darle a
+     * {@code Duel} en lugar de {@code listener}. {@code random} debe estar recién
+     * creado, porque se guarda su semilla para poder repetir los sorteos.
+     */
+    public BattleListener record(DuelRandom random, List<Card> playerDeck, List<Card> aiDeck, BattleListener listener) {
+        Recorder recorder;
+        synchronized (this) {
+            recorder = new Recorder(nextDuelId++, playerDeck, aiDeck, listener);
+            if (begin(recorder.duelId)) {
+                putLong(System.currentTimeMillis());
+                putLong(random.getSeed());
+                putCards(playerDeck);
+                putCards(aiDeck);
+                end();
+            }
+        }
+        return recorder;
+    }
+
+    /** Eventos registrados desde que se abrió el diario. */
+    public synchronized long getEventCount() {
+        return events;
+    }
+
+    /** Vuelca al archivo los registros pendientes. */
+    public synchronized void flush() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null) {
+                drain();
+            }
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private final class Recorder implements BattleListener {
+        private final long duelId;
+        private final long startNanos = System.nanoTime();
+        private final List<Card> playerDeck;
+        private final List<Card> aiDeck;
+        private final BattleListener listener;
+        private boolean failureReported;
+
+        Recorder(long duelId, List<Card> playerDeck, List<Card> aiDeck, BattleListener listener) {
+            this.duelId = duelId;
+            this.playerDeck = new ArrayList<>(playerDeck);
+            this.aiDeck = new ArrayList<>(aiDeck);
+            this.listener = Objects.requireNonNull(listener);
+        }
+
+        @Override
+        public void onDuelStarted(String startingPlayer) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.STARTED)) {
+                    putLabel(startingPlayer);
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onDuelStarted(startingPlayer);
+        }
+
+        @Override
+        public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.TURN_RESOLVED)) {
+                    putSelection(playerSelection, playerDeck);
+                    putSelection(aiSelection, aiDeck);
+                    putLabel(attacker);
+                    putLabel(roundWinner);
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onTurnResolved(playerSelection, aiSelection, attacker, roundWinner);
+        }
+
+        @Override
+        public void onScoreChanged(int playerScore, int aiScore) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.SCORE_CHANGED)) {
+                    putVarint(playerScore);
+                    putVarint(aiScore);
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onScoreChanged(playerScore, aiScore);
+        }
+
+        @Override
+        public void onDuelEnded(String winner) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.ENDED)) {
+                    putLabel(winner);
+                    end();
+                    drainQuietly();
+                }
+            }
+            reportFailure();
+            listener.onDuelEnded(winner);
+        }
+
+        @Override
+        public void onError(String message, Throwable throwable) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.ERROR)) {
+                    putString(message);
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onError(message, throwable);
+        }
+
+        @Override
+        public void onReplacementRequested(boolean playerSide) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.REPLACEMENT_REQUESTED)) {
+                    put((byte) (playerSide ? 1 : 0));
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onReplacementRequested(playerSide);
+        }
+
+        @Override
+        public void onCardsRemoved(List<Card> playerRemoved, List<Card> aiRemoved) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.CARDS_REMOVED)) {
+                    putCardRefs(playerRemoved, playerDeck);
+                    putCardRefs(aiRemoved, aiDeck);
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onCardsRemoved(playerRemoved, aiRemoved);
+        }
+
+        @Override
+        public void onAiSelectedFirst(CardSelection aiSelection) {
+            synchronized (DuelJournal.this) {
+                if (event(JournalFormat.AI_SELECTED_FIRST)) {
+                    putSelection(aiSelection, aiDeck);
+                    end();
+                }
+            }
+            reportFailure();
+            listener.onAiSelectedFirst(aiSelection);
+        }
+
+        private boolean event(byte type) {
+            if (!begin(type, duelId)) {
+                return false;
+            }
+            putVarint((int) Math.min(Integer.MAX_VALUE, (System.nanoTime() - startNanos) / 1_000_000));
+            return true;
+        }
+
+        private void reportFailure() {
+            IOException error;
+            synchronized (DuelJournal.this) {
+                error = failure;
+            }
+            if (error != null && !failureReported) {
+                failureReported = true;
+                listener.onError("No se pudo escribir el diario del duelo", error);
+            }
+        }
+    }
+
+    // --- escritura; todo se llama con el monitor del diario tomado ---
+
+    private boolean begin(long duelId) {
+        return begin(JournalFormat.BEGIN, duelId);
+    }
+
+    private boolean begin(byte type, long duelId) {
+        if (failure != null || closed) {
+            return false;
+        }
+        put(type);
+        putVarlong(duelId);
+        return true;
+    }
+
+    private void end() {
+        events++;
+    }
+
+    private void putSelection(CardSelection selection, List<Card> deck) {
+        putCardRef(selection.getCard(), deck);
+        put((byte) selection.getPosition().ordinal());
+    }
+
+    private void putCardRefs(List<Card> cards, List<Card> deck) {
+        putVarint(cards.size());
+        for (Card card : cards) {
+            putCardRef(card, deck);
+        }
+    }
+
+    /** Posición en el mazo más uno; 0 indica que la carta sigue completa. */
+    private void putCardRef(Card card, List<Card> deck) {
+        int index = deck.indexOf(card);
+        putVarint(index + 1);
+        if (index < 0) {
+            putCard(card);
+        }
+    }
+
+    private void putCards(List<Card> cards) {
+        putVarint(cards.size());
+        for (Card card : cards) {
+            putCard(card);
+        }
+    }
+
+    private void putCard(Card card) {
+        putVarint(card.getId());
+        putVarint(JournalFormat.zigzag(card.getAtk()));
+        putVarint(JournalFormat.zigzag(card.getDef()));
+        putString(card.getName());
+        putString(card.getType());
+    }
+
+    private void putLabel(String label) {
+        int code = JournalFormat.labelCode(label);
+        putVarint(code);
+        if (code == 0) {
+            putString(label);
+        }
+    }
+
+    /** Longitud más uno (0 es {@code null}) y los bytes UTF-8. */
+    private void putString(String value) {
+        if (value == null) {
+            putVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length + 1);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+    }
+
+    private void putLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    private void putVarint(int value) {
+        ensure(5);
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void putVarlong(long value) {
+        ensure(10);
+        while ((value & ~0x7fL) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void put(byte value) {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            drainQuietly();
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (IOException e) {
+            failure = e;
+            // lo que quedaba en el búfer se pierde; los registros siguientes se descartan
+            buffer.clear();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+}
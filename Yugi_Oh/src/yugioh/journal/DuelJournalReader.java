@@ -0,0 +1,326 @@
+package yugioh.journal;
+
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lee un diario escrito por {@link DuelJournal} de forma secuencial. Los duelos
+ * se entregan en cuanto termina su último evento, así que un diario con muchos
+ * duelos no se carga entero en memoria. Un registro cortado al final del archivo
+ * se ignora: es lo que queda si el proceso que escribía terminó a mitad.
+ */
+public final class DuelJournalReader implements Closeable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final CardPosition[] POSITIONS = CardPosition.values();
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private long filled;
+    private long validLength;
+    private boolean endOfData;
+    private final Map<Long, RecordedDuel> open = new LinkedHashMap<>();
+    private final ArrayDeque<RecordedDuel> ready = new ArrayDeque<>();
+
+    private DuelJournalReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip();
+        try {
+            require(JournalFormat.HEADER_BYTES);
+        } catch (EOFException e) {
+            throw new IOException("El archivo no es un diario de duelos");
+        }
+        if (buffer.getInt() != JournalFormat.MAGIC) {
+            throw new IOException("El archivo no es un diario de duelos");
+        }
+        int format = buffer.getInt();
+        if (format != JournalFormat.FORMAT_VERSION) {
+            throw new IOException("Formato de diario no soportado: " + format);
+        }
+        validLength = position();
+    }
+
+    public static DuelJournalReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new DuelJournalReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Todos los duelos del diario, en el orden en que terminaron. */
+    public static List<RecordedDuel> readAll(Path file) throws IOException {
+        List<RecordedDuel> duels = new ArrayList<>();
+        try (DuelJournalReader reader = open(file)) {
+            RecordedDuel duel;
+            while ((duel = reader.next()) != null) {
+                duels.add(duel);
+            }
+        }
+        return duels;
+    }
+
+    /**
+     * Bytes del diario que forman registros completos; {@link DuelJournal} recorta
+     * el resto antes de añadir.
+     */
+    static long validLength(Path file) throws IOException {
+        try (DuelJournalReader reader = open(file)) {
+            while (reader.next() != null) {
+                // solo interesa hasta dónde se pudo leer
+            }
+            return reader.validLength;
+        }
+    }
+
+    /**
+     * Siguiente duelo terminado o, al llegar al final del archivo, los que quedaron
+     * a medias en el orden en que empezaron. Devuelve {@code null} cuando no hay más.
+     */
+    public RecordedDuel next() throws IOException {
+        while (ready.isEmpty()) {
+            if (endOfData) {
+                if (open.isEmpty()) {
+                    return null;
+                }
+                ready.addAll(open.values());
+                open.clear();
+                break;
+            }
+            try {
+                readRecord();
+                validLength = position();
+            } catch (EOFException e) {
+                endOfData = true;
+            }
+        }
+        return ready.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readRecord() throws IOException {
+        long recordStart = position();
+        byte type = get();
+        long duelId = getVarlong();
+        if (type == JournalFormat.BEGIN) {
+            long startedAt = getLong();
+            long seed = getLong();
+            List<Card> playerDeck = getCards();
+            List<Card> aiDeck = getCards();
+            RecordedDuel previous = open.put(duelId, new RecordedDuel(duelId, startedAt, seed, playerDeck, aiDeck));
+            if (previous != null) {
+                // otra sesión de escritura reutilizó el número: el anterior quedó sin terminar
+                ready.add(previous);
+            }
+            return;
+        }
+        RecordedDuel duel = open.get(duelId);
+        if (duel == null) {
+            throw corrupt(recordStart);
+        }
+        long offset = getVarint();
+        RecordedEvent event;
+        switch (type) {
+            case JournalFormat.STARTED:
+                event = RecordedEvent.started(offset, getLabel(recordStart));
+                break;
+            case JournalFormat.AI_SELECTED_FIRST:
+                event = RecordedEvent.aiSelectedFirst(offset, getSelection(duel.getAiDeck(), recordStart));
+                break;
+            case JournalFormat.TURN_RESOLVED: {
+                CardSelection playerSelection = getSelection(duel.getPlayerDeck(), recordStart);
+                CardSelection aiSelection = getSelection(duel.getAiDeck(), recordStart);
+                String attacker = getLabel(recordStart);
+                String roundWinner = getLabel(recordStart);
+                event = RecordedEvent.turnResolved(offset, playerSelection, aiSelection, attacker, roundWinner);
+                break;
+            }
+            case JournalFormat.SCORE_CHANGED: {
+                int playerScore = getVarint();
+                int aiScore = getVarint();
+                event = RecordedEvent.scoreChanged(offset, playerScore, aiScore);
+                break;
+            }
+            case JournalFormat.ENDED:
+                event = RecordedEvent.ended(offset, getLabel(recordStart));
+                break;
+            case JournalFormat.ERROR:
+                event = RecordedEvent.error(offset, getString());
+                break;
+            case JournalFormat.REPLACEMENT_REQUESTED:
+                event = RecordedEvent.replacementRequested(offset, get() != 0);
+                break;
+            case JournalFormat.CARDS_REMOVED: {
+                List<Card> playerRemoved = getCardRefs(duel.getPlayerDeck(), recordStart);
+                List<Card> aiRemoved = getCardRefs(duel.getAiDeck(), recordStart);
+                event = RecordedEvent.cardsRemoved(offset, playerRemoved, aiRemoved);
+                break;
+            }
+            default:
+                throw corrupt(recordStart);
+        }
+        duel.add(event);
+        if (event.getKind() == RecordedEvent.Kind.DUEL_ENDED) {
+            open.remove(duelId);
+            ready.add(duel);
+        }
+    }
+
+    private CardSelection getSelection(List<Card> deck, long recordStart) throws IOException {
+        Card card = getCardRef(deck, recordStart);
+        int position = get();
+        if (position < 0 || position >= POSITIONS.length) {
+            throw corrupt(recordStart);
+        }
+        return new CardSelection(card, POSITIONS[position]);
+    }
+
+    private List<Card> getCardRefs(List<Card> deck, long recordStart) throws IOException {
+        int count = getVarint();
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cards.add(getCardRef(deck, recordStart));
+        }
+        return Collections.unmodifiableList(cards);
+    }
+
+    private Card getCardRef(List<Card> deck, long recordStart) throws IOException {
+        int ref = getVarint();
+        if (ref == 0) {
+            return getCard();
+        }
+        if (ref > deck.size()) {
+            throw corrupt(recordStart);
+        }
+        return deck.get(ref - 1);
+    }
+
+    private List<Card> getCards() throws IOException {
+        int count = getVarint();
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cards.add(getCard());
+        }
+        return cards;
+    }
+
+    private Card getCard() throws IOException {
+        int id = getVarint();
+        int atk = JournalFormat.unzigzag(getVarint());
+        int def = JournalFormat.unzigzag(getVarint());
+        String name = getString();
+        String type = getString();
+        return new Card(id, name, type, atk, def, "", Card.imageUrlFor(id));
+    }
+
+    private String getLabel(long recordStart) throws IOException {
+        int code = getVarint();
+        if (code == 0) {
+            return getString();
+        }
+        if (code > JournalFormat.LABELS.length) {
+            throw corrupt(recordStart);
+        }
+        return JournalFormat.LABELS[code - 1];
+    }
+
+    private String getString() throws IOException {
+        int length = getVarint();
+        if (length == 0) {
+            return null;
+        }
+        require(length - 1);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length - 1, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length - 1);
+        return value;
+    }
+
+    private long getLong() throws IOException {
+        require(Long.BYTES);
+        return buffer.getLong();
+    }
+
+    private int getVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint demasiado largo en el diario");
+    }
+
+    private long getVarlong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint demasiado largo en el diario");
+    }
+
+    private byte get() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    private long position() {
+        return filled - buffer.remaining();
+    }
+
+    /** Deja al menos {@code bytes} por leer en el búfer o lanza {@link EOFException}. */
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (bytes > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            filled += read;
+        }
+        buffer.flip();
+        if (buffer.remaining() < bytes) {
+            throw new EOFException();
+        }
+    }
+
+    private IOException corrupt(long offset) {
+        return new IOException("Diario de duelos dañado en el byte " + offset);
+    }
+}
@@ -0,0 +1,345 @@
+package yugioh.journal;
+
+import yugioh.core.AiStrategy;
+import yugioh.core.BattleAdapter;
+import yugioh.core.BattleListener;
+import yugioh.core.Duel;
+import yugioh.core.DuelRandom;
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reproduce un duelo del diario sobre un {@link Duel} nuevo: mismos mazos, misma
+ * semilla, las selecciones del jugador en el orden registrado y una IA que repite
+ * las suyas. Cada evento que emite el duelo se compara con el registrado antes de
+ * pasarlo al listener, de modo que una regla que haya cambiado desde la partida
+ * original se detecta en el evento exacto en que diverge. Los eventos que el
+ * duelo no produce por sí mismo (errores de la interfaz, reemplazos) se
+ * reemiten tal como se registraron.
+ */
+public final class DuelReplayer {
+
+    /** Velocidad para {@link #replay(RecordedDuel, BattleListener, double)} sin esperas. */
+    public static final double FULL_SPEED = 0;
+
+    private DuelReplayer() {
+    }
+
+    /** Reproduce el duelo sin esperas y devuelve el {@link Duel} reconstruido. */
+    public static Duel replay(RecordedDuel recorded, BattleListener listener) {
+        return new Replay(recorded, listener, FULL_SPEED).run();
+    }
+
+    /**
+     * Reproduce el duelo respetando los tiempos registrados: {@code speed} 1 es
+     * tiempo real, 2 el doble de rápido y {@link #FULL_SPEED} sin esperas.
+     *
+     * @throws IllegalStateException si el duelo reconstruido se aparta del registrado
+     */
+    public static Duel replay(RecordedDuel recorded, BattleListener listener, double speed) throws InterruptedException {
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed no puede ser negativa: " + speed);
+        }
+        Replay replay = new Replay(recorded, listener, speed);
+        Duel duel = replay.run();
+        if (replay.interrupted) {
+            throw new InterruptedException();
+        }
+        return duel;
+    }
+
+    private static final class Replay implements BattleListener {
+        private final RecordedDuel recorded;
+        private final List<RecordedEvent> events;
+        private final BattleListener target;
+        private final double speed;
+        private final long startNanos = System.nanoTime();
+        private int cursor;
+        private boolean interrupted;
+
+        Replay(RecordedDuel recorded, BattleListener target, double speed) {
+            this.recorded = recorded;
+            this.events = recorded.getEvents();
+            this.target = target;
+            this.speed = speed;
+        }
+
+        Duel run() {
+            List<CardSelection> playerMoves = new ArrayList<>();
+            List<CardSelection> aiMoves = new ArrayList<>();
+            CardSelection aiFirst = null;
+            for (RecordedEvent event : events) {
+                if (event.getKind() == RecordedEvent.Kind.AI_SELECTED_FIRST) {
+                    aiFirst = event.getAiSelection();
+                } else if (event.getKind() == RecordedEvent.Kind.TURN_RESOLVED) {
+                    playerMoves.add(event.getPlayerSelection());
+                    aiMoves.add(event.getAiSelection());
+                    aiFirst = null;
+                }
+            }
+            if (aiFirst != null) {
+                // el registro acaba con la IA ya decidida y el jugador sin responder
+                aiMoves.add(aiFirst);
+            }
+
+            Duel duel = new Duel(recorded.getPlayerDeck(), recorded.getAiDeck(), this,
+                    new DuelRandom(recorded.getSeed()), new ScriptedAi(aiMoves));
+            duel.start();
+            for (CardSelection move : playerMoves) {
+                duel.setPlayerSelection(move);
+                duel.resolvePendingRound();
+            }
+            emitUnreproducible();
+            if (cursor < events.size()) {
+                throw diverged("el duelo reconstruido terminó antes que el registrado");
+            }
+            return duel;
+        }
+
+        @Override
+        public void onDuelStarted(String startingPlayer) {
+            if (check(RecordedEvent.started(0, startingPlayer))) {
+                target.onDuelStarted(startingPlayer);
+            }
+        }
+
+        @Override
+        public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+            if (check(RecordedEvent.turnResolved(0, playerSelection, aiSelection, attacker, roundWinner))) {
+                target.onTurnResolved(playerSelection, aiSelection, attacker, roundWinner);
+            }
+        }
+
+        @Override
+        public void onScoreChanged(int playerScore, int aiScore) {
+            if (check(RecordedEvent.scoreChanged(0, playerScore, aiScore))) {
+                target.onScoreChanged(playerScore, aiScore);
+            }
+        }
+
+        @Override
+        public void onDuelEnded(String winner) {
+            if (check(RecordedEvent.ended(0, winner))) {
+                target.onDuelEnded(winner);
+            }
+        }
+
+        @Override
+        public void onError(String message, Throwable throwable) {
+            if (check(RecordedEvent.error(0, message))) {
+                target.onError(message, throwable);
+            }
+        }
+
+        @Override
+        public void onReplacementRequested(boolean playerSide) {
+            if (check(RecordedEvent.replacementRequested(0, playerSide))) {
+                target.onReplacementRequested(playerSide);
+            }
+        }
+
+        @Override
+        public void onCardsRemoved(List<Card> playerRemoved, List<Card> aiRemoved) {
+            if (check(RecordedEvent.cardsRemoved(0, playerRemoved, aiRemoved))) {
+                target.onCardsRemoved(playerRemoved, aiRemoved);
+            }
+        }
+
+        @Override
+        public void onAiSelectedFirst(CardSelection aiSelection) {
+            if (check(RecordedEvent.aiSelectedFirst(0, aiSelection))) {
+                target.onAiSelectedFirst(aiSelection);
+            }
+        }
+
+        /**
+         * Comprueba el evento contra el registrado; devuelve {@code false} si hay
+         * que callarlo porque el diario de un duelo incompleto ya se acabó.
+         */
+        private boolean check(RecordedEvent actual) {
+            while (cursor < events.size() && isUnreproducible(events.get(cursor)) && !events.get(cursor).sameAs(actual)) {
+                reemit();
+            }
+            if (cursor >= events.size()) {
+                if (!recorded.isComplete()) {
+                    return false;
+                }
+                throw diverged("evento no registrado: " + actual);
+            }
+            RecordedEvent expected = events.get(cursor);
+            if (!expected.sameAs(actual)) {
+                throw diverged("se esperaba «" + expected + "» y se obtuvo «" + actual + "»");
+            }
+            pace(expected);
+            cursor++;
+            return true;
+        }
+
+        /** Reemite los eventos registrados que no salen de las reglas del duelo. */
+        private void emitUnreproducible() {
+            while (cursor < events.size() && isUnreproducible(events.get(cursor))) {
+                reemit();
+            }
+        }
+
+        private void reemit() {
+            RecordedEvent event = events.get(cursor++);
+            pace(event);
+            event.emit(target);
+        }
+
+        private static boolean isUnreproducible(RecordedEvent event) {
+            switch (event.getKind()) {
+                case ERROR:
+                case REPLACEMENT_REQUESTED:
+                case CARDS_REMOVED:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void pace(RecordedEvent event) {
+            if (speed == FULL_SPEED || interrupted) {
+                return;
+            }
+            long due = startNanos + (long) (event.getOffsetMillis() * 1_000_000 / speed);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    // el resto se reproduce sin esperas y replay() lanza la interrupción al terminar
+                    interrupted = true;
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private IllegalStateException diverged(String detail) {
+            return new IllegalStateException("El duelo " + recorded.getDuelId()
+                    + " se aparta del diario en el evento " + cursor + ": " + detail);
+        }
+    }
+
+    /** IA que devuelve las selecciones registradas, una por ronda. */
+    private static final class ScriptedAi implements AiStrategy {
+        private final Iterator<CardSelection> moves;
+
+        ScriptedAi(List<CardSelection> moves) {
+            this.moves = moves.iterator();
+        }
+
+        @Override
+        public CardSelection choose(Duel duel, CardSelection playerSelection, DuelRandom random) {
+            return moves.hasNext() ? moves.next() : null;
+        }
+    }
+
+    /**
+     * Uso: {@code DuelReplayer <diario> [duelo] [velocidad]}. Sin número de duelo
+     * reproduce todos sin esperas, comprobándolos contra el diario, e informa en
+     * una línea de cuántos duelos y eventos se reprodujeron y a qué velocidad; con
+     * él, lista sus eventos a la velocidad indicada (1 = tiempo real, 0 = sin
+     * esperas). El número es la posición en el orden en que terminaron los duelos.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Uso: DuelReplayer <diario> [duelo] [velocidad]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        if (args.length == 1) {
+            long events = 0;
+            long duels = 0;
+            long started = System.nanoTime();
+            try (DuelJournalReader reader = DuelJournalReader.open(file)) {
+                RecordedDuel recorded;
+                while ((recorded = reader.next()) != null) {
+                    replay(recorded, SILENT);
+                    events += recorded.getEvents().size();
+                    duels++;
+                }
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("%,d duelos, %,d eventos reproducidos en %.2f s (%,.0f eventos/s)%n",
+                    duels, events, seconds, events / seconds);
+            return;
+        }
+        int index = Integer.parseInt(args[1]);
+        double speed = args.length > 2 ? Double.parseDouble(args[2]) : FULL_SPEED;
+        try (DuelJournalReader reader = DuelJournalReader.open(file)) {
+            RecordedDuel recorded = null;
+            for (int i = 0; i <= index; i++) {
+                recorded = reader.next();
+                if (recorded == null) {
+                    System.err.println("El diario solo tiene " + i + " duelos");
+                    System.exit(1);
+                }
+            }
+            System.out.printf("Duelo %d, semilla %d%s%n", recorded.getDuelId(), recorded.getSeed(),
+                    recorded.isComplete() ? "" : " (incompleto)");
+            System.out.println("Jugador: " + recorded.getPlayerDeck());
+            System.out.println("IA: " + recorded.getAiDeck());
+            List<RecordedEvent> events = recorded.getEvents();
+            replay(recorded, new BattleAdapter() {
+                private int next;
+
+                @Override
+                public void onDuelStarted(String startingPlayer) {
+                    print();
+                }
+
+                @Override
+                public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+                    print();
+                }
+
+                @Override
+                public void onScoreChanged(int playerScore, int aiScore) {
+                    print();
+                }
+
+                @Override
+                public void onDuelEnded(String winner) {
+                    print();
+                }
+
+                @Override
+                public void onError(String message, Throwable throwable) {
+                    print();
+                }
+
+                @Override
+                public void onReplacementRequested(boolean playerSide) {
+                    print();
+                }
+
+                @Override
+                public void onCardsRemoved(List<Card> playerRemoved, List<Card> aiRemoved) {
+                    print();
+                }
+
+                @Override
+                public void onAiSelectedFirst(CardSelection aiSelection) {
+                    print();
+                }
+
+                private void print() {
+                    RecordedEvent event = events.get(next++);
+                    System.out.printf("%8d ms  %s%n", event.getOffsetMillis(), event);
+                }
+            }, speed);
+        }
+    }
+
+    private static final BattleListener SILENT = new BattleAdapter() {
+    };
+}
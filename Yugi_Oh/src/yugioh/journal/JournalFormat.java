@@ -0,0 +1,68 @@
+package yugioh.journal;
+
+import yugioh.core.RoundOutcome;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Formato binario del diario de duelos. El archivo empieza por {@link #MAGIC} y
+ * {@link #FORMAT_VERSION}; después solo hay registros, cada uno con una etiqueta
+ * de un byte, el número de duelo y los milisegundos desde su comienzo en varint.
+ * Las cartas de las selecciones se guardan como posición en el mazo declarado al
+ * comienzo del duelo, y los textos fijos de {@code Duel} (bandos y resultados de
+ * ronda) como índice en {@link #LABELS}.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x5947444a; // "YGDJ"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 8;
+
+    static final byte BEGIN = 1;
+    static final byte STARTED = 2;
+    static final byte AI_SELECTED_FIRST = 3;
+    static final byte TURN_RESOLVED = 4;
+    static final byte SCORE_CHANGED = 5;
+    static final byte ENDED = 6;
+    static final byte ERROR = 7;
+    static final byte REPLACEMENT_REQUESTED = 8;
+    static final byte CARDS_REMOVED = 9;
+
+    /**
+     * Bandos y etiquetas de {@link RoundOutcome}. Solo se añaden al final: el
+     * índice forma parte del formato.
+     */
+    static final String[] LABELS = {
+            "Jugador",
+            "IA",
+            "Empate",
+            "Empate (Ambos Defendiendo)",
+            "Jugador (Defensa Exitosa)",
+            "IA (Defensa Exitosa)",
+    };
+    private static final Map<String, Integer> LABEL_CODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < LABELS.length; i++) {
+            LABEL_CODES.put(LABELS[i], i + 1);
+        }
+    }
+
+    private JournalFormat() {
+    }
+
+    /** Código de un texto fijo, o 0 si hay que escribirlo completo. */
+    static int labelCode(String label) {
+        Integer code = label == null ? null : LABEL_CODES.get(label);
+        return code != null ? code : 0;
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,67 @@
+package yugioh.journal;
+
+import yugioh.model.Card;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Duelo leído del diario: semilla, mazos y eventos en el orden en que se
+ * produjeron. {@link #isComplete()} es falso si el diario acaba antes del final
+ * del duelo (por ejemplo, porque el proceso terminó a mitad).
+ */
+public final class RecordedDuel {
+
+    private final long duelId;
+    private final long startedAtMillis;
+    private final long seed;
+    private final List<Card> playerDeck;
+    private final List<Card> aiDeck;
+    private final List<RecordedEvent> events = new ArrayList<>();
+    private boolean complete;
+
+    RecordedDuel(long duelId, long startedAtMillis, long seed, List<Card> playerDeck, List<Card> aiDeck) {
+        this.duelId = duelId;
+        this.startedAtMillis = startedAtMillis;
+        this.seed = seed;
+        this.playerDeck = List.copyOf(playerDeck);
+        this.aiDeck = List.copyOf(aiDeck);
+    }
+
+    void add(RecordedEvent event) {
+        events.add(event);
+        if (event.getKind() == RecordedEvent.Kind.DUEL_ENDED) {
+            complete = true;
+        }
+    }
+
+    /** Número del duelo dentro de la sesión de escritura que lo registró. */
+    public long getDuelId() {
+        return duelId;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public List<Card> getPlayerDeck() {
+        return playerDeck;
+    }
+
+    public List<Card> getAiDeck() {
+        return aiDeck;
+    }
+
+    public List<RecordedEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,215 @@
+package yugioh.journal;
+
+import yugioh.core.BattleListener;
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evento de {@link BattleListener} leído del diario. Solo están informados los
+ * campos que corresponden a su {@link Kind}.
+ */
+public final class RecordedEvent {
+
+    public enum Kind {
+        DUEL_STARTED,
+        AI_SELECTED_FIRST,
+        TURN_RESOLVED,
+        SCORE_CHANGED,
+        DUEL_ENDED,
+        ERROR,
+        REPLACEMENT_REQUESTED,
+        CARDS_REMOVED
+    }
+
+    private final Kind kind;
+    private final long offsetMillis;
+    private final CardSelection playerSelection;
+    private final CardSelection aiSelection;
+    private final String label;
+    private final String roundWinner;
+    private final int playerScore;
+    private final int aiScore;
+    private final boolean playerSide;
+    private final List<Card> playerRemoved;
+    private final List<Card> aiRemoved;
+
+    private RecordedEvent(Kind kind, long offsetMillis, CardSelection playerSelection, CardSelection aiSelection,
+                          String label, String roundWinner, int playerScore, int aiScore, boolean playerSide,
+                          List<Card> playerRemoved, List<Card> aiRemoved) {
+        this.kind = kind;
+        this.offsetMillis = offsetMillis;
+        this.playerSelection = playerSelection;
+        this.aiSelection = aiSelection;
+        this.label = label;
+        this.roundWinner = roundWinner;
+        this.playerScore = playerScore;
+        this.aiScore = aiScore;
+        this.playerSide = playerSide;
+        this.playerRemoved = playerRemoved;
+        this.aiRemoved = aiRemoved;
+    }
+
+    static RecordedEvent started(long offsetMillis, String startingPlayer) {
+        return new RecordedEvent(Kind.DUEL_STARTED, offsetMillis, null, null, startingPlayer, null, 0, 0, false, null, null);
+    }
+
+    static RecordedEvent aiSelectedFirst(long offsetMillis, CardSelection aiSelection) {
+        return new RecordedEvent(Kind.AI_SELECTED_FIRST, offsetMillis, null, aiSelection, null, null, 0, 0, false, null, null);
+    }
+
+    static RecordedEvent turnResolved(long offsetMillis, CardSelection playerSelection, CardSelection aiSelection,
+                                      String attacker, String roundWinner) {
+        return new RecordedEvent(Kind.TURN_RESOLVED, offsetMillis, playerSelection, aiSelection, attacker, roundWinner, 0, 0, false, null, null);
+    }
+
+    static RecordedEvent scoreChanged(long offsetMillis, int playerScore, int aiScore) {
+        return new RecordedEvent(Kind.SCORE_CHANGED, offsetMillis, null, null, null, null, playerScore, aiScore, false, null, null);
+    }
+
+    static RecordedEvent ended(long offsetMillis, String winner) {
+        return new RecordedEvent(Kind.DUEL_ENDED, offsetMillis, null, null, winner, null, 0, 0, false, null, null);
+    }
+
+    static RecordedEvent error(long offsetMillis, String message) {
+        return new RecordedEvent(Kind.ERROR, offsetMillis, null, null, message, null, 0, 0, false, null, null);
+    }
+
+    static RecordedEvent replacementRequested(long offsetMillis, boolean playerSide) {
+        return new RecordedEvent(Kind.REPLACEMENT_REQUESTED, offsetMillis, null, null, null, null, 0, 0, playerSide, null, null);
+    }
+
+    static RecordedEvent cardsRemoved(long offsetMillis, List<Card> playerRemoved, List<Card> aiRemoved) {
+        return new RecordedEvent(Kind.CARDS_REMOVED, offsetMillis, null, null, null, null, 0, 0, false,
+                List.copyOf(playerRemoved), List.copyOf(aiRemoved));
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /** Milisegundos desde que empezó a registrarse el duelo. */
+    public long getOffsetMillis() {
+        return offsetMillis;
+    }
+
+    public CardSelection getPlayerSelection() {
+        return playerSelection;
+    }
+
+    public CardSelection getAiSelection() {
+        return aiSelection;
+    }
+
+    /**
+     * Bando que empieza ({@code DUEL_STARTED}), atacante ({@code TURN_RESOLVED}),
+     * ganador ({@code DUEL_ENDED}) o mensaje ({@code ERROR}).
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public String getRoundWinner() {
+        return roundWinner;
+    }
+
+    public int getPlayerScore() {
+        return playerScore;
+    }
+
+    public int getAiScore() {
+        return aiScore;
+    }
+
+    public boolean isPlayerSide() {
+        return playerSide;
+    }
+
+    public List<Card> getPlayerRemoved() {
+        return playerRemoved;
+    }
+
+    public List<Card> getAiRemoved() {
+        return aiRemoved;
+    }
+
+    /** Entrega el evento a {@code listener} tal como lo recibió el listener original. */
+    public void emit(BattleListener listener) {
+        switch (kind) {
+            case DUEL_STARTED:
+                listener.onDuelStarted(label);
+                break;
+            case AI_SELECTED_FIRST:
+                listener.onAiSelectedFirst(aiSelection);
+                break;
+            case TURN_RESOLVED:
+                listener.onTurnResolved(playerSelection, aiSelection, label, roundWinner);
+                break;
+            case SCORE_CHANGED:
+                listener.onScoreChanged(playerScore, aiScore);
+                break;
+            case DUEL_ENDED:
+                listener.onDuelEnded(label);
+                break;
+            case ERROR:
+                listener.onError(label, null);
+                break;
+            case REPLACEMENT_REQUESTED:
+                listener.onReplacementRequested(playerSide);
+                break;
+            case CARDS_REMOVED:
+                listener.onCardsRemoved(playerRemoved, aiRemoved);
+                break;
+        }
+    }
+
+    /** Mismo evento, sin tener en cuenta el instante. */
+    boolean sameAs(RecordedEvent other) {
+        return kind == other.kind
+                && sameSelection(playerSelection, other.playerSelection)
+                && sameSelection(aiSelection, other.aiSelection)
+                && Objects.equals(label, other.label)
+                && Objects.equals(roundWinner, other.roundWinner)
+                && playerScore == other.playerScore
+                && aiScore == other.aiScore
+                && playerSide == other.playerSide
+                && Objects.equals(playerRemoved, other.playerRemoved)
+                && Objects.equals(aiRemoved, other.aiRemoved);
+    }
+
+    private static boolean sameSelection(CardSelection a, CardSelection b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Objects.equals(a.getCard(), b.getCard()) && a.getPosition() == b.getPosition();
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case DUEL_STARTED:
+                return "Empieza: " + label;
+            case AI_SELECTED_FIRST:
+                return "La IA elige primero: " + describe(aiSelection);
+            case TURN_RESOLVED:
+                return "Ronda (" + label + " ataca): " + describe(playerSelection)
+                        + " contra " + describe(aiSelection) + " -> " + roundWinner;
+            case SCORE_CHANGED:
+                return "Marcador: " + playerScore + " - " + aiScore;
+            case DUEL_ENDED:
+                return "Ganador: " + label;
+            case ERROR:
+                return "Error: " + label;
+            case REPLACEMENT_REQUESTED:
+                return "Reemplazo pedido: " + (playerSide ? "Jugador" : "IA");
+            default:
+                return "Cartas retiradas: " + playerRemoved + " / " + aiRemoved;
+        }
+    }
+
+    private static String describe(CardSelection selection) {
+        return selection.getCard().getName() + " (" + selection.getPosition() + ")";
+    }
+}
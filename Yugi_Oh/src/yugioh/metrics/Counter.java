@@ -0,0 +1,21 @@
+package yugioh.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Contador monótono; sumar desde muchos hilos no compite por una sola línea de caché. */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,133 @@
+package yugioh.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubos log-lineales, al estilo de
+ * HdrHistogram: cada potencia de dos se parte en {@value #SUB_BUCKETS} cubos
+ * iguales, así que cualquier percentil sale con un error relativo de ~3 % y la
+ * memoria es fija (~8 KB) sea cual sea el número de muestras. Registrar una
+ * muestra son un par de operaciones atómicas sin reservar memoria; leer
+ * percentiles recorre los cubos y es para exportar, no para el camino caliente.
+ *
+ * <p>Los valores por encima de 2<sup>{@value #MAX_EXPONENT}</sup> ns (~69 s) se
+ * cuentan en el último cubo.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int MAX_EXPONENT = 36;
+    static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BITS + 2);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // otro hilo subió el máximo a la vez; se vuelve a comparar
+        }
+    }
+
+    /** Registra el tiempo transcurrido desde {@code startNanos} ({@link System#nanoTime()}). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        record(unit.toNanos(duration));
+    }
+
+    /** Copia coherente de los contadores para calcular varios percentiles a la vez. */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, sum.sum(), max.get());
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    /** Mayor valor que cae en el cubo {@code index}. */
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+    /** Estado del histograma en un instante; los valores son nanosegundos. */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Valor por debajo del cual queda la fracción {@code quantile} de las
+         * muestras (el extremo superior de su cubo, sin pasar del máximo visto).
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    // el último cubo no tiene techo: lo más preciso que se sabe es el máximo
+                    return i == counts.length - 1 ? max : Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package yugioh.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Vista JMX de solo lectura de una serie de {@link MetricsRegistry}. Un contador
+ * o indicador expone {@code Value}; un histograma expone {@code Count},
+ * {@code Mean}, {@code P50}, {@code P90}, {@code P99}, {@code P999} y {@code Max}
+ * en milisegundos, calculados sobre una misma copia del histograma.
+ */
+final class MetricMBean implements DynamicMBean {
+
+    private static final String[] HISTOGRAM_ATTRIBUTES = {"Count", "Mean", "P50", "P90", "P99", "P999", "Max"};
+
+    private final Object metric;
+    private final MBeanInfo info;
+
+    MetricMBean(String name, String help, Object metric) {
+        this.metric = metric;
+        MBeanAttributeInfo[] attributes;
+        if (metric instanceof LatencyHistogram) {
+            attributes = new MBeanAttributeInfo[HISTOGRAM_ATTRIBUTES.length];
+            for (int i = 0; i < attributes.length; i++) {
+                String attribute = HISTOGRAM_ATTRIBUTES[i];
+                boolean count = i == 0;
+                attributes[i] = new MBeanAttributeInfo(attribute, count ? "long" : "double",
+                        count ? "Muestras registradas" : attribute + " en milisegundos", true, false, false);
+            }
+        } else {
+            attributes = new MBeanAttributeInfo[]{
+                    new MBeanAttributeInfo("Value", "long", help, true, false, false)};
+        }
+        this.info = new MBeanInfo(MetricMBean.class.getName(), name + ": " + help, attributes, null, null, null);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if (metric instanceof LatencyHistogram) {
+            return histogramAttribute(((LatencyHistogram) metric).snapshot(), attribute);
+        }
+        if (!"Value".equals(attribute)) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return metric instanceof Counter ? ((Counter) metric).get() : ((LongSupplier) metric).getAsLong();
+    }
+
+    private static Object histogramAttribute(LatencyHistogram.Snapshot snapshot, String attribute)
+            throws AttributeNotFoundException {
+        switch (attribute) {
+            case "Count":
+                return snapshot.getCount();
+            case "Mean":
+                return snapshot.getMean() / 1e6;
+            case "P50":
+                return snapshot.getValueAtQuantile(0.5) / 1e6;
+            case "P90":
+                return snapshot.getValueAtQuantile(0.9) / 1e6;
+            case "P99":
+                return snapshot.getValueAtQuantile(0.99) / 1e6;
+            case "P999":
+                return snapshot.getValueAtQuantile(0.999) / 1e6;
+            case "Max":
+                return snapshot.getMax() / 1e6;
+            default:
+                throw new AttributeNotFoundException(attribute);
+        }
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList result = new AttributeList();
+        LatencyHistogram.Snapshot snapshot = metric instanceof LatencyHistogram
+                ? ((LatencyHistogram) metric).snapshot()
+                : null;
+        for (String attribute : attributes) {
+            try {
+                Object value = snapshot != null ? histogramAttribute(snapshot, attribute) : getAttribute(attribute);
+                result.add(new Attribute(attribute, value));
+            } catch (AttributeNotFoundException e) {
+                // la especificación pide omitir los atributos que no existen
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Las métricas son de solo lectura: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+}
@@ -0,0 +1,262 @@
+package yugioh.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registro de métricas por nombre y etiquetas, sin dependencias externas. Cada
+ * serie se crea la primera vez que se pide y después se reutiliza, así que las
+ * clases instrumentadas guardan en un campo las que no dependen de datos de la
+ * petición y solo buscan en el mapa las que llevan etiquetas variables (por
+ * ejemplo, el estado HTTP).
+ *
+ * <p>Se exporta como texto de Prometheus ({@link #writePrometheus}) y como
+ * MBeans de solo lectura ({@link #registerJmx}). Los histogramas se publican como
+ * {@code summary} en segundos, con percentiles, suma y recuento, y su máximo como
+ * indicador {@code <nombre>_max}.
+ *
+ * <p>Las etiquetas se pasan como pares {@code clave, valor}.
+ */
+public final class MetricsRegistry {
+
+    /** Registro del proceso; es el que usa la instrumentación de api, core, image y ui. */
+    public static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String JMX_DOMAIN = "yugioh.metrics";
+
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        private final String exposition;
+
+        Type(String exposition) {
+            this.exposition = exposition;
+        }
+    }
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+    private volatile MBeanServer jmx;
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).series(labels, Counter::new);
+    }
+
+    /** Contador que ya se lleva en otra parte (por ejemplo, los aciertos de una caché). */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).replace(labels, value);
+    }
+
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).replace(labels, value);
+    }
+
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, Type.SUMMARY).series(labels, LatencyHistogram::new);
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(key, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("La métrica " + name + " ya existe como " + family.type.exposition);
+        }
+        return family;
+    }
+
+    /** Formato de exposición de texto de Prometheus (versión 0.0.4). */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.exposition).append('\n');
+            Map<String, Object> series = new TreeMap<>(family.series);
+            if (family.type != Type.SUMMARY) {
+                for (Map.Entry<String, Object> entry : series.entrySet()) {
+                    sample(out, family.name, entry.getKey(), "", value(entry.getValue()));
+                }
+                continue;
+            }
+            // el máximo no forma parte de un summary: va después como indicador aparte
+            Map<String, Long> maxima = new TreeMap<>();
+            for (Map.Entry<String, Object> entry : series.entrySet()) {
+                LatencyHistogram.Snapshot snapshot = ((LatencyHistogram) entry.getValue()).snapshot();
+                writeSummary(out, family.name, entry.getKey(), snapshot);
+                maxima.put(entry.getKey(), snapshot.getMax());
+            }
+            out.append("# HELP ").append(family.name).append("_max Máximo de ").append(family.name).append('\n');
+            out.append("# TYPE ").append(family.name).append("_max gauge\n");
+            for (Map.Entry<String, Long> entry : maxima.entrySet()) {
+                sample(out, family.name + "_max", entry.getKey(), "", seconds(entry.getValue()));
+            }
+        }
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        try {
+            writePrometheus(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void writeSummary(Appendable out, String name, String labels, LatencyHistogram.Snapshot snapshot)
+            throws IOException {
+        for (double quantile : QUANTILES) {
+            String extra = "quantile=\"" + quantile + "\"";
+            sample(out, name, labels, extra, seconds(snapshot.getValueAtQuantile(quantile)));
+        }
+        sample(out, name + "_sum", labels, "", seconds(snapshot.getSum()));
+        sample(out, name + "_count", labels, "", Long.toString(snapshot.getCount()));
+    }
+
+    private static void sample(Appendable out, String name, String labels, String extra, String value)
+            throws IOException {
+        out.append(name);
+        if (!labels.isEmpty() || !extra.isEmpty()) {
+            out.append('{').append(labels);
+            if (!labels.isEmpty() && !extra.isEmpty()) {
+                out.append(',');
+            }
+            out.append(extra).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    static String value(Object metric) {
+        if (metric instanceof Counter) {
+            return Long.toString(((Counter) metric).get());
+        }
+        return Long.toString(((LongSupplier) metric).getAsLong());
+    }
+
+    /**
+     * Publica cada serie, las actuales y las que se creen después, como un MBean
+     * {@code yugioh.metrics:name=<métrica>,<etiqueta>=<valor>...}. Los
+     * histogramas muestran recuento, media, percentiles y máximo en milisegundos.
+     */
+    public void registerJmx(MBeanServer server) {
+        jmx = server;
+        for (Family family : families.values()) {
+            for (Map.Entry<String, Object> entry : family.series.entrySet()) {
+                register(family, family.labelPairs.get(entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    public void registerPlatformJmx() {
+        registerJmx(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    private void register(Family family, String[] labels, Object metric) {
+        MBeanServer server = jmx;
+        if (server == null) {
+            return;
+        }
+        try {
+            StringBuilder name = new StringBuilder(JMX_DOMAIN).append(":name=").append(family.name);
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                name.append(',').append(labels[i]).append('=').append(ObjectName.quote(labels[i + 1]));
+            }
+            ObjectName objectName = new ObjectName(name.toString());
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(new MetricMBean(family.name, family.help, metric), objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            // otro hilo la registró a la vez con el mismo nombre
+        } catch (JMException e) {
+            throw new IllegalArgumentException("No se pudo publicar la métrica " + family.name + " por JMX", e);
+        }
+    }
+
+    private static String labelKey(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Las etiquetas van por pares clave, valor");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') {
+                    key.append('\\').append(ch);
+                } else if (ch == '\n') {
+                    key.append("\\n");
+                } else {
+                    key.append(ch);
+                }
+            }
+            key.append('"');
+        }
+        return key.toString();
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    /** Todas las series de un nombre: mismo tipo y ayuda, distintas etiquetas. */
+    private final class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final Map<String, Object> series = new ConcurrentHashMap<>();
+        private final Map<String, String[]> labelPairs = new ConcurrentHashMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+
+        Object series(String[] labels, Supplier<Object> factory) {
+            String key = labelKey(labels);
+            Object existing = series.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            boolean[] created = {false};
+            Object metric = series.computeIfAbsent(key, ignored -> {
+                labelPairs.put(key, labels.clone());
+                created[0] = true;
+                return factory.get();
+            });
+            if (created[0]) {
+                register(this, labels, metric);
+            }
+            return metric;
+        }
+
+        void replace(String[] labels, LongSupplier value) {
+            String key = labelKey(labels);
+            labelPairs.put(key, labels.clone());
+            series.put(key, value);
+            register(this, labels, value);
+        }
+    }
+}
@@ -2,10 +2,20 @@ package yugioh.model;
 
 import java.util.Objects;
 
+/**
+ * Carta de YGOProDeck. El tipo se guarda como {@link CardType} y solo se conserva
+ * el texto original cuando no es uno de los conocidos; la URL de la ilustración
+ * no se guarda si coincide con la que se deriva del id. Las subclases pueden
+ * pasar {@code null} como nombre o descripción y resolverlos bajo demanda.
+ */
 public class Card {
+    private static final String IMAGE_URL_PREFIX = "https://images.ygoprodeck.com/images/cards/";
+    private static final String IMAGE_URL_SUFFIX = ".jpg";
+
     private final int id;
     private final String name;
-    private final String type;
+    private final CardType cardType;
+    private final String otherType;
     private final int atk;
     private final int def;
     private final String description;
@@ -14,11 +24,39 @@ public class Card {
     public Card(int id, String name, String type, int atk, int def, String description, String imageUrl) {
         this.id = id;
         this.name = name;
-        this.type = type;
+        this.cardType = CardType.fromLabel(type);
+        this.otherType = cardType == CardType.OTHER ? type : null;
+        this.atk = atk;
+        this.def = def;
+        this.description = description;
+        this.imageUrl = isDerivedImageUrl(id, imageUrl) ? null : imageUrl;
+    }
+
+    public Card(int id, String name, CardType type, int atk, int def, String description) {
+        if (type == CardType.OTHER) {
+            throw new IllegalArgumentException("CardType.OTHER requiere el texto del tipo");
+        }
+        this.id = id;
+        this.name = name;
+        this.cardType = type;
+        this.otherType = null;
         this.atk = atk;
         this.def = def;
         this.description = description;
-        this.imageUrl = imageUrl;
+        this.imageUrl = null;
+    }
+
+    /** URL estándar de la ilustración de una carta en YGOProDeck. */
+    public static String imageUrlFor(int id) {
+        return IMAGE_URL_PREFIX + id + IMAGE_URL_SUFFIX;
+    }
+
+    static boolean isDerivedImageUrl(int id, String url) {
+        if (url == null || !url.startsWith(IMAGE_URL_PREFIX) || !url.endsWith(IMAGE_URL_SUFFIX)) {
+            return false;
+        }
+        String digits = url.substring(IMAGE_URL_PREFIX.length(), url.length() - IMAGE_URL_SUFFIX.length());
+        return digits.equals(Integer.toString(id));
     }
 
     public int getId() {
@@ -30,7 +68,11 @@ public class Card {
     }
 
     public String getType() {
-        return type;
+        return cardType == CardType.OTHER ? otherType : cardType.getLabel();
+    }
+
+    public CardType getCardType() {
+        return cardType;
     }
 
     public int getAtk() {
@@ -46,16 +88,16 @@ public class Card {
     }
 
     public String getImageUrl() {
-        return imageUrl;
+        return imageUrl != null ? imageUrl : imageUrlFor(id);
     }
 
     public boolean isMonster() {
-        return type != null && type.toLowerCase().contains("monster");
+        return cardType == CardType.OTHER ? CardType.isMonsterLabel(otherType) : cardType.isMonster();
     }
 
     @Override
     public String toString() {
-        return name + " (ATK: " + atk + ", DEF: " + def + ")";
+        return getName() + " (ATK: " + atk + ", DEF: " + def + ")";
     }
 
     @Override
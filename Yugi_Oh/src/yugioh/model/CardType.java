@@ -0,0 +1,80 @@
+package yugioh.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tipos de carta que devuelve YGOProDeck en el campo {@code type}. Se resuelven
+ * una vez al construir la {@link Card}, de modo que las cartas no guardan su
+ * propia copia del texto y {@link #isMonster()} es una consulta directa.
+ * Los textos que no figuran aquí se representan con {@link #OTHER}.
+ */
+public enum CardType {
+    NORMAL_MONSTER("Normal Monster"),
+    NORMAL_TUNER_MONSTER("Normal Tuner Monster"),
+    EFFECT_MONSTER("Effect Monster"),
+    TUNER_MONSTER("Tuner Monster"),
+    FLIP_EFFECT_MONSTER("Flip Effect Monster"),
+    FLIP_TUNER_EFFECT_MONSTER("Flip Tuner Effect Monster"),
+    GEMINI_MONSTER("Gemini Monster"),
+    SPIRIT_MONSTER("Spirit Monster"),
+    TOON_MONSTER("Toon Monster"),
+    UNION_EFFECT_MONSTER("Union Effect Monster"),
+    RITUAL_MONSTER("Ritual Monster"),
+    RITUAL_EFFECT_MONSTER("Ritual Effect Monster"),
+    FUSION_MONSTER("Fusion Monster"),
+    SYNCHRO_MONSTER("Synchro Monster"),
+    SYNCHRO_TUNER_MONSTER("Synchro Tuner Monster"),
+    SYNCHRO_PENDULUM_EFFECT_MONSTER("Synchro Pendulum Effect Monster"),
+    XYZ_MONSTER("XYZ Monster"),
+    XYZ_PENDULUM_EFFECT_MONSTER("XYZ Pendulum Effect Monster"),
+    LINK_MONSTER("Link Monster"),
+    PENDULUM_NORMAL_MONSTER("Pendulum Normal Monster"),
+    PENDULUM_EFFECT_MONSTER("Pendulum Effect Monster"),
+    PENDULUM_TUNER_EFFECT_MONSTER("Pendulum Tuner Effect Monster"),
+    PENDULUM_FLIP_EFFECT_MONSTER("Pendulum Flip Effect Monster"),
+    PENDULUM_EFFECT_FUSION_MONSTER("Pendulum Effect Fusion Monster"),
+    PENDULUM_EFFECT_RITUAL_MONSTER("Pendulum Effect Ritual Monster"),
+    SPELL_CARD("Spell Card"),
+    TRAP_CARD("Trap Card"),
+    SKILL_CARD("Skill Card"),
+    TOKEN("Token"),
+    OTHER(null);
+
+    private static final Map<String, CardType> BY_LABEL = new HashMap<>();
+
+    static {
+        for (CardType type : values()) {
+            if (type.label != null) {
+                BY_LABEL.put(type.label, type);
+            }
+        }
+    }
+
+    private final String label;
+    private final boolean monster;
+
+    CardType(String label) {
+        this.label = label;
+        this.monster = isMonsterLabel(label);
+    }
+
+    /** Texto tal como lo devuelve la API; {@code null} para {@link #OTHER}. */
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isMonster() {
+        return monster;
+    }
+
+    public static CardType fromLabel(String label) {
+        CardType type = label == null ? null : BY_LABEL.get(label);
+        return type != null ? type : OTHER;
+    }
+
+    static boolean isMonsterLabel(String label) {
+        return label != null && label.toLowerCase(Locale.ROOT).contains("monster");
+    }
+}
@@ -0,0 +1,188 @@
+package yugioh.server;
+
+import yugioh.core.BattleAdapter;
+import yugioh.core.BattleListener;
+import yugioh.core.Duel;
+import yugioh.core.DuelRandom;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prueba de carga de {@link DuelManager}: abre todas las sesiones a la vez y las
+ * juega con jugadores sintéticos que eligen carta y posición al azar, con un
+ * número acotado de jugadores activos simultáneamente. Una parte de los
+ * jugadores abandona a mitad de duelo para comprobar que sus sesiones expiran.
+ * Mide acciones por segundo y la latencia de cada acción desde que se envía
+ * hasta que el actor la completa.
+ *
+ * <p>Uso: {@code DuelLoadTest [sesiones] [jugadores simultáneos] [inactividad ms] [% abandonos]}.
+ */
+public final class DuelLoadTest {
+
+    private static final int HAND = 3;
+    private static final BattleListener SILENT = new BattleAdapter() {
+    };
+
+    private final DuelManager manager;
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger expiredBeforePlaying = new AtomicInteger();
+
+    private DuelLoadTest(DuelManager manager, int maxActions) {
+        this.manager = manager;
+        this.latencies = new long[maxActions];
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Duration idle = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 5_000);
+        int abandonPercent = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        List<Card> pool = new ArrayList<>();
+        DuelRandom cards = new DuelRandom(42);
+        for (int i = 0; i < 500; i++) {
+            pool.add(new Card(i + 1, "Monstruo " + (i + 1), "Normal Monster",
+                    cards.nextInt(31) * 100, cards.nextInt(31) * 100, "", ""));
+        }
+
+        try (DuelManager manager = new DuelManager(idle)) {
+            // como mucho dos acciones por ronda y una ronda por carta
+            DuelLoadTest test = new DuelLoadTest(manager, sessions * HAND * 2);
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+
+            String[] ids = new String[sessions];
+            DuelRandom deal = new DuelRandom(7);
+            for (int i = 0; i < sessions; i++) {
+                ids[i] = manager.open(hand(pool, deal), hand(pool, deal), SILENT);
+            }
+            System.gc();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("%,d sesiones abiertas, ~%,d bytes de heap por sesión%n",
+                    manager.getSessionCount(), (heapAfter - heapBefore) / sessions);
+
+            Semaphore active = new Semaphore(players);
+            CompletableFuture<?>[] done = new CompletableFuture<?>[sessions];
+            long started = System.nanoTime();
+            for (int i = 0; i < sessions; i++) {
+                active.acquire();
+                boolean abandons = i % 100 < abandonPercent;
+                done[i] = test.play(ids[i], DuelRandom.forStream(11, i), abandons).handle((ignored, error) -> {
+                    active.release();
+                    if (error != null) {
+                        // con pocos jugadores y muchas sesiones, las últimas pueden expirar esperando
+                        test.expiredBeforePlaying.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            CompletableFuture.allOf(done).join();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            int actions = test.recorded.get();
+            System.out.printf("%,d acciones en %.2f s: %,.0f acciones/s%n", actions, seconds, actions / seconds);
+            test.printLatencies();
+            if (test.expiredBeforePlaying.get() > 0) {
+                System.out.printf("Sesiones expiradas antes de jugar: %,d%n", test.expiredBeforePlaying.get());
+            }
+
+            // las terminadas ya se cerraron: solo quedan las abandonadas, que deben expirar
+            int abandoned = manager.getSessionCount();
+            long deadline = System.nanoTime() + idle.toNanos() * 3;
+            while (manager.getSessionCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(idle.toMillis() / 4 + 1);
+            }
+            System.out.printf("Sesiones abandonadas: %,d, expiradas: %,d, quedan: %,d%n",
+                    abandoned, manager.getEvictedCount(), manager.getSessionCount());
+        }
+    }
+
+    private static List<Card> hand(List<Card> pool, DuelRandom random) {
+        List<Card> hand = new ArrayList<>(HAND);
+        for (int i = 0; i < HAND; i++) {
+            hand.add(pool.get(random.nextInt(pool.size())));
+        }
+        return hand;
+    }
+
+    /** Juega la sesión hasta el final (o una ronda, si el jugador abandona). */
+    private CompletableFuture<Void> play(String id, DuelRandom moves, boolean abandons) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        round(id, moves, abandons, done);
+        return done;
+    }
+
+    private void round(String id, DuelRandom moves, boolean abandons, CompletableFuture<Void> done) {
+        long selectStart = System.nanoTime();
+        // el jugador elige dentro del actor: así ve las cartas que le quedan sin otra consulta
+        manager.submit(id, duel -> choose(duel, moves)).whenComplete((chosen, error) -> {
+            record(selectStart);
+            if (error != null || !chosen) {
+                manager.close(id);
+                finish(done, error);
+                return;
+            }
+            long resolveStart = System.nanoTime();
+            manager.resolve(id).whenComplete((ignored, resolveError) -> {
+                record(resolveStart);
+                if (resolveError != null || abandons) {
+                    finish(done, resolveError);
+                } else {
+                    round(id, moves, false, done);
+                }
+            });
+        });
+    }
+
+    private static boolean choose(Duel duel, DuelRandom moves) {
+        if (!duel.isActive()) {
+            return false;
+        }
+        List<Card> available = duel.getPlayerAvailable();
+        Card card = available.get(moves.nextInt(available.size()));
+        CardPosition position = moves.nextBoolean() ? CardPosition.ATTACK : CardPosition.DEFENSE;
+        return duel.setPlayerSelection(new CardSelection(card, position));
+    }
+
+    private static void finish(CompletableFuture<Void> done, Throwable error) {
+        if (error != null) {
+            done.completeExceptionally(error);
+        } else {
+            done.complete(null);
+        }
+    }
+
+    private void record(long startNanos) {
+        int slot = recorded.getAndIncrement();
+        if (slot < latencies.length) {
+            latencies[slot] = System.nanoTime() - startNanos;
+        }
+    }
+
+    private void printLatencies() {
+        int count = Math.min(recorded.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        System.out.printf("Latencia por acción: p50 %s, p90 %s, p99 %s, p99.9 %s, máx %s%n",
+                micros(sorted, 0.50), micros(sorted, 0.90), micros(sorted, 0.99), micros(sorted, 0.999),
+                micros(sorted, 1.0));
+    }
+
+    private static String micros(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return "-";
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return String.format("%,.1f µs", sorted[Math.max(0, index)] / 1e3);
+    }
+}
@@ -0,0 +1,182 @@
+package yugioh.server;
+
+import yugioh.core.AiStrategy;
+import yugioh.core.BattleListener;
+import yugioh.core.Duel;
+import yugioh.core.DuelRandom;
+import yugioh.core.GreedyAiStrategy;
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Aloja muchos {@link Duel} a la vez, indexados por id de sesión. Cada sesión es
+ * un actor ({@link DuelSession}): sus acciones se encolan y se ejecutan en serie
+ * en el ejecutor compartido, que usa hilos virtuales si la JVM los ofrece y, si
+ * no, un hilo por núcleo. Las sesiones sin actividad durante el tiempo de
+ * inactividad se descartan periódicamente.
+ */
+public final class DuelManager implements Closeable {
+
+    private final Map<String, DuelSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final ScheduledExecutorService reaper;
+    private final long idleTimeoutNanos;
+    private final Supplier<AiStrategy> aiFactory;
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private volatile Consumer<String> evictionListener = id -> { };
+
+    public DuelManager(Duration idleTimeout) {
+        this(idleTimeout, () -> GreedyAiStrategy.INSTANCE);
+    }
+
+    /**
+     * @param aiFactory IA de cada sesión; se pide una por duelo porque algunas
+     *                  estrategias guardan estado de la partida
+     */
+    public DuelManager(Duration idleTimeout, Supplier<AiStrategy> aiFactory) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout debe ser positivo: " + idleTimeout);
+        }
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.aiFactory = Objects.requireNonNull(aiFactory);
+        this.executor = newActorExecutor();
+        this.reaper = Executors.newSingleThreadScheduledExecutor(daemon("duel-reaper"));
+        long period = Math.max(1, idleTimeout.toMillis() / 4);
+        reaper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Hilos virtuales si existen (Java 21+); si no, un hilo de plataforma por núcleo. */
+    static ExecutorService newActorExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemon("duel-actor"));
+        }
+    }
+
+    static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Se llama con el id de cada sesión descartada por inactividad. */
+    public void setEvictionListener(Consumer<String> evictionListener) {
+        this.evictionListener = Objects.requireNonNull(evictionListener);
+    }
+
+    /**
+     * Crea una sesión con los mazos indicados e inicia el duelo en su buzón. Los
+     * eventos del duelo llegan a {@code listener} desde el hilo del actor.
+     */
+    public String open(List<Card> playerDeck, List<Card> aiDeck, BattleListener listener) {
+        String id = UUID.randomUUID().toString();
+        Duel duel = new Duel(playerDeck, aiDeck, listener, DuelRandom.fromEntropy(), aiFactory.get());
+        DuelSession session = new DuelSession(id, duel, executor);
+        sessions.put(id, session);
+        opened.increment();
+        session.submit(started -> {
+            started.start();
+            return null;
+        });
+        return id;
+    }
+
+    /**
+     * Ejecuta {@code action} sobre el duelo de la sesión, después de las acciones
+     * que ya tenía encoladas. Falla con {@link java.util.NoSuchElementException} si
+     * la sesión no existe o ha expirado.
+     */
+    public <T> CompletableFuture<T> submit(String sessionId, Function<Duel, T> action) {
+        DuelSession session = sessions.get(sessionId);
+        if (session == null) {
+            return CompletableFuture.failedFuture(DuelSession.closedError(sessionId));
+        }
+        return session.submit(action);
+    }
+
+    /** {@link Duel#setPlayerSelection} en el buzón de la sesión. */
+    public CompletableFuture<Boolean> select(String sessionId, CardSelection selection) {
+        return submit(sessionId, duel -> duel.setPlayerSelection(selection));
+    }
+
+    /** {@link Duel#resolvePendingRound} en el buzón de la sesión. */
+    public CompletableFuture<Void> resolve(String sessionId) {
+        return submit(sessionId, duel -> {
+            duel.resolvePendingRound();
+            return null;
+        });
+    }
+
+    /** Cierra la sesión; las acciones que tuviera pendientes fallan. */
+    public boolean close(String sessionId) {
+        DuelSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /** Descarta las sesiones inactivas; la llama periódicamente el propio gestor. */
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeoutNanos;
+        Consumer<String> listener = evictionListener;
+        for (DuelSession session : sessions.values()) {
+            if (session.isIdleSince(cutoff) && sessions.remove(session.getId(), session)) {
+                session.close();
+                evicted.increment();
+                try {
+                    listener.accept(session.getId());
+                } catch (RuntimeException e) {
+                    // un fallo del listener no debe dejar sin revisar al resto de sesiones
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        sessions.values().forEach(DuelSession::close);
+        sessions.clear();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,410 @@
+package yugioh.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import yugioh.catalog.CardCatalog;
+import yugioh.core.Duel;
+import yugioh.metrics.MetricsRegistry;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio HTTP sin interfaz delante de {@link DuelManager}, sobre el
+ * {@link HttpServer} del JDK. Las manos se reparten del catálogo local y los
+ * eventos de cada duelo se envían como Server-Sent Events ({@link EventStream}).
+ * Ningún hilo queda esperando a un cliente: las respuestas se escriben cuando el
+ * actor de la sesión termina, y los eventos se escriben en hilos propios con un
+ * plazo por escritura, pasado el cual se desconecta al cliente, de modo que uno
+ * que no lee no bloquea ni las peticiones ni los eventos de los demás.
+ *
+ * <pre>
+ * POST   /duels                 reparte y abre un duelo; devuelve su estado (201)
+ * GET    /duels/{id}            estado del duelo
+ * POST   /duels/{id}/select     card=&lt;índice en la mano&gt;&amp;position=ATTACK|DEFENSE
+ * POST   /duels/{id}/resolve    resuelve la ronda seleccionada
+ * GET    /duels/{id}/events     eventos del duelo (text/event-stream, admite Last-Event-ID)
+ * DELETE /duels/{id}            cierra el duelo
+ * GET    /cards/{id}            carta del catálogo
+ * GET    /cards?q=texto         búsqueda por nombre
+ * GET    /metrics               métricas del proceso en formato Prometheus
+ * </pre>
+ *
+ * <p>Uso: {@code DuelServer <catálogo> [puerto] [inactividad s] [máx. sesiones]}.
+ */
+public final class DuelServer implements Closeable {
+
+    public static final int HAND = 3;
+
+    private static final int MAX_BODY = 1024;
+    private static final int SEARCH_LIMIT = 20;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int EVENT_WRITERS = 4;
+    private static final long EVENT_WRITE_TIMEOUT_SECONDS = 5;
+
+    static {
+        // sin TCP_NODELAY cada respuesta pequeña espera ~40 ms al ACK diferido del
+        // cliente, porque el servidor escribe cabeceras y cuerpo por separado; se lee
+        // al crear el primer HttpServer, así que solo se fija si nadie lo ha hecho
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final CardCatalog catalog;
+    private final DuelManager manager;
+    private final int maxSessions;
+    private final ExecutorService executor;
+    private final ExecutorService eventWriters;
+    private final ScheduledExecutorService eventTimer;
+    private final HttpServer server;
+    private final Map<String, EventStream> streams = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSessions duelos abiertos a la vez; por encima se responde 503,
+     *                    para que la memoria del servicio quede acotada
+     */
+    public DuelServer(CardCatalog catalog, DuelManager manager, InetSocketAddress address, int maxSessions)
+            throws IOException {
+        if (catalog.getMonsters().size() < HAND) {
+            throw new IOException("El catálogo no tiene cartas Monster suficientes para repartir");
+        }
+        this.catalog = catalog;
+        this.manager = manager;
+        this.maxSessions = maxSessions;
+        this.executor = DuelManager.newActorExecutor();
+        this.eventWriters = Executors.newFixedThreadPool(EVENT_WRITERS, DuelManager.daemon("duel-events"));
+        this.eventTimer = Executors.newSingleThreadScheduledExecutor(DuelManager.daemon("duel-events-timer"));
+        this.server = HttpServer.create(address, 1024);
+        server.setExecutor(executor);
+        server.createContext("/duels", this::handleDuels);
+        server.createContext("/cards", this::handleCards);
+        server.createContext("/metrics", this::handleMetrics);
+        manager.setEvictionListener(this::onEvicted);
+        MetricsRegistry metrics = MetricsRegistry.DEFAULT;
+        metrics.gauge("yugioh_server_sessions", "Duelos abiertos", manager::getSessionCount);
+        metrics.gauge("yugioh_server_event_streams", "Sesiones con canal de eventos", streams::size);
+        metrics.counter("yugioh_server_sessions_opened_total", "Duelos abiertos desde el arranque",
+                manager::getOpenedCount);
+        metrics.counter("yugioh_server_sessions_evicted_total", "Duelos descartados por inactividad",
+                manager::getEvictedCount);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        streams.values().forEach(EventStream::close);
+        streams.clear();
+        executor.shutdown();
+        eventWriters.shutdown();
+        eventTimer.shutdown();
+    }
+
+    private void onEvicted(String id) {
+        EventStream stream = streams.remove(id);
+        if (stream != null) {
+            stream.expire();
+        }
+    }
+
+    private void handleDuels(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().substring("/duels".length()).split("/");
+        // "/duels/abc/select" -> ["", "abc", "select"]
+        String method = exchange.getRequestMethod();
+        String id = path.length > 1 ? path[1] : "";
+        String action = path.length > 2 ? path[2] : "";
+        if (path.length > 3 || id.isEmpty() && path.length > 1) {
+            send(exchange, 404, Json.error("Ruta desconocida"));
+        } else if (id.isEmpty()) {
+            if (allow(exchange, "POST")) {
+                deal(exchange);
+            }
+        } else if (action.isEmpty()) {
+            if ("DELETE".equals(method)) {
+                close(exchange, id);
+            } else if (allow(exchange, "GET")) {
+                reply(exchange, 200, manager.submit(id, duel -> Json.state(id, duel)));
+            }
+        } else if ("select".equals(action)) {
+            if (allow(exchange, "POST")) {
+                select(exchange, id);
+            }
+        } else if ("resolve".equals(action)) {
+            if (allow(exchange, "POST")) {
+                reply(exchange, 200, manager.submit(id, duel -> resolve(id, duel)));
+            }
+        } else if ("events".equals(action)) {
+            if (allow(exchange, "GET")) {
+                events(exchange, id);
+            }
+        } else {
+            send(exchange, 404, Json.error("Ruta desconocida"));
+        }
+    }
+
+    private void deal(HttpExchange exchange) throws IOException {
+        if (manager.getSessionCount() >= maxSessions) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            send(exchange, 503, Json.error("Demasiados duelos abiertos, inténtalo más tarde"));
+            return;
+        }
+        List<Card> player = catalog.randomMonsters(HAND, ThreadLocalRandom.current());
+        List<Card> ai = catalog.randomMonsters(HAND, ThreadLocalRandom.current());
+        EventStream stream = new EventStream(eventWriters, eventTimer, EVENT_WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        String id = manager.open(player, ai, stream);
+        streams.put(id, stream);
+        exchange.getResponseHeaders().set("Location", "/duels/" + id);
+        // va detrás del inicio del duelo en el buzón, así que ya refleja quién empieza
+        reply(exchange, 201, manager.submit(id, duel -> Json.state(id, duel)));
+    }
+
+    private void select(HttpExchange exchange, String id) throws IOException {
+        Map<String, String> form = form(exchange);
+        if (form == null) {
+            return;
+        }
+        int index;
+        CardPosition position;
+        try {
+            index = Integer.parseInt(form.getOrDefault("card", ""));
+            position = CardPosition.valueOf(form.getOrDefault("position", "").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, Json.error("Se esperaba card=<índice> y position=ATTACK|DEFENSE"));
+            return;
+        }
+        reply(exchange, 200, manager.submit(id, duel -> {
+            List<Card> deck = duel.getPlayerDeck();
+            if (index < 0 || index >= deck.size()) {
+                throw new IllegalArgumentException("No hay carta " + index + " en la mano");
+            }
+            if (!duel.setPlayerSelection(new CardSelection(deck.get(index), position))) {
+                // el motivo concreto llega también por el canal de eventos
+                throw new IllegalStateException("La selección no es válida en este momento");
+            }
+            return Json.state(id, duel);
+        }));
+    }
+
+    private static String resolve(String id, Duel duel) {
+        if (duel.isActive() && (duel.getPendingPlayerSelection() == null || duel.getPendingAiSelection() == null)) {
+            throw new IllegalStateException("No hay una selección pendiente");
+        }
+        duel.resolvePendingRound();
+        return Json.state(id, duel);
+    }
+
+    private void close(HttpExchange exchange, String id) throws IOException {
+        EventStream stream = streams.remove(id);
+        if (!manager.close(id)) {
+            send(exchange, 404, Json.error(DuelSession.closedError(id).getMessage()));
+            return;
+        }
+        if (stream != null) {
+            stream.close();
+        }
+        send(exchange, 204, "");
+    }
+
+    private void events(HttpExchange exchange, String id) throws IOException {
+        EventStream stream = streams.get(id);
+        if (stream == null) {
+            send(exchange, 404, Json.error(DuelSession.closedError(id).getMessage()));
+            return;
+        }
+        long lastEventId = 0;
+        String header = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (header != null) {
+            try {
+                lastEventId = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                // se trata como una suscripción nueva
+            }
+        }
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/event-stream; charset=utf-8");
+        headers.set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        // el intercambio queda abierto: a partir de aquí escribe el EventStream
+        stream.subscribe(exchange, lastEventId);
+    }
+
+    private void handleCards(HttpExchange exchange) throws IOException {
+        if (!allow(exchange, "GET")) {
+            return;
+        }
+        String rest = exchange.getRequestURI().getPath().substring("/cards".length());
+        if (rest.isEmpty() || "/".equals(rest)) {
+            String text = query(exchange.getRequestURI().getRawQuery()).get("q");
+            if (text == null || text.isBlank()) {
+                send(exchange, 400, Json.error("Falta el parámetro q"));
+                return;
+            }
+            List<Card> found = catalog.getIndex().searchName(text, SEARCH_LIMIT);
+            send(exchange, 200, Json.cards(new StringBuilder(found.size() * 160 + 2), found).toString());
+            return;
+        }
+        Card card = null;
+        try {
+            card = catalog.getIndex().byId(Integer.parseInt(rest.substring(1)));
+        } catch (NumberFormatException e) {
+            // id mal formado: igual que si no existiera
+        }
+        if (card == null) {
+            send(exchange, 404, Json.error("No existe la carta " + rest.substring(1)));
+        } else {
+            send(exchange, 200, Json.cardDetail(card));
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (allow(exchange, "GET")) {
+            send(exchange, 200, MetricsRegistry.DEFAULT.toPrometheus(), PROMETHEUS);
+        }
+    }
+
+    private static boolean allow(HttpExchange exchange, String method) throws IOException {
+        if (method.equals(exchange.getRequestMethod())) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        send(exchange, 405, Json.error("Método no permitido: " + exchange.getRequestMethod()));
+        return false;
+    }
+
+    /** Parámetros de la consulta y del cuerpo {@code application/x-www-form-urlencoded}; null si ya se respondió. */
+    private static Map<String, String> form(HttpExchange exchange) throws IOException {
+        Map<String, String> values = query(exchange.getRequestURI().getRawQuery());
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY + 1);
+        }
+        if (body.length > MAX_BODY) {
+            send(exchange, 413, Json.error("Cuerpo demasiado grande"));
+            return null;
+        }
+        values.putAll(query(new String(body, StandardCharsets.UTF_8)));
+        return values;
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> values = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return values;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                values.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1).trim(), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    /** Responde cuando termina la acción del actor, sin ocupar el hilo mientras tanto. */
+    private static void reply(HttpExchange exchange, int status, CompletableFuture<String> result) {
+        result.whenComplete((json, error) -> {
+            try {
+                if (error == null) {
+                    send(exchange, status, json);
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    send(exchange, statusFor(cause), Json.error(cause.getMessage()));
+                }
+            } catch (IOException e) {
+                exchange.close();
+            }
+        });
+    }
+
+    private static int statusFor(Throwable error) {
+        if (error instanceof NoSuchElementException) {
+            return 404;
+        }
+        if (error instanceof IllegalArgumentException) {
+            return 400;
+        }
+        if (error instanceof IllegalStateException) {
+            return 409;
+        }
+        return 500;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, json, JSON);
+    }
+
+    private static void send(HttpExchange exchange, int status, String text, String contentType) throws IOException {
+        try {
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            if (body.length > 0) {
+                exchange.getResponseHeaders().set("Content-Type", contentType);
+            }
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: DuelServer <catálogo> [puerto] [inactividad s] [máx. sesiones]");
+            System.exit(2);
+        }
+        CardCatalog catalog = CardCatalog.open(Path.of(args[0]));
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        Duration idle = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 300);
+        int maxSessions = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+        MetricsRegistry.DEFAULT.registerPlatformJmx();
+        DuelManager manager = new DuelManager(idle);
+        DuelServer server = new DuelServer(catalog, manager, new InetSocketAddress(port), maxSessions);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            manager.close();
+        }));
+        server.start();
+        System.out.printf("Servidor de duelos en http://localhost:%d (%,d cartas, %,d monstruos)%n",
+                server.getPort(), catalog.size(), catalog.getMonsters().size());
+    }
+}
@@ -0,0 +1,75 @@
+package yugioh.server;
+
+import yugioh.core.Duel;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Un duelo alojado en {@link DuelManager}. Solo se toca desde su buzón: cada
+ * acción es un mensaje, así que las de una sesión se ejecutan en serie y las de
+ * sesiones distintas en paralelo, sin que nadie espere en el monitor del duelo.
+ */
+public final class DuelSession {
+
+    private final String id;
+    private final Duel duel;
+    private final Mailbox mailbox;
+    private volatile long lastActivityNanos = System.nanoTime();
+    private volatile boolean closed;
+
+    DuelSession(String id, Duel duel, Executor executor) {
+        this.id = id;
+        this.duel = duel;
+        this.mailbox = new Mailbox(executor);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getLastActivityNanos() {
+        return lastActivityNanos;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Encola {@code action} sobre el duelo. Si la sesión se cierra antes de que le
+     * llegue el turno, el futuro falla con {@link NoSuchElementException}.
+     */
+    <T> CompletableFuture<T> submit(Function<Duel, T> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        lastActivityNanos = System.nanoTime();
+        mailbox.post(() -> {
+            if (closed) {
+                result.completeExceptionally(closedError(id));
+                return;
+            }
+            try {
+                result.complete(action.apply(duel));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            lastActivityNanos = System.nanoTime();
+        });
+        return result;
+    }
+
+    /** Inactiva desde antes de {@code cutoffNanos} y sin mensajes pendientes. */
+    boolean isIdleSince(long cutoffNanos) {
+        return lastActivityNanos - cutoffNanos < 0 && mailbox.size() == 0;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    static NoSuchElementException closedError(String id) {
+        return new NoSuchElementException("Sesión de duelo desconocida o expirada: " + id);
+    }
+}
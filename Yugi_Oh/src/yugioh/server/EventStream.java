@@ -0,0 +1,273 @@
+package yugioh.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import yugioh.core.BattleListener;
+import yugioh.metrics.Counter;
+import yugioh.metrics.MetricsRegistry;
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eventos de una sesión como Server-Sent Events. El duelo los produce en su
+ * actor y se guardan ya formateados en un anillo de {@link #CAPACITY} marcos, de
+ * modo que la memoria por sesión está acotada aunque el cliente no lea. Cada
+ * marco lleva un id creciente: al reconectar con {@code Last-Event-ID} el cliente
+ * recibe lo que se perdió, y si ya no está en el anillo recibe antes un evento
+ * {@code desync} para que vuelva a pedir el estado.
+ *
+ * <p>Solo hay un suscriptor por sesión; uno nuevo sustituye al anterior. La
+ * escritura en el socket es bloqueante y se hace en un ejecutor propio de los
+ * eventos, nunca en el hilo del duelo ni en los del servidor HTTP. Si un lote
+ * no termina de escribirse en el plazo indicado (el cliente no lee y el búfer
+ * del socket está lleno) se interrumpe el hilo, lo que cierra la conexión, y el
+ * suscriptor se descarta: puede reconectar con {@code Last-Event-ID}.
+ */
+final class EventStream implements BattleListener {
+
+    static final int CAPACITY = 32;
+
+    private static final byte[] DESYNC = "event: desync\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EXPIRED = "event: expired\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final Counter DROPPED = MetricsRegistry.DEFAULT.counter("yugioh_server_event_streams_dropped_total",
+            "Canales de eventos cerrados porque el cliente no leía a tiempo");
+
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+    private final long writeTimeoutNanos;
+    private final byte[][] frames = new byte[CAPACITY][];
+    // id del siguiente evento; los ids empiezan en 1
+    private long nextId = 1;
+    private HttpExchange subscriber;
+    private long subscriberNext;
+    private boolean flushing;
+    private boolean closed;
+    private boolean expired;
+
+    /**
+     * @param executor     hilos en los que se escribe a los suscriptores
+     * @param timer        vigila el plazo de cada escritura
+     * @param writeTimeout tiempo máximo que puede bloquear la escritura de un lote
+     */
+    EventStream(Executor executor, ScheduledExecutorService timer, long writeTimeout, TimeUnit unit) {
+        this.executor = executor;
+        this.timer = timer;
+        this.writeTimeoutNanos = unit.toNanos(writeTimeout);
+    }
+
+    /**
+     * Suscribe {@code exchange}, con las cabeceras ya enviadas, a partir del evento
+     * siguiente a {@code lastEventId} (0 para recibirlos todos).
+     */
+    void subscribe(HttpExchange exchange, long lastEventId) {
+        HttpExchange previous;
+        synchronized (this) {
+            if (closed) {
+                previous = exchange;
+            } else {
+                previous = subscriber;
+                subscriber = exchange;
+                subscriberNext = Math.min(Math.max(lastEventId, 0) + 1, nextId);
+                scheduleFlush();
+            }
+        }
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /** Avisa al suscriptor de que la sesión ha expirado y lo desconecta. */
+    void expire() {
+        end(true);
+    }
+
+    /** Envía lo pendiente y desconecta al suscriptor (la sesión se cerró a petición del cliente). */
+    void close() {
+        end(false);
+    }
+
+    private synchronized void end(boolean expired) {
+        if (!closed) {
+            closed = true;
+            this.expired = expired;
+            if (subscriber != null) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    private void publish(String event, String data) {
+        String frame = "id: " + nextId + "\nevent: " + event + "\ndata: " + data + "\n\n";
+        synchronized (this) {
+            frames[(int) (nextId % CAPACITY)] = frame.getBytes(StandardCharsets.UTF_8);
+            nextId++;
+            if (subscriber != null) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    // con el monitor tomado
+    private void scheduleFlush() {
+        if (!flushing) {
+            flushing = true;
+            executor.execute(this::flush);
+        }
+    }
+
+    /** Escribe lo pendiente fuera del monitor; solo hay un flush en curso a la vez. */
+    private void flush() {
+        while (true) {
+            HttpExchange target;
+            byte[][] batch;
+            boolean lost;
+            boolean last = false;
+            boolean expiredNotice = false;
+            synchronized (this) {
+                target = subscriber;
+                if (target == null || subscriberNext >= nextId && !closed) {
+                    flushing = false;
+                    return;
+                }
+                long oldest = Math.max(1, nextId - CAPACITY);
+                lost = subscriberNext < oldest;
+                long from = Math.max(subscriberNext, oldest);
+                batch = new byte[(int) (nextId - from)][];
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = frames[(int) ((from + i) % CAPACITY)];
+                }
+                subscriberNext = nextId;
+                if (closed) {
+                    // lo que quedaba ya va en este lote: el último flush se queda con la conexión
+                    last = true;
+                    expiredNotice = expired;
+                    subscriber = null;
+                    flushing = false;
+                }
+            }
+            Deadline deadline = new Deadline(Thread.currentThread());
+            try {
+                deadline.watch = timer.schedule(deadline, writeTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // el servidor se está cerrando: los últimos lotes se escriben sin plazo
+            }
+            try {
+                OutputStream out = target.getResponseBody();
+                if (lost) {
+                    out.write(DESYNC);
+                }
+                for (byte[] frame : batch) {
+                    out.write(frame);
+                }
+                if (expiredNotice) {
+                    out.write(EXPIRED);
+                }
+                out.flush();
+            } catch (IOException e) {
+                // cliente desconectado: se suelta y se sigue por si ya hay otro suscrito
+                synchronized (this) {
+                    if (subscriber == target) {
+                        subscriber = null;
+                    }
+                }
+                target.close();
+            } finally {
+                deadline.finish();
+            }
+            if (last) {
+                target.close();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onDuelStarted(String startingPlayer) {
+        publish("duelStarted", Json.string(new StringBuilder("{\"startingPlayer\":"), startingPlayer)
+                .append('}').toString());
+    }
+
+    @Override
+    public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+        StringBuilder data = new StringBuilder(512).append("{\"player\":");
+        Json.selection(data, playerSelection).append(",\"ai\":");
+        Json.selection(data, aiSelection).append(",\"attacker\":");
+        Json.string(data, attacker).append(",\"roundWinner\":");
+        publish("turnResolved", Json.string(data, roundWinner).append('}').toString());
+    }
+
+    @Override
+    public void onScoreChanged(int playerScore, int aiScore) {
+        publish("scoreChanged", "{\"playerScore\":" + playerScore + ",\"aiScore\":" + aiScore + "}");
+    }
+
+    @Override
+    public void onDuelEnded(String winner) {
+        publish("duelEnded", Json.string(new StringBuilder("{\"winner\":"), winner).append('}').toString());
+    }
+
+    @Override
+    public void onError(String message, Throwable throwable) {
+        publish("error", Json.error(message));
+    }
+
+    @Override
+    public void onReplacementRequested(boolean playerSide) {
+        publish("replacementRequested", "{\"playerSide\":" + playerSide + "}");
+    }
+
+    @Override
+    public void onCardsRemoved(List<Card> playerRemoved, List<Card> aiRemoved) {
+        StringBuilder data = new StringBuilder(512).append("{\"player\":");
+        Json.cards(data, playerRemoved).append(",\"ai\":");
+        publish("cardsRemoved", Json.cards(data, aiRemoved).append('}').toString());
+    }
+
+    @Override
+    public void onAiSelectedFirst(CardSelection aiSelection) {
+        publish("aiSelectedFirst", Json.selection(new StringBuilder(256), aiSelection).toString());
+    }
+
+    /**
+     * Plazo de una escritura. Al vencer interrumpe el hilo que escribe: el canal
+     * del socket se cierra y la escritura bloqueada falla con una excepción.
+     */
+    private static final class Deadline implements Runnable {
+        private final Thread writer;
+        private Future<?> watch;
+        private boolean done;
+
+        Deadline(Thread writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!done) {
+                DROPPED.increment();
+                writer.interrupt();
+            }
+        }
+
+        /** Termina la vigilancia; el hilo vuelve al ejecutor sin la interrupción pendiente. */
+        void finish() {
+            if (watch != null) {
+                watch.cancel(false);
+            }
+            synchronized (this) {
+                done = true;
+            }
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package yugioh.server;
+
+import yugioh.core.Duel;
+import yugioh.model.Card;
+import yugioh.model.CardSelection;
+
+import java.util.List;
+
+/**
+ * Escritura de las respuestas y eventos del {@link DuelServer}. Solo genera
+ * objetos pequeños de forma fija, así que basta con un {@link StringBuilder}.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static StringBuilder string(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"');
+    }
+
+    /** Carta sin descripción, tal como se ve en la mesa. */
+    static StringBuilder card(StringBuilder out, Card card) {
+        out.append("{\"id\":").append(card.getId()).append(",\"name\":");
+        string(out, card.getName()).append(",\"type\":");
+        string(out, card.getType()).append(",\"atk\":").append(card.getAtk())
+                .append(",\"def\":").append(card.getDef()).append(",\"imageUrl\":");
+        return string(out, card.getImageUrl()).append('}');
+    }
+
+    /** Carta completa, para {@code GET /cards/{id}}. */
+    static String cardDetail(Card card) {
+        StringBuilder out = card(new StringBuilder(256), card);
+        out.setLength(out.length() - 1);
+        out.append(",\"description\":");
+        return string(out, card.getDescription()).append('}').toString();
+    }
+
+    static StringBuilder cards(StringBuilder out, List<Card> cards) {
+        out.append('[');
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            card(out, cards.get(i));
+        }
+        return out.append(']');
+    }
+
+    static StringBuilder selection(StringBuilder out, CardSelection selection) {
+        if (selection == null) {
+            return out.append("null");
+        }
+        out.append("{\"card\":");
+        card(out, selection.getCard()).append(",\"position\":\"").append(selection.getPosition()).append('"');
+        return out.append('}');
+    }
+
+    /**
+     * Estado visible del duelo para el jugador: su mano completa con las cartas
+     * que le quedan, cuántas le quedan a la IA y la carta que la IA ya ha elegido
+     * cuando abre ella la ronda. Se llama desde el actor de la sesión.
+     */
+    static String state(String id, Duel duel) {
+        StringBuilder out = new StringBuilder(512);
+        out.append("{\"id\":\"").append(id).append("\",\"active\":").append(duel.isActive())
+                .append(",\"playerTurn\":").append(duel.isPlayerTurn())
+                .append(",\"playerScore\":").append(duel.getPlayerScore())
+                .append(",\"aiScore\":").append(duel.getAiScore())
+                .append(",\"playerLives\":").append(duel.getPlayerRemainingLives())
+                .append(",\"aiLives\":").append(duel.getAiRemainingLives())
+                .append(",\"hand\":[");
+        List<Card> deck = duel.getPlayerDeck();
+        List<Card> available = duel.getPlayerAvailable();
+        for (int i = 0; i < deck.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append("{\"index\":").append(i).append(",\"available\":").append(available.contains(deck.get(i)))
+                    .append(",\"card\":");
+            card(out, deck.get(i)).append('}');
+        }
+        out.append("],\"aiRemaining\":").append(duel.getAiAvailable().size())
+                .append(",\"playerSelected\":").append(duel.getPendingPlayerSelection() != null)
+                .append(",\"aiSelection\":");
+        // la IA solo enseña su carta cuando abre ella la ronda
+        CardSelection ai = duel.isPlayerTurn() ? null : duel.getPendingAiSelection();
+        return selection(out, ai).append('}').toString();
+    }
+
+    static String error(String message) {
+        return string(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+}
@@ -0,0 +1,57 @@
+package yugioh.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de mensajes de un actor. Los mensajes se ejecutan de uno en uno y en
+ * orden de llegada, sin cerrojos: quien deja el contador en 1 programa el
+ * drenado en el ejecutor, y el drenado sigue mientras queden mensajes. Tras
+ * {@link #BATCH} mensajes cede el hilo y se vuelve a programar, para que un
+ * actor muy activo no acapare el ejecutor.
+ */
+final class Mailbox implements Runnable {
+
+    private static final int BATCH = 64;
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Executor executor;
+
+    Mailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    void post(Runnable message) {
+        queue.add(message);
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(this);
+        }
+    }
+
+    /** Mensajes encolados o en ejecución. */
+    int size() {
+        return pending.get();
+    }
+
+    @Override
+    public void run() {
+        for (int processed = 1; ; processed++) {
+            Runnable message = queue.poll();
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                // cada mensaje informa de sus errores a quien lo envió; uno roto no para al actor
+            }
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+            if (processed == BATCH) {
+                executor.execute(this);
+                return;
+            }
+        }
+    }
+}
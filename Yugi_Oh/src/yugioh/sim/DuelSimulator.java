@@ -0,0 +1,175 @@
+package yugioh.sim;
+
+import yugioh.catalog.CardCatalog;
+import yugioh.core.AiStrategy;
+import yugioh.core.BattleAdapter;
+import yugioh.core.BattleListener;
+import yugioh.core.Duel;
+import yugioh.core.DuelRandom;
+import yugioh.core.ExpectimaxAiStrategy;
+import yugioh.core.GreedyAiStrategy;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Ejecuta duelos completos sin interfaz, repartidos entre todos los núcleos con
+ * un stream paralelo. Cada duelo usa su propio {@link DuelRandom} derivado de la
+ * semilla y de su número, así que el resultado es reproducible.
+ *
+ * <p>El jugador simulado elige una carta disponible al azar y la coloca según la
+ * {@link PositionStrategy} asignada a ese duelo; la IA es la del propio {@link Duel}.
+ */
+public final class DuelSimulator {
+
+    private static final int HAND_SIZE = 3;
+
+    private static final BattleListener SILENT = new BattleAdapter() {
+        @Override
+        public void onError(String message, Throwable throwable) {
+            throw new IllegalStateException(message, throwable);
+        }
+    };
+
+    private final List<Card> pool;
+    private final Supplier<? extends AiStrategy> ai;
+    private final PositionStrategy[] strategies;
+
+    public DuelSimulator(List<Card> pool, PositionStrategy... strategies) {
+        this(pool, () -> GreedyAiStrategy.INSTANCE, strategies);
+    }
+
+    /**
+     * @param ai fábrica de la IA; se pide una instancia por duelo
+     */
+    public DuelSimulator(List<Card> pool, Supplier<? extends AiStrategy> ai, PositionStrategy... strategies) {
+        if (pool.size() < HAND_SIZE * 2) {
+            throw new IllegalArgumentException("Se necesitan al menos " + HAND_SIZE * 2 + " cartas para simular");
+        }
+        if (strategies.length == 0) {
+            throw new IllegalArgumentException("Indica al menos una estrategia de posición");
+        }
+        this.pool = List.copyOf(pool);
+        this.ai = Objects.requireNonNull(ai);
+        this.strategies = strategies.clone();
+    }
+
+    /**
+     * Simula {@code duels} duelos; la estrategia de cada uno se asigna por turnos
+     * entre las configuradas.
+     */
+    public SimulationReport run(long duels, long seed) {
+        long start = System.nanoTime();
+        SimulationReport.Tally tally = LongStream.range(0, duels)
+                .parallel()
+                .collect(() -> new SimulationReport.Tally(pool.size()),
+                        (acc, index) -> playDuel(acc, seed, index),
+                        SimulationReport.Tally::merge);
+        return new SimulationReport(pool, tally, System.nanoTime() - start);
+    }
+
+    private void playDuel(SimulationReport.Tally tally, long seed, long index) {
+        DuelRandom random = DuelRandom.forStream(seed, index);
+        PositionStrategy strategy = strategies[(int) (index % strategies.length)];
+
+        int[] dealt = deal(random);
+        List<Card> playerHand = new ArrayList<>(HAND_SIZE);
+        List<Card> aiHand = new ArrayList<>(HAND_SIZE);
+        for (int i = 0; i < HAND_SIZE; i++) {
+            playerHand.add(pool.get(dealt[i]));
+            aiHand.add(pool.get(dealt[HAND_SIZE + i]));
+        }
+
+        Duel duel = new Duel(playerHand, aiHand, SILENT, random, ai.get());
+        duel.start();
+        while (duel.isActive()) {
+            List<Card> available = duel.getPlayerAvailable();
+            Card card = available.get(random.nextInt(available.size()));
+            CardPosition position = strategy.choose(card, random);
+            duel.setPlayerSelection(new CardSelection(card, position));
+            duel.resolvePendingRound();
+        }
+
+        int outcome = Integer.compare(duel.getPlayerScore(), duel.getAiScore());
+        tally.strategyDuels[strategy.ordinal()]++;
+        if (outcome > 0) {
+            tally.strategyPlayerWins[strategy.ordinal()]++;
+        } else if (outcome < 0) {
+            tally.strategyAiWins[strategy.ordinal()]++;
+        }
+        for (int i = 0; i < dealt.length; i++) {
+            tally.cardAppearances[dealt[i]]++;
+            boolean playerSide = i < HAND_SIZE;
+            if ((playerSide && outcome > 0) || (!playerSide && outcome < 0)) {
+                tally.cardWins[dealt[i]]++;
+            }
+        }
+    }
+
+    private int[] deal(DuelRandom random) {
+        int[] dealt = new int[HAND_SIZE * 2];
+        for (int i = 0; i < dealt.length; i++) {
+            int candidate;
+            do {
+                candidate = random.nextInt(pool.size());
+            } while (contains(dealt, i, candidate));
+            dealt[i] = candidate;
+        }
+        return dealt;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Uso: {@code DuelSimulator <duelos> [semilla] [catálogo|-] [greedy|expectimax]}.
+     * El catálogo puede ser un volcado {@code .json}, un almacén {@code .ygc} o un
+     * snapshot; sin él (o con {@code -}) se simula sobre un conjunto sintético de monstruos.
+     */
+    public static void main(String[] args) throws IOException {
+        long duels = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        List<Card> pool = args.length > 2 && !args[2].equals("-")
+                ? CardCatalog.open(Path.of(args[2])).getMonsters()
+                : syntheticPool(500, seed);
+        Supplier<AiStrategy> ai = args.length > 3 && args[3].equals("expectimax")
+                ? () -> new ExpectimaxAiStrategy(Duration.ofMillis(20))
+                : () -> GreedyAiStrategy.INSTANCE;
+
+        DuelSimulator simulator = new DuelSimulator(pool, ai, PositionStrategy.values());
+        SimulationReport report = simulator.run(duels, seed);
+        System.out.print(report);
+        System.out.println("Cartas con mayor tasa de victoria:");
+        for (Card card : report.topCards(10, duels / pool.size() / 4 + 1)) {
+            int index = pool.indexOf(card);
+            System.out.printf("  %-40s %5.1f%% (%,d duelos)%n",
+                    card, report.cardWinRate(index) * 100, report.appearances(index));
+        }
+    }
+
+    static List<Card> syntheticPool(int size, long seed) {
+        DuelRandom random = new DuelRandom(seed);
+        Card[] cards = new Card[size];
+        for (int i = 0; i < size; i++) {
+            cards[i] = new Card(i + 1, "Monstruo " + (i + 1), "Normal Monster",
+                    random.nextInt(31) * 100, random.nextInt(31) * 100, "", "");
+        }
+        return Arrays.asList(cards);
+    }
+}
@@ -0,0 +1,37 @@
+package yugioh.sim;
+
+import yugioh.core.DuelRandom;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+
+/**
+ * Regla con la que el jugador simulado decide la posición de su carta.
+ */
+public enum PositionStrategy {
+    ALWAYS_ATTACK {
+        @Override
+        CardPosition choose(Card card, DuelRandom random) {
+            return CardPosition.ATTACK;
+        }
+    },
+    ALWAYS_DEFENSE {
+        @Override
+        CardPosition choose(Card card, DuelRandom random) {
+            return CardPosition.DEFENSE;
+        }
+    },
+    RANDOM {
+        @Override
+        CardPosition choose(Card card, DuelRandom random) {
+            return random.nextBoolean() ? CardPosition.ATTACK : CardPosition.DEFENSE;
+        }
+    },
+    BEST_STAT {
+        @Override
+        CardPosition choose(Card card, DuelRandom random) {
+            return card.getAtk() >= card.getDef() ? CardPosition.ATTACK : CardPosition.DEFENSE;
+        }
+    };
+
+    abstract CardPosition choose(Card card, DuelRandom random);
+}
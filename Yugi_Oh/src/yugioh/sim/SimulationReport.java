@@ -0,0 +1,131 @@
+package yugioh.sim;
+
+import yugioh.model.Card;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resultados agregados de una simulación: victorias por estrategia de posición
+ * y tasa de victoria de cada carta (duelos ganados por el lado que la tenía en
+ * la mano sobre duelos en los que apareció).
+ */
+public final class SimulationReport {
+
+    private final List<Card> pool;
+    private final long[] strategyDuels;
+    private final long[] strategyPlayerWins;
+    private final long[] strategyAiWins;
+    private final long[] cardAppearances;
+    private final long[] cardWins;
+    private final long elapsedNanos;
+
+    SimulationReport(List<Card> pool, Tally tally, long elapsedNanos) {
+        this.pool = pool;
+        this.strategyDuels = tally.strategyDuels;
+        this.strategyPlayerWins = tally.strategyPlayerWins;
+        this.strategyAiWins = tally.strategyAiWins;
+        this.cardAppearances = tally.cardAppearances;
+        this.cardWins = tally.cardWins;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long totalDuels() {
+        long total = 0;
+        for (long duels : strategyDuels) {
+            total += duels;
+        }
+        return total;
+    }
+
+    public double duelsPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalDuels() * 1e9 / elapsedNanos;
+    }
+
+    public long duels(PositionStrategy strategy) {
+        return strategyDuels[strategy.ordinal()];
+    }
+
+    public double playerWinRate(PositionStrategy strategy) {
+        return ratio(strategyPlayerWins[strategy.ordinal()], strategyDuels[strategy.ordinal()]);
+    }
+
+    public double aiWinRate(PositionStrategy strategy) {
+        return ratio(strategyAiWins[strategy.ordinal()], strategyDuels[strategy.ordinal()]);
+    }
+
+    public long appearances(int poolIndex) {
+        return cardAppearances[poolIndex];
+    }
+
+    public double cardWinRate(int poolIndex) {
+        return ratio(cardWins[poolIndex], cardAppearances[poolIndex]);
+    }
+
+    /** Las {@code limit} cartas con mayor tasa de victoria entre las que jugaron al menos {@code minAppearances} duelos. */
+    public List<Card> topCards(int limit, long minAppearances) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < pool.size(); i++) {
+            if (cardAppearances[i] >= minAppearances) {
+                indexes.add(i);
+            }
+        }
+        indexes.sort(Comparator.comparingDouble((Integer i) -> cardWinRate(i)).reversed());
+        List<Card> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, indexes.size()); i++) {
+            top.add(pool.get(indexes.get(i)));
+        }
+        return top;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%,d duelos en %.2f s (%,.0f duelos/s)%n",
+                totalDuels(), elapsedNanos / 1e9, duelsPerSecond()));
+        for (PositionStrategy strategy : PositionStrategy.values()) {
+            if (duels(strategy) == 0) {
+                continue;
+            }
+            sb.append(String.format("  %-15s jugador %5.1f%%  IA %5.1f%%  empate %5.1f%%%n",
+                    strategy,
+                    playerWinRate(strategy) * 100,
+                    aiWinRate(strategy) * 100,
+                    (1 - playerWinRate(strategy) - aiWinRate(strategy)) * 100));
+        }
+        return sb.toString();
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    /** Acumulador confinado a un hilo; se combinan al final de la simulación. */
+    static final class Tally {
+        final long[] strategyDuels = new long[PositionStrategy.values().length];
+        final long[] strategyPlayerWins = new long[PositionStrategy.values().length];
+        final long[] strategyAiWins = new long[PositionStrategy.values().length];
+        final long[] cardAppearances;
+        final long[] cardWins;
+
+        Tally(int poolSize) {
+            this.cardAppearances = new long[poolSize];
+            this.cardWins = new long[poolSize];
+        }
+
+        void merge(Tally other) {
+            add(strategyDuels, other.strategyDuels);
+            add(strategyPlayerWins, other.strategyPlayerWins);
+            add(strategyAiWins, other.strategyAiWins);
+            add(cardAppearances, other.cardAppearances);
+            add(cardWins, other.cardWins);
+        }
+
+        private static void add(long[] target, long[] source) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] += source[i];
+            }
+        }
+    }
+}
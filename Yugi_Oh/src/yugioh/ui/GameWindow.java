@@ -1,16 +1,24 @@
 package yugioh.ui;
 
 import yugioh.api.YgoApiClient;
+import yugioh.catalog.CardCatalog;
 import yugioh.core.BattleListener;
 import yugioh.core.Duel;
+import yugioh.core.DuelRandom;
+import yugioh.core.ExpectimaxAiStrategy;
+import yugioh.image.ImageCache;
+import yugioh.image.ImagePrefetcher;
+import yugioh.journal.DuelJournal;
+import yugioh.metrics.LatencyHistogram;
+import yugioh.metrics.MetricsRegistry;
 import yugioh.model.Card;
 import yugioh.model.CardPosition;
 import yugioh.model.CardSelection;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
+import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
@@ -25,17 +33,21 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
-import java.awt.Image;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
@@ -43,6 +55,34 @@ import java.util.stream.Collectors;
 public class GameWindow extends JFrame implements BattleListener {
 
     private static final int STARTING_HAND = 3;
+    // -Dyugioh.catalog=<ruta>: snapshot local (o volcado .json) para repartir sin red
+    private static final String CATALOG_PROPERTY = "yugioh.catalog";
+    // -Dyugioh.journal=<ruta>: diario binario donde se archivan los duelos para reproducirlos
+    private static final String JOURNAL_PROPERTY = "yugioh.journal";
+    // -Dyugioh.api=<url>: raíz de la API (por ejemplo, la de MockApiServer para trabajar sin red)
+    private static final String API_PROPERTY = "yugioh.api";
+    // -Dyugioh.metrics=<ruta>: al cerrar la ventana se vuelcan las métricas en formato Prometheus
+    private static final String METRICS_PROPERTY = "yugioh.metrics";
+    private static final int CARD_IMAGE_WIDTH = 160;
+    private static final int CARD_IMAGE_HEIGHT = 240;
+    private static final int BATTLE_IMAGE_WIDTH = 180;
+    private static final int BATTLE_IMAGE_HEIGHT = 262;
+    private static final List<ImageCache.Size> PREFETCH_SIZES = List.of(
+            new ImageCache.Size(CARD_IMAGE_WIDTH, CARD_IMAGE_HEIGHT),
+            new ImageCache.Size(BATTLE_IMAGE_WIDTH, BATTLE_IMAGE_HEIGHT));
+    private static final long IMAGE_MEMORY_BUDGET = 32L * 1024 * 1024;
+    // la IA decide en el EDT: su búsqueda no puede pasar de este tiempo por jugada
+    private static final Duration AI_MOVE_BUDGET = Duration.ofMillis(20);
+
+    private static final String LOAD_HELP = "Carga de manos: catálogo local, reparto y total hasta pintar las cartas";
+    private static final LatencyHistogram CATALOG_LOAD_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_ui_load_seconds", LOAD_HELP, "phase", "catalog");
+    private static final LatencyHistogram DEAL_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_ui_load_seconds", LOAD_HELP, "phase", "deal");
+    private static final LatencyHistogram HAND_LOAD_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_ui_load_seconds", LOAD_HELP, "phase", "total");
+    private static final LatencyHistogram IMAGE_WAIT_TIME = MetricsRegistry.DEFAULT.histogram(
+            "yugioh_ui_image_wait_seconds", "Tiempo con \"Cargando imagen...\" hasta pintar la ilustración");
 
     // Colores temáticos de Yu-Gi-Oh mejorados para mejor contraste
     private static final Color DARK_BLUE = new Color(0x0d1117);      // Más oscuro para mejor contraste
@@ -55,8 +95,12 @@ public class GameWindow extends JFrame implements BattleListener {
     private static final Color TEXT_PRIMARY = new Color(0xf0f6fc);   // Blanco casi puro
     private static final Color TEXT_SECONDARY = new Color(0xc9d1d9); // Gris claro
 
-    private final YgoApiClient apiClient = new YgoApiClient();
+    private final YgoApiClient apiClient = new YgoApiClient(
+            System.getProperty(API_PROPERTY, YgoApiClient.DEFAULT_BASE_URL));
     private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final ImageCache imageCache = new ImageCache(ImageCache.defaultDirectory(), IMAGE_MEMORY_BUDGET, executor);
+    // deja libre uno de los tres hilos para las imágenes que pide la interfaz
+    private final ImagePrefetcher prefetcher = new ImagePrefetcher(imageCache, 2);
 
     private final JPanel playerCardsPanel = new JPanel();
     private final JPanel aiCardsPanel = new JPanel();
@@ -68,6 +112,9 @@ public class GameWindow extends JFrame implements BattleListener {
     private final JButton reloadButton = new JButton("Cargar cartas");
 
     private Duel duel;
+    private volatile CompletableFuture<?> pendingLoad;
+    private volatile DuelJournal journal;
+    private boolean journalOpened;
     private List<Card> playerCards = List.of();
     private List<Card> aiCards = List.of();
     private final Map<Card, CardPanel> cardPanelMap = new HashMap<>();
@@ -83,6 +130,7 @@ public class GameWindow extends JFrame implements BattleListener {
 
     public GameWindow() {
         super("🎴 Yu-Gi-Oh! Duel Arena - Laboratorio DS3");
+        MetricsRegistry.DEFAULT.registerPlatformJmx();
         setupTheme();
         configureLayout();
         registerListeners();
@@ -247,45 +295,166 @@ public class GameWindow extends JFrame implements BattleListener {
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
+                CompletableFuture<?> pending = pendingLoad;
+                if (pending != null) {
+                    pending.cancel(true);
+                }
+                prefetcher.cancel();
                 executor.shutdownNow();
+                closeJournal();
+                dumpMetrics();
             }
         });
     }
 
     private void fetchHandsAsync() {
         setLoading(true, "Cargando cartas aleatorias...");
+        prefetcher.cancel();
+        long started = System.nanoTime();
+        // única referencia que se publica en pendingLoad: cancelarla llega al reparto
+        // aunque este empiece después
+        CompletableFuture<Hands> request = new CompletableFuture<>();
         CompletableFuture
-                .supplyAsync(this::loadHands, executor)
-                .whenComplete((hands, throwable) -> SwingUtilities.invokeLater(() -> {
-                    setLoading(false, "Cartas listas");
-                    if (throwable != null || hands == null) {
-                        String message = throwable != null ? throwable.getMessage() : "No se pudo cargar las cartas";
-                        onError(message, throwable);
-                        return;
+                .runAsync(this::loadCatalog, executor)
+                .thenCompose(ignored -> {
+                    CATALOG_LOAD_TIME.recordSince(started);
+                    long dealStarted = System.nanoTime();
+                    CompletableFuture<List<List<Card>>> draw = apiClient.fetchRandomMonsterHandsAsync(STARTING_HAND, 2);
+                    draw.thenRun(() -> DEAL_TIME.recordSince(dealStarted));
+                    // si la carga ya se canceló se ejecuta al momento y corta las peticiones HTTP
+                    request.whenComplete((hands, throwable) -> {
+                        if (request.isCancelled()) {
+                            draw.cancel(true);
+                        }
+                    });
+                    return draw;
+                })
+                .thenApply(hands -> {
+                    Hands dealt = new Hands(hands.get(0), hands.get(1));
+                    prefetchImages(dealt);
+                    return dealt;
+                })
+                .whenComplete((hands, throwable) -> {
+                    if (throwable != null) {
+                        request.completeExceptionally(throwable);
+                    } else {
+                        request.complete(hands);
                     }
-                    this.playerCards = hands.player;
-                    this.aiCards = hands.ai;
-                    renderAiCards();
-                    renderPlayerCards();
-                    startNewDuel();
-                }));
+                });
+        pendingLoad = request;
+        request.whenComplete((hands, throwable) -> SwingUtilities.invokeLater(() -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            setLoading(false, "Cartas listas");
+            if (throwable != null || hands == null) {
+                String message = cause != null ? cause.getMessage() : "No se pudo cargar las cartas";
+                onError(message, cause);
+                return;
+            }
+            this.playerCards = hands.player;
+            this.aiCards = hands.ai;
+            renderAiCards();
+            renderPlayerCards();
+            startNewDuel();
+            HAND_LOAD_TIME.recordSince(started);
+        }));
+    }
+
+    /**
+     * Pide las seis ilustraciones en cuanto se conocen las manos, antes de construir
+     * los paneles: primero las del jugador, que se ven al instante, y después las
+     * de la IA, que aparecen boca abajo y se muestran en la zona de batalla. Cada
+     * una se decodifica una vez para la mano y la zona de batalla.
+     */
+    private void prefetchImages(Hands hands) {
+        List<ImagePrefetcher.Request> requests = new ArrayList<>();
+        for (Card card : hands.player) {
+            addPrefetch(requests, 0, card);
+        }
+        for (Card card : hands.ai) {
+            addPrefetch(requests, 1, card);
+        }
+        prefetcher.prefetch(requests);
+    }
+
+    private static void addPrefetch(List<ImagePrefetcher.Request> requests, int priority, Card card) {
+        String url = card.getImageUrl();
+        if (url != null && !url.isBlank()) {
+            requests.add(new ImagePrefetcher.Request(priority, card.getId(), url, PREFETCH_SIZES));
+        }
     }
 
-    private Hands loadHands() {
+    private void loadCatalog() {
+        openJournal();
         try {
-            List<Card> player = apiClient.fetchRandomMonsterCards(STARTING_HAND);
-            List<Card> ai = apiClient.fetchRandomMonsterCards(STARTING_HAND);
-            return new Hands(player, ai);
+            ensureCatalog();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            throw new RuntimeException("La carga de cartas fue interrumpida", e);
+            throw new CompletionException(new IOException("La carga de cartas fue interrumpida", e));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void ensureCatalog() throws IOException, InterruptedException {
+        String location = System.getProperty(CATALOG_PROPERTY);
+        if (location == null || location.isBlank() || apiClient.getCatalog() != null) {
+            return;
+        }
+        Path path = Path.of(location);
+        if (location.endsWith(".json") || location.endsWith(".ndjson")) {
+            apiClient.setCatalog(CardCatalog.open(path));
+        } else {
+            apiClient.loadOrDownloadCatalog(path);
+        }
+    }
+
+    /** Abre el diario la primera vez que se reparte; fuera del EDT porque recorre el archivo. */
+    private synchronized void openJournal() {
+        String location = System.getProperty(JOURNAL_PROPERTY);
+        if (journalOpened || location == null || location.isBlank()) {
+            return;
+        }
+        journalOpened = true;
+        try {
+            journal = DuelJournal.open(Path.of(location));
+        } catch (IOException e) {
+            SwingUtilities.invokeLater(() -> appendLog("No se pudo abrir el diario de duelos: " + e.getMessage()));
+        }
+    }
+
+    private void closeJournal() {
+        DuelJournal current = journal;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // la ventana se está cerrando: no hay dónde mostrarlo
+            }
+        }
+    }
+
+    private static void dumpMetrics() {
+        String location = System.getProperty(METRICS_PROPERTY);
+        if (location == null || location.isBlank()) {
+            return;
+        }
+        try {
+            Files.writeString(Path.of(location), MetricsRegistry.DEFAULT.toPrometheus());
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            // la ventana se está cerrando: no hay dónde mostrarlo
         }
     }
 
     private void startNewDuel() {
-        this.duel = new Duel(playerCards, aiCards, this);
+        DuelRandom random = DuelRandom.fromEntropy();
+        DuelJournal current = journal;
+        BattleListener listener = current != null ? current.record(random, playerCards, aiCards, this) : this;
+        this.duel = new Duel(playerCards, aiCards, listener, random, new ExpectimaxAiStrategy(AI_MOVE_BUDGET));
         duel.start();
         cardPanelMap.values().forEach(panel -> panel.setUsed(false));
     }
@@ -357,7 +526,7 @@ public class GameWindow extends JFrame implements BattleListener {
             appendLog("Selección registrada: " + card.getName() + " (" + position + ")");
             // show selected in battle zone immediately
             playerBattleInfo.setText("Jugador: " + card.getName() + " (" + position + ")");
-            loadImageAsync(card.getImageUrl(), playerBattleImage);
+            loadBattleImageAsync(card, playerBattleImage);
             // reveal AI chosen card in bank and show it in battle zone immediately
             var aiSel = duel.getPendingAiSelection();
             if (aiSel != null) {
@@ -365,7 +534,7 @@ public class GameWindow extends JFrame implements BattleListener {
                 CardPanel aiPanel = aiCardPanelMap.get(aiCard);
                 if (aiPanel != null) aiPanel.reveal();
                 aiBattleInfo.setText("IA: " + aiCard.getName() + " (" + aiSel.getPosition() + ")");
-                loadImageAsync(aiCard.getImageUrl(), aiBattleImage);
+                loadBattleImageAsync(aiCard, aiBattleImage);
             }
             // enable duel button so user can confirm
             duelButton.setEnabled(true);
@@ -423,8 +592,8 @@ public class GameWindow extends JFrame implements BattleListener {
             playerBattleInfo.setText("Jugador: " + playerSelection.getCard().getName() + " (" + playerSelection.getPosition() + ")");
             aiBattleInfo.setText("IA: " + aiSelection.getCard().getName() + " (" + aiSelection.getPosition() + ")");
             // load images
-            loadImageAsync(playerSelection.getCard().getImageUrl(), playerBattleImage);
-            loadImageAsync(aiSelection.getCard().getImageUrl(), aiBattleImage);
+            loadBattleImageAsync(playerSelection.getCard(), playerBattleImage);
+            loadBattleImageAsync(aiSelection.getCard(), aiBattleImage);
             // mark AI card as used in its bank
             CardPanel aiPanel = aiCardPanelMap.get(aiSelection.getCard());
             if (aiPanel != null) aiPanel.markUsedExternally();
@@ -509,7 +678,7 @@ public class GameWindow extends JFrame implements BattleListener {
         SwingUtilities.invokeLater(() -> {
             // Mostrar la selección de la IA en la zona de batalla
             aiBattleInfo.setText("🤖 " + aiSelection.getCard().getName() + " (" + aiSelection.getPosition() + ")");
-            loadImageAsync(aiSelection.getCard().getImageUrl(), aiBattleImage);
+            loadBattleImageAsync(aiSelection.getCard(), aiBattleImage);
             // Revelar la carta de la IA en su banco
             CardPanel aiPanel = aiCardPanelMap.get(aiSelection.getCard());
             if (aiPanel != null) aiPanel.reveal();
@@ -520,36 +689,39 @@ public class GameWindow extends JFrame implements BattleListener {
         });
     }
 
-    private void loadImageAsync(String url, JLabel target) {
+    private void loadImageAsync(Card card, JLabel target) {
+        loadImageAsync(card, target, CARD_IMAGE_WIDTH, CARD_IMAGE_HEIGHT);
+    }
+
+    private void loadBattleImageAsync(Card card, JLabel target) {
+        loadImageAsync(card, target, BATTLE_IMAGE_WIDTH, BATTLE_IMAGE_HEIGHT);
+    }
+
+    private void loadImageAsync(Card card, JLabel target, int width, int height) {
+        String url = card.getImageUrl();
         if (url == null || url.isBlank()) {
             target.setText("Sin imagen");
             return;
         }
+        CompletableFuture<BufferedImage> pending = imageCache.get(card.getId(), url, width, height);
+        if (pending.isDone() && !pending.isCompletedExceptionally()) {
+            BufferedImage ready = pending.join();
+            // precargada: se pinta ya, sin pasar por "Cargando imagen..."
+            target.setIcon(new ImageIcon(ready));
+            target.setText(null);
+            return;
+        }
         target.setText("Cargando imagen...");
-        CompletableFuture
-                .supplyAsync(() -> fetchImage(url), executor)
-                .whenComplete((icon, throwable) -> SwingUtilities.invokeLater(() -> {
-                    if (throwable != null || icon == null) {
-                        target.setText("Sin imagen");
-                    } else {
-                        target.setIcon(icon);
-                        target.setText(null);
-                    }
-                }));
-    }
-
-    private javax.swing.ImageIcon fetchImage(String url) {
-        try {
-            BufferedImage image = ImageIO.read(URI.create(url).toURL());
-            if (image == null) {
-                return null;
+        long waiting = System.nanoTime();
+        pending.whenComplete((image, throwable) -> SwingUtilities.invokeLater(() -> {
+            if (throwable != null || image == null) {
+                target.setText("Sin imagen");
+            } else {
+                target.setIcon(new ImageIcon(image));
+                target.setText(null);
+                IMAGE_WAIT_TIME.recordSince(waiting);
             }
-            // Escalar imagen a tamaño más pequeño y apropiado
-            Image scaled = image.getScaledInstance(160, 240, Image.SCALE_SMOOTH);
-            return new javax.swing.ImageIcon(scaled);
-        } catch (IOException e) {
-            return null;
-        }
+        }));
     }
 
     private class CardPanel extends JPanel {
@@ -606,7 +778,7 @@ public class GameWindow extends JFrame implements BattleListener {
             bottomPanel.add(Box.createVerticalStrut(6));
             add(bottomPanel, BorderLayout.SOUTH);
             if (!faceDown) {
-                loadImageAsync(card.getImageUrl(), imageLabel);
+                loadImageAsync(card, imageLabel);
             }
         }
 
@@ -614,7 +786,7 @@ public class GameWindow extends JFrame implements BattleListener {
             if (!faceDown) return;
             faceDown = false;
             // show image and info
-            loadImageAsync(card.getImageUrl(), imageLabel);
+            loadImageAsync(card, imageLabel);
             // update title and stats
             // rebuild bottom panel life/stats (simple approach: set life label text)
             repaint();
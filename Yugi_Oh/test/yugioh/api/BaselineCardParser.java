@@ -0,0 +1,146 @@
+package yugioh.api;
+
+import yugioh.model.Card;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser de expresiones regulares con el que {@code YgoApiClient} construía las
+ * cartas antes de {@link CardJsonParser}, copiado sin cambios como referencia
+ * para las pruebas de paridad. No decodifica los escapes Unicode y corta las
+ * cadenas en la primera comilla escapada. El único cambio es el escape de cadena
+ * {@code \s} del original (un espacio, solo existe desde Java 15), escrito como
+ * un espacio normal para compilar con Java 11: las expresiones son las mismas.
+ */
+final class BaselineCardParser {
+
+    private BaselineCardParser() {
+    }
+
+    static List<Card> parseCards(String json) {
+        // Find the "data" array and extract each JSON object within it.
+        int dataIndex = json.indexOf("\"data\"");
+        if (dataIndex < 0) {
+            return List.of();
+        }
+        int arrayStart = json.indexOf('[', dataIndex);
+        if (arrayStart < 0) {
+            return List.of();
+        }
+        int idx = arrayStart + 1;
+        List<Card> cards = new ArrayList<>();
+        while (idx < json.length()) {
+            // skip whitespace
+            while (idx < json.length() && Character.isWhitespace(json.charAt(idx))) idx++;
+            if (idx >= json.length() || json.charAt(idx) == ']') break;
+            if (json.charAt(idx) != '{') {
+                idx++;
+                continue;
+            }
+            int depth = 0;
+            int objStart = idx;
+            while (idx < json.length()) {
+                char c = json.charAt(idx);
+                if (c == '{') depth++;
+                else if (c == '}') {
+                    depth--;
+                    if (depth == 0) {
+                        idx++; // include closing brace
+                        break;
+                    }
+                }
+                idx++;
+            }
+            if (depth != 0) break; // malformed
+            String objJson = json.substring(objStart, idx);
+            Card card = parseCardObject(objJson);
+            if (card != null) cards.add(card);
+            // skip commas/spaces
+            while (idx < json.length() && (Character.isWhitespace(json.charAt(idx)) || json.charAt(idx) == ',')) idx++;
+        }
+        return cards;
+    }
+
+    private static Card parseCardObject(String objJson) {
+        int id = extractInt(objJson, "\"id\" *: *(\\d+)", 0);
+        String name = extractString(objJson, "\"name\" *: *\"(.*?)\"");
+        if (name == null) name = "Desconocida";
+        String type = extractString(objJson, "\"type\" *: *\"(.*?)\"");
+        if (type == null) type = "";
+        int atk = extractInt(objJson, "\"atk\" *: *(null|\\d+)", 0);
+        int def = extractInt(objJson, "\"def\" *: *(null|\\d+)", 0);
+        String desc = extractString(objJson, "\"desc\" *: *\"(.*?)\"");
+        if (desc == null) desc = "";
+        String imageUrl = extractImageUrlFromObject(objJson);
+        return new Card(id, name, type, atk, def, desc, imageUrl);
+    }
+
+    private static int extractInt(String json, String regex, int fallback) {
+        Pattern p = Pattern.compile(regex, Pattern.DOTALL);
+        Matcher m = p.matcher(json);
+        if (m.find()) {
+            String g = m.group(1);
+            if (g == null || g.equals("null")) return fallback;
+            try {
+                return Integer.parseInt(g);
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+        return fallback;
+    }
+
+    private static String extractString(String json, String regex) {
+        Pattern p = Pattern.compile(regex, Pattern.DOTALL);
+        Matcher m = p.matcher(json);
+        if (m.find()) {
+            String g = m.group(1);
+            return unescapeJsonString(g);
+        }
+        return null;
+    }
+
+    private static String extractImageUrlFromObject(String objJson) {
+        // Find card_images array and then first image_url
+        int ci = objJson.indexOf("\"card_images\"");
+        if (ci < 0) return "";
+        int start = objJson.indexOf('[', ci);
+        if (start < 0) return "";
+        int idx = start + 1;
+        // find first object inside array
+        while (idx < objJson.length()) {
+            while (idx < objJson.length() && Character.isWhitespace(objJson.charAt(idx))) idx++;
+            if (idx >= objJson.length() || objJson.charAt(idx) == ']') break;
+            if (objJson.charAt(idx) != '{') { idx++; continue; }
+            int depth = 0;
+            int objStart = idx;
+            while (idx < objJson.length()) {
+                char c = objJson.charAt(idx);
+                if (c == '{') depth++;
+                else if (c == '}') {
+                    depth--;
+                    if (depth == 0) { idx++; break; }
+                }
+                idx++;
+            }
+            String firstImageObj = objJson.substring(objStart, idx);
+            String url = extractString(firstImageObj, "\"image_url\" *: *\"(.*?)\"");
+            return url == null ? "" : url;
+        }
+        return "";
+    }
+
+    private static String unescapeJsonString(String s) {
+        if (s == null) return null;
+        // minimal unescape for common escapes
+        return s.replaceAll("\\\\\"", "\"")
+                .replaceAll("\\\\/", "/")
+                .replaceAll("\\\\n", "\n")
+                .replaceAll("\\\\r", "\r")
+                .replaceAll("\\\\t", "\t")
+                .replaceAll("\\\\\\\\", "\\");
+    }
+}
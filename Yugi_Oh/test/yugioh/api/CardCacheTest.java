@@ -0,0 +1,130 @@
+package yugioh.api;
+
+import org.junit.jupiter.api.Test;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas simultáneas por la misma clave que comparten una sola carga, y qué
+ * se recuerda después: las cartas, los nombres inexistentes durante su plazo,
+ * y nunca los fallos.
+ */
+class CardCacheTest {
+
+    private static final Card DARK_MAGICIAN = new Card(46986414, "Dark Magician", "Normal Monster", 2500, 2100,
+            "The ultimate wizard in terms of attack and defense.", "");
+
+    @Test
+    void concurrentLookupsShareOneLoad() throws Exception {
+        CardCache cache = new CardCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<List<Card>> response = new CompletableFuture<>();
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CompletableFuture<Optional<Card>>>> lookups = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return cache.byName("dark magician", () -> {
+                        loads.incrementAndGet();
+                        return response;
+                    });
+                }));
+            }
+            start.countDown();
+            List<CompletableFuture<Optional<Card>>> pending = new ArrayList<>();
+            for (Future<CompletableFuture<Optional<Card>>> lookup : lookups) {
+                pending.add(lookup.get(10, TimeUnit.SECONDS));
+            }
+
+            response.complete(List.of(DARK_MAGICIAN));
+
+            for (CompletableFuture<Optional<Card>> lookup : pending) {
+                assertSame(DARK_MAGICIAN, lookup.get(10, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        // la respuesta queda guardada por nombre y por id
+        assertSame(DARK_MAGICIAN, cache.byName("Dark Magician", CardCacheTest::unexpectedLoad).join().orElseThrow());
+        assertSame(DARK_MAGICIAN, cache.byId(46986414, CardCacheTest::unexpectedLoad).join().orElseThrow());
+    }
+
+    @Test
+    void missingNameIsRememberedUntilItsTtl() {
+        CardCache cache = new CardCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        Optional<Card> first = cache.byName("No Existe", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(List.of());
+        }).join();
+        Optional<Card> second = cache.byName("no existe", CardCacheTest::unexpectedLoad).join();
+
+        assertFalse(first.isPresent());
+        assertFalse(second.isPresent());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void expiredMissIsLoadedAgain() {
+        CardCache cache = new CardCache(100, Duration.ofMinutes(10), Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertFalse(cache.byId(404, () -> {
+                loads.incrementAndGet();
+                return CompletableFuture.completedFuture(List.of());
+            }).join().isPresent());
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        CardCache cache = new CardCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+
+        CompletableFuture<Optional<Card>> failed = cache.byName("Dark Magician",
+                () -> CompletableFuture.failedFuture(new HttpStatusException(400, "{\"error\":\"bad param\"}")));
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IOException.class, error.getCause());
+
+        AtomicInteger loads = new AtomicInteger();
+        Optional<Card> retried = cache.byName("Dark Magician", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(List.of(DARK_MAGICIAN));
+        }).join();
+
+        assertEquals(1, loads.get());
+        assertTrue(retried.isPresent());
+    }
+
+    private static CompletableFuture<List<Card>> unexpectedLoad() {
+        throw new AssertionError("la consulta debía resolverse desde la caché");
+    }
+}
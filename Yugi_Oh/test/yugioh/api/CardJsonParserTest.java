@@ -0,0 +1,168 @@
+package yugioh.api;
+
+import org.junit.jupiter.api.Test;
+import yugioh.catalog.DatabaseVersion;
+import yugioh.model.Card;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Paridad de {@link CardJsonParser} con el parser de expresiones regulares
+ * original ({@link BaselineCardParser}) sobre respuestas grabadas de
+ * {@code cardinfo.php}, y los casos en los que el original se equivocaba.
+ */
+class CardJsonParserTest {
+
+    @Test
+    void recordedResponseMatchesBaseline() throws IOException {
+        String json = fixture("cardinfo-recorded.json");
+
+        List<Card> cards = CardJsonParser.parse(json);
+
+        assertEquals(4, cards.size());
+        assertSameCards(BaselineCardParser.parseCards(json), cards);
+    }
+
+    @Test
+    void firstImageOfAlternateArtworks() throws IOException {
+        Card darkMagician = CardJsonParser.parse(fixture("cardinfo-recorded.json")).get(0);
+
+        assertEquals("https://images.ygoprodeck.com/images/cards/46986414.jpg", darkMagician.getImageUrl());
+    }
+
+    @Test
+    void nullOrMissingStatsAndImagesMatchBaseline() throws IOException {
+        String json = fixture("cardinfo-missing-fields.json");
+
+        List<Card> cards = CardJsonParser.parse(json);
+
+        assertSameCards(BaselineCardParser.parseCards(json), cards);
+        assertCard(cards.get(0), 1861629, "Decode Talker", "Link Monster", 2300, 0,
+                "2+ Effect Monsters", "https://images.ygoprodeck.com/images/cards/1861629.jpg");
+        assertCard(cards.get(1), 10000000, "Obelisk the Tormentor", "Effect Monster", 0, 0,
+                "Requires 3 Tributes.", "");
+        assertCard(cards.get(2), 24094653, "Polymerization", "Spell Card", 0, 0,
+                "Fusion Summon 1 Fusion Monster.", "");
+        assertCard(cards.get(3), 5405694, "Black Luster Soldier", "Ritual Monster", 3000, 2500,
+                "You can Ritual Summon this card.", "");
+    }
+
+    @Test
+    void decodesUnicodeAndEscapedQuotesAndBackslashes() throws IOException {
+        List<Card> cards = CardJsonParser.parse(fixture("cardinfo-escapes.json"));
+
+        assertEquals(2, cards.size());
+        assertCard(cards.get(0), 70095154, "Cyber Dragon \u2605 Drag\u00f3n", "Effect Monster", 2100, 1600,
+                "Si solo tu adversario controla un monstruo, puedes Invocar esta carta de Modo Especial "
+                        + "(desde tu mano).\nNo puedes activar \"Cyber Dragon\" m\u00e1s de una vez por turno. "
+                        + "Ruta: C:\\cartas\\cyber.jpg \ud83d\udc09",
+                "https://images.ygoprodeck.com/images/cards/70095154.jpg");
+        assertCard(cards.get(1), 44508094, "Stardust \"Dragon\" \\", "Synchro Monster", 2500, 2000,
+                "\t1 Tuner + 1+ non-Tuner monsters\\",
+                "https://images.ygoprodeck.com/images/cards/44508094.jpg");
+    }
+
+    @Test
+    void baselineAgreesOutsideUnicodeEscapes() throws IOException {
+        String json = "{\"data\":[{\"id\":7,\"name\":\"Drag\\u00f3n\",\"type\":\"Effect Monster\","
+                + "\"desc\":\"Primera\\nSegunda\",\"atk\":1200,\"def\":null,"
+                + "\"card_images\":[{\"image_url\":\"https:\\/\\/images.ygoprodeck.com\\/7.jpg\"}]}]}";
+
+        Card parsed = CardJsonParser.parse(json).get(0);
+        Card baseline = BaselineCardParser.parseCards(json).get(0);
+
+        assertEquals("Drag\u00f3n", parsed.getName());
+        // el original dejaba los escapes Unicode tal cual; el resto coincide
+        assertEquals("Drag\\u00f3n", baseline.getName());
+        assertCard(parsed, baseline.getId(), parsed.getName(), baseline.getType(), baseline.getAtk(), baseline.getDef(),
+                baseline.getDescription(), baseline.getImageUrl());
+    }
+
+    @Test
+    void baselineFailedOnEscapedBackslash() throws IOException {
+        String json = fixture("cardinfo-escapes.json");
+
+        assertThrows(IllegalArgumentException.class, () -> BaselineCardParser.parseCards(json));
+        assertEquals(2, CardJsonParser.parse(json).size());
+    }
+
+    @Test
+    void ndjsonGivesSameCardsAsDocument() throws IOException {
+        List<Card> expected = CardJsonParser.parse(fixture("cardinfo-recorded.json"));
+        List<Card> cards = new ArrayList<>();
+
+        CardJsonParser.parseNdjson(new StringReader(fixture("cards.ndjson")), cards::add);
+
+        assertSameCards(expected, cards);
+    }
+
+    @Test
+    void topLevelArrayIsAccepted() throws IOException {
+        List<Card> cards = CardJsonParser.parse("[{\"id\":1,\"name\":\"Uno\",\"atk\":100,\"def\":200}]");
+
+        assertCard(cards.get(0), 1, "Uno", "", 100, 200, "", "");
+    }
+
+    @Test
+    void errorResponseHasNoCards() throws IOException {
+        String json = "{\"error\":\"No card matching your query was found in the database.\"}";
+
+        assertTrue(CardJsonParser.parse(json).isEmpty());
+        assertTrue(BaselineCardParser.parseCards(json).isEmpty());
+    }
+
+    @Test
+    void databaseVersion() throws IOException {
+        DatabaseVersion version = CardJsonParser.parseDatabaseVersion(fixture("checkDBVer.json"));
+
+        assertEquals(new DatabaseVersion("139.41", "2024-05-23 02:21:10"), version);
+        assertTrue(version.isKnown());
+    }
+
+    @Test
+    void unexpectedDatabaseVersionIsUnknown() throws IOException {
+        assertFalse(CardJsonParser.parseDatabaseVersion("{\"error\":\"Servicio no disponible\"}").isKnown());
+        assertFalse(CardJsonParser.parseDatabaseVersion("[]").isKnown());
+        assertEquals("", CardJsonParser.parseDatabaseVersion("[{\"database_version\":\"1.0\"}]").getLastUpdate());
+    }
+
+    private static void assertSameCards(List<Card> expected, List<Card> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Card card = expected.get(i);
+            assertCard(actual.get(i), card.getId(), card.getName(), card.getType(), card.getAtk(), card.getDef(),
+                    card.getDescription(), card.getImageUrl());
+        }
+    }
+
+    // Card.equals solo compara el id
+    private static void assertCard(Card card, int id, String name, String type, int atk, int def,
+                                   String description, String imageUrl) {
+        assertEquals(id, card.getId());
+        assertEquals(name, card.getName());
+        assertEquals(type, card.getType());
+        assertEquals(atk, card.getAtk());
+        assertEquals(def, card.getDef());
+        assertEquals(description, card.getDescription());
+        assertEquals(imageUrl, card.getImageUrl());
+    }
+
+    static String fixture(String name) throws IOException {
+        try (InputStream in = CardJsonParserTest.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Falta el fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
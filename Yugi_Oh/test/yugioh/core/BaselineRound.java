@@ -0,0 +1,74 @@
+package yugioh.core;
+
+import yugioh.model.CardPosition;
+
+/**
+ * Reglas de una ronda tal como las aplicaba {@code Duel.resolvePendingRound}
+ * antes de {@link DuelKernel}, copiadas sin cambios (salvo que trabajan con
+ * ATK/DEF sueltos y devuelven el resultado en lugar de aplicarlo) como
+ * referencia para las pruebas diferenciales.
+ */
+final class BaselineRound {
+
+    final String roundWinner;
+    final int playerPoints;
+    final int aiPoints;
+
+    private BaselineRound(String roundWinner, int playerPoints, int aiPoints) {
+        this.roundWinner = roundWinner;
+        this.playerPoints = playerPoints;
+        this.aiPoints = aiPoints;
+    }
+
+    static BaselineRound resolve(int playerAtk, int playerDef, CardPosition playerPosition,
+                                 int aiAtk, int aiDef, CardPosition aiPosition) {
+        String roundWinner = "Empate";
+        boolean playerWins = false;
+
+        if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.ATTACK) {
+            if (playerAtk > aiAtk) {
+                playerWins = true;
+            } else if (playerAtk < aiAtk) {
+                playerWins = false;
+            } else {
+                roundWinner = "Empate";
+                playerWins = false;
+            }
+        } else if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.DEFENSE) {
+            playerWins = playerAtk > aiDef;
+        } else if (playerPosition == CardPosition.DEFENSE && aiPosition == CardPosition.ATTACK) {
+            playerWins = aiAtk <= playerDef;
+        } else {
+            roundWinner = "Empate (Ambos Defendiendo)";
+            playerWins = false;
+        }
+
+        int playerPoints = 0;
+        int aiPoints = 0;
+        if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.ATTACK
+                && playerAtk != aiAtk) {
+            if (playerWins) {
+                playerPoints++;
+                roundWinner = "Jugador";
+            } else {
+                aiPoints++;
+                roundWinner = "IA";
+            }
+        } else if (playerPosition == CardPosition.ATTACK && aiPosition == CardPosition.DEFENSE) {
+            if (playerWins) {
+                playerPoints++;
+                roundWinner = "Jugador";
+            } else {
+                roundWinner = "IA (Defensa Exitosa)";
+            }
+        } else if (playerPosition == CardPosition.DEFENSE && aiPosition == CardPosition.ATTACK) {
+            if (playerWins) {
+                roundWinner = "Jugador (Defensa Exitosa)";
+            } else {
+                aiPoints++;
+                roundWinner = "IA";
+            }
+        }
+        return new BaselineRound(roundWinner, playerPoints, aiPoints);
+    }
+}
@@ -0,0 +1,229 @@
+package yugioh.core;
+
+import org.junit.jupiter.api.Test;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara {@link DuelKernel} y {@link RoundOutcome} con las reglas originales de
+ * {@code Duel.resolvePendingRound} ({@link BaselineRound}) y con el propio
+ * {@link Duel}: en cada combinación de posiciones y de empates entre ATK y DEF,
+ * y en duelos completos.
+ */
+class DuelKernelDifferentialTest {
+
+    // tres valores bastan para que salgan todos los empates ATK/ATK y ATK/DEF
+    private static final int[] STATS = {0, 1500, 2000};
+    private static final CardPosition[] POSITIONS = {CardPosition.ATTACK, CardPosition.DEFENSE};
+
+    @Test
+    void everyRoundMatchesBaseline() {
+        int atkTies = 0;
+        int atkDefTies = 0;
+        for (int playerAtk : STATS) {
+            for (int playerDef : STATS) {
+                for (int aiAtk : STATS) {
+                    for (int aiDef : STATS) {
+                        for (CardPosition playerPosition : POSITIONS) {
+                            for (CardPosition aiPosition : POSITIONS) {
+                                String round = playerAtk + "/" + playerDef + " " + playerPosition + " vs "
+                                        + aiAtk + "/" + aiDef + " " + aiPosition;
+                                BaselineRound expected = BaselineRound.resolve(
+                                        playerAtk, playerDef, playerPosition, aiAtk, aiDef, aiPosition);
+
+                                RoundOutcome outcome = RoundOutcome.fromCode(DuelKernel.resolve(
+                                        playerAtk, playerDef, position(playerPosition),
+                                        aiAtk, aiDef, position(aiPosition)));
+                                assertEquals(expected.roundWinner, outcome.getLabel(), round);
+                                assertEquals(expected.playerPoints == 1, outcome.playerScores(), round);
+                                assertEquals(expected.aiPoints == 1, outcome.aiScores(), round);
+
+                                assertKernelRound(expected, playerAtk, playerDef, playerPosition,
+                                        aiAtk, aiDef, aiPosition, round);
+                                assertDuelRound(expected, playerAtk, playerDef, playerPosition,
+                                        aiAtk, aiDef, aiPosition, round);
+
+                                if (playerAtk == aiAtk && playerPosition == CardPosition.ATTACK
+                                        && aiPosition == CardPosition.ATTACK) {
+                                    atkTies++;
+                                }
+                                if (playerPosition != aiPosition
+                                        && (playerPosition == CardPosition.ATTACK ? playerAtk == aiDef : aiAtk == playerDef)) {
+                                    atkDefTies++;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(atkTies > 0 && atkDefTies > 0);
+    }
+
+    @Test
+    void fullDuelsMatchDuel() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int game = 0; game < 2_000; game++) {
+            int[] playerAtk = randomStats(random);
+            int[] playerDef = randomStats(random);
+            int[] aiAtk = randomStats(random);
+            int[] aiDef = randomStats(random);
+            // orden de las cartas del jugador y posiciones de los dos en cada ronda
+            int[] playerOrder = shuffledOrder(random);
+            CardPosition[] playerPositions = randomPositions(random);
+            CardPosition[] aiPositions = randomPositions(random);
+            long seed = random.nextLong();
+            boolean playerStarts = new DuelRandom(seed).nextBoolean();
+
+            List<Card> playerHand = hand(1, playerAtk, playerDef);
+            List<Card> aiHand = hand(11, aiAtk, aiDef);
+            RecordingListener listener = new RecordingListener();
+            int[] aiRound = {0};
+            AiStrategy scripted = (duel, playerSelection, duelRandom) -> {
+                // la misma carta que DuelKernel.aiChoice: mayor ATK, la primera si empatan
+                Card best = null;
+                for (Card card : duel.getAiAvailable()) {
+                    if (best == null || card.getAtk() > best.getAtk()) {
+                        best = card;
+                    }
+                }
+                return new CardSelection(best, aiPositions[aiRound[0]++]);
+            };
+            Duel duel = new Duel(playerHand, aiHand, listener, new DuelRandom(seed), scripted);
+            duel.start();
+
+            DuelKernel kernel = new DuelKernel();
+            kernel.load(playerAtk, playerDef, aiAtk, aiDef, playerStarts);
+
+            for (int round = 0; !kernel.isFinished(); round++) {
+                String label = "duelo " + game + ", ronda " + round;
+                assertTrue(duel.isActive(), label);
+                assertEquals(kernel.isPlayerTurn(), duel.isPlayerTurn(), label);
+                int aiIndex = kernel.aiChoice();
+                int outcome = kernel.playRound(playerOrder[round], position(playerPositions[round]),
+                        aiIndex, position(aiPositions[round]));
+
+                assertTrue(duel.setPlayerSelection(
+                        new CardSelection(playerHand.get(playerOrder[round]), playerPositions[round])), label);
+                assertEquals(aiHand.get(aiIndex), duel.getPendingAiSelection().getCard(), label);
+                duel.resolvePendingRound();
+
+                assertEquals(RoundOutcome.fromCode(outcome).getLabel(), listener.roundWinner, label);
+                assertEquals(kernel.getPlayerScore(), duel.getPlayerScore(), label);
+                assertEquals(kernel.getAiScore(), duel.getAiScore(), label);
+                assertEquals(kernel.getPlayerLives(), duel.getPlayerRemainingLives(), label);
+                assertEquals(kernel.getAiLives(), duel.getAiRemainingLives(), label);
+            }
+            assertFalse(duel.isActive(), "duelo " + game);
+            assertEquals(winnerLabel(kernel.winner()), listener.winner, "duelo " + game);
+        }
+    }
+
+    private static void assertKernelRound(BaselineRound expected, int playerAtk, int playerDef, CardPosition playerPosition,
+                                          int aiAtk, int aiDef, CardPosition aiPosition, String round) {
+        DuelKernel kernel = new DuelKernel();
+        kernel.load(new int[]{playerAtk, 0, 0}, new int[]{playerDef, 0, 0},
+                new int[]{aiAtk, 0, 0}, new int[]{aiDef, 0, 0}, true);
+        int outcome = kernel.playRound(0, position(playerPosition), 0, position(aiPosition));
+
+        assertEquals(expected.roundWinner, RoundOutcome.fromCode(outcome).getLabel(), round);
+        assertEquals(expected.playerPoints, kernel.getPlayerScore(), round);
+        assertEquals(expected.aiPoints, kernel.getAiScore(), round);
+        assertEquals(3 - expected.aiPoints, kernel.getPlayerLives(), round);
+        assertEquals(3 - expected.playerPoints, kernel.getAiLives(), round);
+    }
+
+    private static void assertDuelRound(BaselineRound expected, int playerAtk, int playerDef, CardPosition playerPosition,
+                                        int aiAtk, int aiDef, CardPosition aiPosition, String round) {
+        List<Card> playerHand = hand(1, new int[]{playerAtk, 0, 0}, new int[]{playerDef, 0, 0});
+        List<Card> aiHand = hand(11, new int[]{aiAtk, 0, 0}, new int[]{aiDef, 0, 0});
+        RecordingListener listener = new RecordingListener();
+        AiStrategy fixed = (duel, playerSelection, random) -> new CardSelection(aiHand.get(0), aiPosition);
+        Duel duel = new Duel(playerHand, aiHand, listener, new DuelRandom(playerStartsSeed()), fixed);
+        duel.start();
+        duel.setPlayerSelection(new CardSelection(playerHand.get(0), playerPosition));
+        duel.resolvePendingRound();
+
+        assertEquals(expected.roundWinner, listener.roundWinner, round);
+        assertEquals(expected.playerPoints, duel.getPlayerScore(), round);
+        assertEquals(expected.aiPoints, duel.getAiScore(), round);
+        assertEquals(3 - expected.aiPoints, duel.getPlayerRemainingLives(), round);
+        assertEquals(3 - expected.playerPoints, duel.getAiRemainingLives(), round);
+    }
+
+    private static int position(CardPosition position) {
+        return position == CardPosition.ATTACK ? DuelKernel.ATTACK : DuelKernel.DEFENSE;
+    }
+
+    private static List<Card> hand(int firstId, int[] atk, int[] def) {
+        List<Card> hand = new ArrayList<>();
+        for (int i = 0; i < atk.length; i++) {
+            hand.add(new Card(firstId + i, "Carta " + (firstId + i), "Normal Monster", atk[i], def[i], "", ""));
+        }
+        return hand;
+    }
+
+    private static int[] randomStats(SplittableRandom random) {
+        int[] stats = new int[3];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = STATS[random.nextInt(STATS.length)];
+        }
+        return stats;
+    }
+
+    private static int[] shuffledOrder(SplittableRandom random) {
+        int[] order = {0, 1, 2};
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    private static CardPosition[] randomPositions(SplittableRandom random) {
+        CardPosition[] positions = new CardPosition[3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = POSITIONS[random.nextInt(2)];
+        }
+        return positions;
+    }
+
+    private static String winnerLabel(int winner) {
+        return winner > 0 ? "Jugador" : winner < 0 ? "IA" : "Empate";
+    }
+
+    /** Semilla cuyo primer sorteo da el turno inicial al jugador. */
+    private static long playerStartsSeed() {
+        long seed = 0;
+        while (!new DuelRandom(seed).nextBoolean()) {
+            seed++;
+        }
+        return seed;
+    }
+
+    private static final class RecordingListener extends BattleAdapter {
+        String roundWinner;
+        String winner;
+
+        @Override
+        public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+            this.roundWinner = roundWinner;
+        }
+
+        @Override
+        public void onDuelEnded(String winner) {
+            this.winner = winner;
+        }
+    }
+}
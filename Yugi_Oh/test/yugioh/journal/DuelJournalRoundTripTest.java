@@ -0,0 +1,241 @@
+package yugioh.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import yugioh.core.BattleListener;
+import yugioh.core.Duel;
+import yugioh.core.DuelRandom;
+import yugioh.model.Card;
+import yugioh.model.CardPosition;
+import yugioh.model.CardSelection;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ida y vuelta del diario: duelos con semilla registrados con
+ * {@link DuelJournal#record}, leídos con {@link DuelJournalReader} y reproducidos
+ * con {@link DuelReplayer#replay}, que deben emitir exactamente los mismos
+ * eventos que la partida original. También un diario con el último registro
+ * cortado, que se lee sin ese registro y que {@link DuelJournal#open} recorta
+ * antes de seguir añadiendo.
+ */
+class DuelJournalRoundTripTest {
+
+    private static final int DUELS = 20;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayedDuelsEmitRecordedEvents() throws IOException {
+        Path file = directory.resolve("duelos.ygj");
+        List<List<String>> played = new ArrayList<>();
+        try (DuelJournal journal = DuelJournal.open(file)) {
+            // de dos en dos y alternando rondas, para que los registros se intercalen
+            for (int seed = 0; seed < DUELS; seed += 2) {
+                played.addAll(playInterleaved(journal, seed, seed + 1));
+            }
+        }
+
+        List<RecordedDuel> recorded = DuelJournalReader.readAll(file);
+
+        assertEquals(DUELS, recorded.size());
+        for (RecordedDuel duel : recorded) {
+            int seed = (int) duel.getSeed();
+            assertTrue(duel.isComplete(), "duelo " + seed);
+            assertEquals(ids(playerHand(seed)), ids(duel.getPlayerDeck()));
+            assertEquals(ids(aiHand(seed)), ids(duel.getAiDeck()));
+            EventLog replayed = new EventLog();
+            Duel result = DuelReplayer.replay(duel, replayed);
+            assertEquals(played.get(seed), replayed.events, "duelo " + seed);
+            assertFalse(result.isActive());
+        }
+    }
+
+    @Test
+    void truncatedTailIsIgnoredAndTrimmed() throws IOException {
+        Path file = directory.resolve("cortado.ygj");
+        try (DuelJournal journal = DuelJournal.open(file)) {
+            playInterleaved(journal, 0, 1);
+        }
+        long intact = Files.size(file);
+        List<String> cutDuel;
+        try (DuelJournal journal = DuelJournal.open(file)) {
+            cutDuel = play(journal, 2);
+        }
+        long complete = Files.size(file);
+        // el proceso murió a mitad del último registro (el final del duelo 2)
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(complete - 1);
+        }
+
+        List<RecordedDuel> recorded = DuelJournalReader.readAll(file);
+        assertEquals(3, recorded.size());
+        RecordedDuel incomplete = recorded.get(2);
+        assertEquals(2, incomplete.getSeed());
+        assertFalse(incomplete.isComplete());
+        EventLog replayed = new EventLog();
+        DuelReplayer.replay(incomplete, replayed);
+        // todo salvo el final, que es lo que se perdió
+        assertEquals(cutDuel.subList(0, cutDuel.size() - 1), replayed.events);
+
+        long valid = DuelJournalReader.validLength(file);
+        assertTrue(valid > intact && valid < complete - 1);
+        List<String> appended;
+        try (DuelJournal journal = DuelJournal.open(file)) {
+            assertEquals(valid, Files.size(file));
+            appended = play(journal, 3);
+        }
+
+        recorded = DuelJournalReader.readAll(file);
+        assertEquals(4, recorded.size());
+        assertTrue(recorded.get(0).isComplete() && recorded.get(1).isComplete());
+        assertFalse(recorded.get(2).isComplete());
+        RecordedDuel last = recorded.get(3);
+        assertEquals(3, last.getSeed());
+        assertTrue(last.isComplete());
+        replayed = new EventLog();
+        DuelReplayer.replay(last, replayed);
+        assertEquals(appended, replayed.events);
+    }
+
+    /** Juega un duelo completo registrándolo y devuelve sus eventos. */
+    private static List<String> play(DuelJournal journal, int seed) {
+        Game game = new Game(journal, seed);
+        while (game.duel.isActive()) {
+            game.playRound();
+        }
+        return game.log.events;
+    }
+
+    private static List<List<String>> playInterleaved(DuelJournal journal, int firstSeed, int secondSeed) {
+        Game first = new Game(journal, firstSeed);
+        Game second = new Game(journal, secondSeed);
+        while (first.duel.isActive() || second.duel.isActive()) {
+            if (first.duel.isActive()) {
+                first.playRound();
+            }
+            if (second.duel.isActive()) {
+                second.playRound();
+            }
+        }
+        return List.of(first.log.events, second.log.events);
+    }
+
+    private static List<Card> playerHand(int seed) {
+        return hand(seed, 1, "Mago");
+    }
+
+    private static List<Card> aiHand(int seed) {
+        return hand(seed, 11, "Dragón");
+    }
+
+    private static List<Card> hand(int seed, int firstId, String name) {
+        SplittableRandom random = new SplittableRandom(seed * 31L + firstId);
+        List<Card> hand = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            hand.add(new Card(firstId + i, name + " " + (firstId + i), "Normal Monster",
+                    random.nextInt(31) * 100, random.nextInt(31) * 100, "", ""));
+        }
+        return hand;
+    }
+
+    private static List<Integer> ids(List<Card> cards) {
+        List<Integer> ids = new ArrayList<>();
+        for (Card card : cards) {
+            ids.add(card.getId());
+        }
+        return ids;
+    }
+
+    /** Un duelo registrado en el diario, con el jugador eligiendo al azar según la semilla. */
+    private static final class Game {
+        final EventLog log = new EventLog();
+        final Duel duel;
+        private final SplittableRandom moves;
+        private final List<Card> playerHand;
+        private Card used;
+
+        Game(DuelJournal journal, int seed) {
+            DuelRandom random = new DuelRandom(seed);
+            playerHand = playerHand(seed);
+            List<Card> aiHand = aiHand(seed);
+            moves = new SplittableRandom(seed);
+            duel = new Duel(playerHand, aiHand, journal.record(random, playerHand, aiHand, log), random);
+            duel.start();
+        }
+
+        void playRound() {
+            if (used != null) {
+                // una selección rechazada: el error no sale de las reglas y se reemite tal cual
+                duel.setPlayerSelection(new CardSelection(used, CardPosition.ATTACK));
+            }
+            List<Card> available = duel.getPlayerAvailable();
+            Card card = available.get(moves.nextInt(available.size()));
+            CardPosition position = moves.nextBoolean() ? CardPosition.ATTACK : CardPosition.DEFENSE;
+            duel.setPlayerSelection(new CardSelection(card, position));
+            duel.resolvePendingRound();
+            used = card;
+        }
+    }
+
+    private static final class EventLog implements BattleListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onDuelStarted(String startingPlayer) {
+            events.add("empieza " + startingPlayer);
+        }
+
+        @Override
+        public void onTurnResolved(CardSelection playerSelection, CardSelection aiSelection, String attacker, String roundWinner) {
+            events.add("ronda " + describe(playerSelection) + " contra " + describe(aiSelection)
+                    + ", ataca " + attacker + ", gana " + roundWinner);
+        }
+
+        @Override
+        public void onScoreChanged(int playerScore, int aiScore) {
+            events.add("marcador " + playerScore + "-" + aiScore);
+        }
+
+        @Override
+        public void onDuelEnded(String winner) {
+            events.add("fin " + winner);
+        }
+
+        @Override
+        public void onError(String message, Throwable throwable) {
+            events.add("error " + message);
+        }
+
+        @Override
+        public void onReplacementRequested(boolean playerSide) {
+            events.add("reemplazo " + playerSide);
+        }
+
+        @Override
+        public void onCardsRemoved(List<Card> playerRemoved, List<Card> aiRemoved) {
+            events.add("retiradas " + ids(playerRemoved) + " " + ids(aiRemoved));
+        }
+
+        @Override
+        public void onAiSelectedFirst(CardSelection aiSelection) {
+            events.add("la IA elige " + describe(aiSelection));
+        }
+
+        private static String describe(CardSelection selection) {
+            return selection.getCard().getId() + " " + selection.getCard().getName() + " " + selection.getPosition();
+        }
+    }
+}